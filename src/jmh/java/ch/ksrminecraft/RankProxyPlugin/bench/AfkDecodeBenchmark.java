@@ -0,0 +1,74 @@
+package ch.ksrminecraft.RankProxyPlugin.bench;
+
+import ch.ksrminecraft.RankProxyPlugin.utils.AfkFrameCodec;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Dekodieren von rankproxy:afk-Nachrichten: Binär-Frame mit N Spielern
+ * gegenüber N einzelnen Textnachrichten "uuid;true" (wie im Listener).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AfkDecodeBenchmark {
+
+    @Param({"1", "64"})
+    public int players;
+
+    private byte[] frame;
+    private byte[][] textMessages;
+
+    @Setup
+    public void setup() {
+        Map<UUID, Boolean> states = new LinkedHashMap<>();
+        for (int i = 0; i < players; i++) {
+            states.put(UUID.randomUUID(), i % 2 == 0);
+        }
+
+        frame = AfkFrameCodec.encode(states);
+
+        textMessages = new byte[players][];
+        int i = 0;
+        for (Map.Entry<UUID, Boolean> entry : states.entrySet()) {
+            textMessages[i++] = (entry.getKey() + ";" + entry.getValue()).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Benchmark
+    public int binaryFrame(Blackhole bh) {
+        return AfkFrameCodec.decode(frame, (uuid, afk) -> {
+            bh.consume(uuid);
+            bh.consume(afk);
+        });
+    }
+
+    @Benchmark
+    public void textMessages(Blackhole bh) {
+        for (byte[] data : textMessages) {
+            String message = new String(data, StandardCharsets.UTF_8);
+            int sep = message.indexOf(';');
+            bh.consume(UUID.fromString(message.substring(0, sep)));
+            bh.consume(Boolean.parseBoolean(message.substring(sep + 1)));
+        }
+    }
+}
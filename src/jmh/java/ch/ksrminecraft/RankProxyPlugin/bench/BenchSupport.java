@@ -0,0 +1,172 @@
+package ch.ksrminecraft.RankProxyPlugin.bench;
+
+import ch.ksrminecraft.RankProxyPlugin.utils.LogHelper;
+import ch.ksrminecraft.RankProxyPlugin.utils.LogLevel;
+import ch.ksrminecraft.RankProxyPlugin.utils.RankManager;
+import org.slf4j.helpers.NOPLogger;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Gemeinsame Testdaten und Attrappen für die Benchmarks
+ * (kein Proxy, keine Datenbank, keine Log-Ausgabe).
+ */
+final class BenchSupport {
+
+    private static final String NAME_CHARS = "abcdefghijklmnopqrstuvwxyz0123456789_";
+
+    private BenchSupport() {
+    }
+
+    static LogHelper quietLog() {
+        return new LogHelper(NOPLogger.NOP_LOGGER, LogLevel.OFF);
+    }
+
+    /**
+     * Reproduzierbare, eindeutige Minecraft-Namen (3-16 Zeichen).
+     */
+    static List<String> playerNames(int count, long seed) {
+        Random random = new Random(seed);
+        List<String> names = new ArrayList<>(count);
+        java.util.Set<String> seen = new java.util.HashSet<>();
+
+        while (names.size() < count) {
+            int length = 3 + random.nextInt(14);
+            StringBuilder sb = new StringBuilder(length);
+            for (int i = 0; i < length; i++) {
+                char c = NAME_CHARS.charAt(random.nextInt(NAME_CHARS.length()));
+                sb.append(random.nextBoolean() ? Character.toUpperCase(c) : c);
+            }
+            String name = sb.toString();
+            if (seen.add(name.toLowerCase())) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Rangleiter mit size Rängen, Grenzen im Abstand von 100 Punkten.
+     */
+    static List<RankManager.Rank> ranks(int size) {
+        List<RankManager.Rank> ranks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            RankManager.Rank rank = new RankManager.Rank();
+            rank.name = "rank_" + i;
+            rank.points = i * 100;
+            ranks.add(rank);
+        }
+        return ranks;
+    }
+
+    /**
+     * DataSource-Attrappe für StafflistManager: "SELECT UUID, name FROM stafflist"
+     * liefert die übergebenen Einträge, alle anderen Abfragen sind leer,
+     * Updates betreffen 0 Zeilen.
+     */
+    static DataSource staffTable(Map<UUID, String> staff) {
+        return proxy(DataSource.class, (method, args) -> {
+            if (method.equals("getConnection")) {
+                return connection(staff);
+            }
+            return null;
+        });
+    }
+
+    private static Connection connection(Map<UUID, String> staff) {
+        return proxy(Connection.class, (method, args) -> {
+            if (method.equals("prepareStatement")) {
+                return statement((String) args[0], staff);
+            }
+            if (method.equals("getAutoCommit")) {
+                return true;
+            }
+            return null;
+        });
+    }
+
+    private static PreparedStatement statement(String sql, Map<UUID, String> staff) {
+        return proxy(PreparedStatement.class, (method, args) -> {
+            if (method.equals("executeQuery")) {
+                List<String[]> rows = new ArrayList<>();
+                if (sql.startsWith("SELECT UUID, name FROM stafflist")) {
+                    staff.forEach((uuid, name) -> rows.add(new String[]{uuid.toString(), name}));
+                }
+                return resultSet(rows);
+            }
+            if (method.equals("executeBatch")) {
+                return new int[0];
+            }
+            return null;
+        });
+    }
+
+    private static ResultSet resultSet(List<String[]> rows) {
+        int[] cursor = {-1};
+        return proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "next":
+                    return ++cursor[0] < rows.size();
+                case "getString":
+                    String[] row = rows.get(cursor[0]);
+                    if (args[0] instanceof Integer column) {
+                        return row[column - 1];
+                    }
+                    return "UUID".equalsIgnoreCase((String) args[0]) ? row[0] : row[1];
+                default:
+                    return null;
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(BenchSupport.class.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> {
+                    if (method.getName().equals("unwrap") || method.getName().equals("isWrapperFor")) {
+                        return null;
+                    }
+                    Object result = handler.handle(method.getName(), args);
+                    return result != null ? result : defaultValue(method.getReturnType());
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == short.class) {
+            return (short) 0;
+        }
+        if (type == byte.class) {
+            return (byte) 0;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,90 @@
+package ch.ksrminecraft.RankProxyPlugin.bench;
+
+import ch.ksrminecraft.RankProxyPlugin.utils.OfflinePlayerStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Präfix- und Namenssuche im OfflinePlayerStore bei 10k / 100k Spielern.
+ * Der Store liegt in einem temporären Ordner und wird nie gespeichert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OfflinePlayerStoreBenchmark {
+
+    @Param({"10000", "100000"})
+    public int players;
+
+    @Param({"1", "3"})
+    public int prefixLength;
+
+    private Path dataFolder;
+    private OfflinePlayerStore store;
+    private String[] prefixes;
+    private String[] names;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        dataFolder = Files.createTempDirectory("rankproxy-bench");
+        store = new OfflinePlayerStore(dataFolder, BenchSupport.quietLog());
+
+        List<String> all = BenchSupport.playerNames(players, 7);
+        for (String name : all) {
+            store.record(name, UUID.randomUUID());
+        }
+
+        names = all.subList(0, 1024).toArray(new String[0]);
+        prefixes = new String[names.length];
+        for (int i = 0; i < names.length; i++) {
+            prefixes[i] = names[i].substring(0, Math.min(prefixLength, names[i].length()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dataFolder)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & 1023;
+        return cursor;
+    }
+
+    @Benchmark
+    public List<String> prefixLookupLimit50() {
+        return store.getNamesStartingWith(prefixes[next()], 50);
+    }
+
+    @Benchmark
+    public Optional<UUID> uuidByName() {
+        return store.getUUID(names[next()]);
+    }
+}
@@ -0,0 +1,77 @@
+package ch.ksrminecraft.RankProxyPlugin.bench;
+
+import ch.ksrminecraft.RankProxyPlugin.utils.RankLadder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rang-Auflösung aus PromotionManager.decide(): Zielrang aus den Punkten,
+ * aktuellen Rang aus den Gruppen des Users (ladder::contains), Vergleich.
+ *
+ * decide() selbst braucht einen geladenen LuckPerms-User; die Gruppen
+ * werden hier als Namensliste nachgebildet (ein Rang plus typische
+ * Nicht-Rang-Gruppen wie default, Staff-Tracks, Event-Gruppen).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromotionResolutionBenchmark {
+
+    @Param({"10", "100"})
+    public int ladderSize;
+
+    @Param({"3", "20"})
+    public int userGroups;
+
+    private RankLadder ladder;
+    private List<String> groups;
+    private int points;
+
+    @Setup
+    public void setup() {
+        ladder = RankLadder.of(BenchSupport.ranks(ladderSize));
+
+        groups = new ArrayList<>(userGroups);
+        for (int i = 0; i < userGroups - 1; i++) {
+            groups.add("extra_group_" + i);
+        }
+        // aktueller Rang zuletzt: schlechtester Fall für die Suche
+        groups.add("rank_" + (ladderSize / 2));
+
+        points = (ladderSize / 2) * 100 + 250;
+    }
+
+    @Benchmark
+    public boolean resolveTargetRank() {
+        var target = ladder.getRankForPoints(points);
+        if (target.isEmpty()) {
+            return false;
+        }
+
+        String targetGroup = target.get().name;
+
+        String currentRank = groups.stream()
+                .filter(ladder::contains)
+                .findFirst()
+                .orElse(null);
+
+        boolean alreadyInTarget = groups.stream().anyMatch(g -> g.equalsIgnoreCase(targetGroup));
+        return !alreadyInTarget && currentRank != null;
+    }
+}
@@ -0,0 +1,68 @@
+package ch.ksrminecraft.RankProxyPlugin.bench;
+
+import ch.ksrminecraft.RankProxyPlugin.utils.RankLadder;
+import ch.ksrminecraft.RankProxyPlugin.utils.RankManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RankManager.getRankForPoints / getRankProgress bei verschiedenen Leitergrössen.
+ *
+ * RankManager delegiert beide Aufrufe an die veröffentlichte RankLadder;
+ * gemessen wird direkt auf der Leiter, da RankManager zum Bauen
+ * ranks.yaml und LuckPerms bräuchte.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RankLadderBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int ladderSize;
+
+    private RankLadder ladder;
+    private int[] points;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        ladder = RankLadder.of(BenchSupport.ranks(ladderSize));
+
+        // Punkte quer über die ganze Leiter, auch unterhalb des ersten Rangs
+        points = new int[1024];
+        java.util.Random random = new java.util.Random(42);
+        for (int i = 0; i < points.length; i++) {
+            points[i] = random.nextInt(ladderSize * 100 + 100) - 50;
+        }
+    }
+
+    private int nextPoints() {
+        cursor = (cursor + 1) & (points.length - 1);
+        return points[cursor];
+    }
+
+    @Benchmark
+    public Optional<RankManager.Rank> getRankForPoints() {
+        return ladder.getRankForPoints(nextPoints());
+    }
+
+    @Benchmark
+    public Optional<RankManager.RankProgressInfo> getRankProgress() {
+        return ladder.getRankProgress(nextPoints());
+    }
+}
@@ -0,0 +1,78 @@
+package ch.ksrminecraft.RankProxyPlugin.bench;
+
+import ch.ksrminecraft.RankProxyPlugin.utils.StafflistManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StafflistManager.isStaff gegen den geladenen Snapshot (Treffer und
+ * Fehlschläge gemischt), auch mit mehreren Threads gleichzeitig.
+ * Die Stafflist kommt aus einer DataSource-Attrappe.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StaffCheckBenchmark {
+
+    @Param({"10", "1000"})
+    public int staffSize;
+
+    private StafflistManager stafflistManager;
+    private UUID[] lookups;
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int value;
+    }
+
+    @Setup
+    public void setup() {
+        Map<UUID, String> staff = new HashMap<>();
+        for (int i = 0; i < staffSize; i++) {
+            staff.put(UUID.randomUUID(), "staff" + i);
+        }
+
+        stafflistManager = new StafflistManager(BenchSupport.staffTable(staff), BenchSupport.quietLog());
+        if (!stafflistManager.isLoaded()) {
+            throw new IllegalStateException("Stafflist-Attrappe wurde nicht geladen");
+        }
+
+        // halb Staff, halb normale Spieler
+        UUID[] staffIds = staff.keySet().toArray(new UUID[0]);
+        lookups = new UUID[1024];
+        for (int i = 0; i < lookups.length; i++) {
+            lookups[i] = (i % 2 == 0) ? staffIds[i % staffIds.length] : UUID.randomUUID();
+        }
+    }
+
+    @Benchmark
+    public boolean isStaff(Cursor cursor) {
+        cursor.value = (cursor.value + 1) & 1023;
+        return stafflistManager.isStaff(lookups[cursor.value]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean isStaffContended(Cursor cursor) {
+        cursor.value = (cursor.value + 1) & 1023;
+        return stafflistManager.isStaff(lookups[cursor.value]);
+    }
+}
@@ -0,0 +1,98 @@
+package ch.ksrminecraft.RankProxyPlugin.bench;
+
+import ch.ksrminecraft.RankProxyPlugin.utils.CommandUtils;
+import ch.ksrminecraft.RankProxyPlugin.utils.PlayerNameIndex;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.model.user.UserManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CommandUtils.suggestPlayerNames bei vielen Spielern:
+ * "index" über den PlayerNameIndex, "scan" über den Fallback
+ * (alle Online-Spieler + geladene LuckPerms-User durchlaufen).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestPlayerNamesBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int players;
+
+    @Param({"index", "scan"})
+    public String mode;
+
+    private ProxyServer proxy;
+    private LuckPerms luckPerms;
+    private PlayerNameIndex nameIndex;
+    private String[] prefixes;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<String> names = BenchSupport.playerNames(players, 11);
+
+        List<Player> online = new ArrayList<>(names.size());
+        PlayerNameIndex index = new PlayerNameIndex(BenchSupport.quietLog(), 50);
+        for (String name : names) {
+            UUID uuid = UUID.randomUUID();
+            online.add(player(name, uuid));
+            index.playerJoined(uuid, name);
+        }
+
+        proxy = (ProxyServer) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ProxyServer.class},
+                (p, method, args) -> method.getName().equals("getAllPlayers") ? online : null);
+
+        UserManager userManager = (UserManager) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{UserManager.class},
+                (p, method, args) -> method.getName().equals("getLoadedUsers") ? Set.of() : null);
+        luckPerms = (LuckPerms) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{LuckPerms.class},
+                (p, method, args) -> method.getName().equals("getUserManager") ? userManager : null);
+
+        nameIndex = "index".equals(mode) ? index : null;
+
+        prefixes = new String[256];
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = names.get(i);
+            prefixes[i] = name.substring(0, Math.min(2, name.length()));
+        }
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        cursor = (cursor + 1) & 255;
+        return CommandUtils.suggestPlayerNames(proxy, luckPerms, nameIndex, prefixes[cursor]);
+    }
+
+    private Player player(String name, UUID uuid) {
+        return (Player) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Player.class},
+                (p, method, args) -> switch (method.getName()) {
+                    case "getUsername" -> name;
+                    case "getUniqueId" -> uuid;
+                    default -> null;
+                });
+    }
+}
@@ -0,0 +1,122 @@
+package ch.ksrminecraft.RankProxyPlugin.loadtest;
+
+import org.slf4j.Logger;
+import org.slf4j.helpers.MessageFormatter;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Attrappen über java.lang.reflect.Proxy: nur die Methoden, die das Plugin
+ * wirklich aufruft, werden nachgebildet; alle anderen liefern neutrale
+ * Standardwerte (false, 0, leere Optionals/Collections, fertige Futures).
+ */
+final class Fakes {
+
+    @FunctionalInterface
+    interface Method {
+        Object call(Object[] args) throws Throwable;
+    }
+
+    private Fakes() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T proxy(Class<T> type, Map<String, Method> methods) {
+        InvocationHandler handler = (self, method, args) -> {
+            Object[] a = (args == null) ? new Object[0] : args;
+            Method impl = methods.get(method.getName());
+            if (impl != null) {
+                return impl.call(a);
+            }
+            return switch (method.getName()) {
+                case "equals" -> self == a[0];
+                case "hashCode" -> System.identityHashCode(self);
+                case "toString" -> type.getSimpleName() + "@fake";
+                default -> defaultValue(method.getReturnType());
+            };
+        };
+        return (T) Proxy.newProxyInstance(Fakes.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type.isPrimitive()) {
+            if (type == boolean.class) {
+                return false;
+            }
+            if (type == long.class) {
+                return 0L;
+            }
+            if (type == double.class) {
+                return 0.0;
+            }
+            if (type == float.class) {
+                return 0f;
+            }
+            if (type == short.class) {
+                return (short) 0;
+            }
+            if (type == byte.class) {
+                return (byte) 0;
+            }
+            if (type == char.class) {
+                return (char) 0;
+            }
+            return type == void.class ? null : 0;
+        }
+        if (type == Optional.class) {
+            return Optional.empty();
+        }
+        if (type == CompletableFuture.class) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (type == List.class || type == Collection.class) {
+            return List.of();
+        }
+        if (type == Set.class) {
+            return Set.of();
+        }
+        return null;
+    }
+
+    /**
+     * slf4j-Logger auf stderr (WARN/ERROR, mit verbose auch INFO),
+     * damit der Harness keine slf4j-Bindung braucht.
+     */
+    static Logger consoleLogger(boolean verbose) {
+        return proxy(Logger.class, Map.of(
+                "getName", a -> "RankProxyPlugin",
+                "isErrorEnabled", a -> true,
+                "isWarnEnabled", a -> true,
+                "isInfoEnabled", a -> verbose,
+                "error", a -> print("ERROR", a),
+                "warn", a -> print("WARN ", a),
+                "info", a -> verbose ? print("INFO ", a) : null
+        ));
+    }
+
+    private static Object print(String level, Object[] args) {
+        if (args.length == 0 || !(args[0] instanceof String format)) {
+            return null;
+        }
+
+        Object[] params = Arrays.copyOfRange(args, 1, args.length);
+        if (params.length == 1 && params[0] instanceof Object[] varargs) {
+            params = varargs;
+        }
+
+        var result = MessageFormatter.arrayFormat(format, params);
+        System.err.println("[" + level + "] " + result.getMessage());
+        if (result.getThrowable() != null) {
+            System.err.println("        " + result.getThrowable());
+        }
+        return null;
+    }
+}
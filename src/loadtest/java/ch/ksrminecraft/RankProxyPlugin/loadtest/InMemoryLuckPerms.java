@@ -0,0 +1,191 @@
+package ch.ksrminecraft.RankProxyPlugin.loadtest;
+
+import net.luckperms.api.LuckPerms;
+import net.luckperms.api.LuckPermsProvider;
+import net.luckperms.api.model.data.DataMutateResult;
+import net.luckperms.api.model.data.NodeMap;
+import net.luckperms.api.model.group.Group;
+import net.luckperms.api.model.group.GroupManager;
+import net.luckperms.api.model.user.User;
+import net.luckperms.api.model.user.UserManager;
+import net.luckperms.api.node.NodeBuilderRegistry;
+import net.luckperms.api.node.types.InheritanceNode;
+import net.luckperms.api.query.QueryOptions;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LuckPerms im Speicher: User mit direkten Gruppen (Vererbung nur eine Ebene),
+ * loadUser/saveUser optional mit künstlicher Latenz wie bei einer
+ * LuckPerms-Datenbank. Nur das, was PromotionManager, StaffPermissionService
+ * und RankManager verwenden.
+ */
+final class InMemoryLuckPerms {
+
+    private final Map<UUID, Set<String>> groupsByUser = new ConcurrentHashMap<>();
+    private final Map<String, Group> groups = new ConcurrentHashMap<>();
+    private final Executor latency;
+    private final String defaultGroup;
+
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder saves = new LongAdder();
+
+    private final QueryOptions queryOptions = Fakes.proxy(QueryOptions.class, Map.of());
+    private final LuckPerms api;
+
+    InMemoryLuckPerms(int latencyMillis, String defaultGroup) {
+        this.latency = latencyMillis > 0
+                ? CompletableFuture.delayedExecutor(latencyMillis, TimeUnit.MILLISECONDS)
+                : Runnable::run;
+        this.defaultGroup = defaultGroup;
+
+        UserManager userManager = Fakes.proxy(UserManager.class, Map.of(
+                "loadUser", a -> load((UUID) a[0]),
+                "saveUser", a -> save(),
+                "getUser", a -> (a[0] instanceof UUID uuid) ? user(uuid) : null,
+                "isLoaded", a -> groupsByUser.containsKey((UUID) a[0])
+        ));
+
+        GroupManager groupManager = Fakes.proxy(GroupManager.class, Map.of(
+                "getGroup", a -> group((String) a[0]),
+                "createAndLoadGroup", a -> CompletableFuture.completedFuture(group((String) a[0])),
+                "loadGroup", a -> CompletableFuture.completedFuture(java.util.Optional.of(group((String) a[0]))),
+                "isLoaded", a -> true
+        ));
+
+        NodeBuilderRegistry builders = Fakes.proxy(NodeBuilderRegistry.class, Map.of(
+                "forInheritance", a -> inheritanceBuilder()
+        ));
+
+        this.api = Fakes.proxy(LuckPerms.class, Map.of(
+                "getUserManager", a -> userManager,
+                "getGroupManager", a -> groupManager,
+                "getNodeBuilderRegistry", a -> builders
+        ));
+    }
+
+    LuckPerms api() {
+        return api;
+    }
+
+    /**
+     * Registriert die Attrappe beim LuckPermsProvider, damit die statischen
+     * Node-Builder (InheritanceNode.builder(...)) funktionieren.
+     */
+    void install() throws ReflectiveOperationException {
+        Method register = LuckPermsProvider.class.getDeclaredMethod("register", LuckPerms.class);
+        register.setAccessible(true);
+        register.invoke(null, api);
+    }
+
+    /**
+     * Vorbelegung ohne Latenz (z. B. Staff-Gruppen vor dem Start).
+     */
+    void assign(UUID uuid, String group) {
+        groupsFor(uuid).add(group.toLowerCase(Locale.ROOT));
+    }
+
+    long getLoads() {
+        return loads.sum();
+    }
+
+    long getSaves() {
+        return saves.sum();
+    }
+
+    int getUserCount() {
+        return groupsByUser.size();
+    }
+
+    private CompletableFuture<User> load(UUID uuid) {
+        loads.increment();
+        return CompletableFuture.supplyAsync(() -> user(uuid), latency);
+    }
+
+    private CompletableFuture<Void> save() {
+        saves.increment();
+        return CompletableFuture.runAsync(() -> { }, latency);
+    }
+
+    private Set<String> groupsFor(UUID uuid) {
+        return groupsByUser.computeIfAbsent(uuid, u -> {
+            Set<String> set = ConcurrentHashMap.newKeySet();
+            set.add(defaultGroup.toLowerCase(Locale.ROOT));
+            return set;
+        });
+    }
+
+    private User user(UUID uuid) {
+        Set<String> direct = groupsFor(uuid);
+
+        NodeMap data = Fakes.proxy(NodeMap.class, Map.of(
+                "add", a -> direct.add(groupOf(a[0])) ? DataMutateResult.SUCCESS : DataMutateResult.FAIL_ALREADY_HAS,
+                "remove", a -> direct.remove(groupOf(a[0])) ? DataMutateResult.SUCCESS : DataMutateResult.FAIL_LACKS,
+                "clear", a -> {
+                    direct.clear();
+                    return null;
+                }
+        ));
+
+        return Fakes.proxy(User.class, Map.of(
+                "getUniqueId", a -> uuid,
+                "getPrimaryGroup", a -> direct.stream().findFirst().orElse(defaultGroup),
+                "data", a -> data,
+                "getNodes", a -> direct.stream().map(InMemoryLuckPerms::node).toList(),
+                "getQueryOptions", a -> queryOptions,
+                "getInheritedGroups", a -> direct.stream().map(this::group).toList()
+        ));
+    }
+
+    private Group group(String name) {
+        return groups.computeIfAbsent(name.toLowerCase(Locale.ROOT), n -> Fakes.proxy(Group.class, Map.of(
+                "getName", a -> n,
+                "data", a -> Fakes.proxy(NodeMap.class, Map.of(
+                        "add", x -> DataMutateResult.SUCCESS,
+                        "remove", x -> DataMutateResult.SUCCESS
+                ))
+        )));
+    }
+
+    private InheritanceNode.Builder inheritanceBuilder() {
+        String[] group = {null};
+        InheritanceNode.Builder[] self = new InheritanceNode.Builder[1];
+        self[0] = Fakes.proxy(InheritanceNode.Builder.class, Map.of(
+                "group", a -> {
+                    group[0] = (a[0] instanceof Group g) ? g.getName() : (String) a[0];
+                    return self[0];
+                },
+                "value", a -> self[0],
+                "expiry", a -> self[0],
+                "withContext", a -> self[0],
+                "build", a -> node(group[0])
+        ));
+        return self[0];
+    }
+
+    private static InheritanceNode node(String group) {
+        String name = group.toLowerCase(Locale.ROOT);
+        return Fakes.proxy(InheritanceNode.class, Map.of(
+                "getGroupName", a -> name,
+                "getKey", a -> "group." + name,
+                "getValue", a -> true,
+                "equals", a -> a[0] instanceof InheritanceNode other && name.equals(other.getGroupName()),
+                "hashCode", a -> name.hashCode(),
+                "toString", a -> "group." + name,
+                "getContexts", a -> null
+        ));
+    }
+
+    private static String groupOf(Object node) {
+        return ((InheritanceNode) node).getGroupName();
+    }
+}
@@ -0,0 +1,630 @@
+package ch.ksrminecraft.RankProxyPlugin.loadtest;
+
+import ch.ksrminecraft.RankProxyPlugin.listeners.AfkMessageListener;
+import ch.ksrminecraft.RankProxyPlugin.listeners.PlayerDisconnectListener;
+import ch.ksrminecraft.RankProxyPlugin.listeners.PlayerLoginListener;
+import ch.ksrminecraft.RankProxyPlugin.loadtest.SimulatedProxy.SimPlayer;
+import ch.ksrminecraft.RankProxyPlugin.utils.AfkFrameCodec;
+import ch.ksrminecraft.RankProxyPlugin.utils.AfkManager;
+import ch.ksrminecraft.RankProxyPlugin.utils.ConfigManager;
+import ch.ksrminecraft.RankProxyPlugin.utils.DbExecutor;
+import ch.ksrminecraft.RankProxyPlugin.utils.InMemoryPointsRepository;
+import ch.ksrminecraft.RankProxyPlugin.utils.LatencyHistogram;
+import ch.ksrminecraft.RankProxyPlugin.utils.LogHelper;
+import ch.ksrminecraft.RankProxyPlugin.utils.LogLevel;
+import ch.ksrminecraft.RankProxyPlugin.utils.MetricsRegistry;
+import ch.ksrminecraft.RankProxyPlugin.utils.MySqlPointsRepository;
+import ch.ksrminecraft.RankProxyPlugin.utils.OfflinePlayerStore;
+import ch.ksrminecraft.RankProxyPlugin.utils.PendingStaffEventStore;
+import ch.ksrminecraft.RankProxyPlugin.utils.PlayerNameIndex;
+import ch.ksrminecraft.RankProxyPlugin.utils.PointsBatchWriter;
+import ch.ksrminecraft.RankProxyPlugin.utils.PointsCache;
+import ch.ksrminecraft.RankProxyPlugin.utils.PointsLedger;
+import ch.ksrminecraft.RankProxyPlugin.utils.PointsRepository;
+import ch.ksrminecraft.RankProxyPlugin.utils.PointsService;
+import ch.ksrminecraft.RankProxyPlugin.utils.PresenceManager;
+import ch.ksrminecraft.RankProxyPlugin.utils.PromotionManager;
+import ch.ksrminecraft.RankProxyPlugin.utils.RankManager;
+import ch.ksrminecraft.RankProxyPlugin.utils.SchedulerManager;
+import ch.ksrminecraft.RankProxyPlugin.utils.StaffPermissionService;
+import ch.ksrminecraft.RankProxyPlugin.utils.StafflistManager;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import com.velocitypowered.api.scheduler.Scheduler;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Synthetischer Lasttest für 2k–5k Spieler ohne echten Proxy.
+ *
+ * Baut die Plugin-Komponenten wie RankProxyPlugin.onProxyInitialize auf,
+ * aber mit SimulatedProxy, InMemoryLuckPerms, VirtualScheduler und einer
+ * eingebetteten H2-Datenbank im MySQL-Modus. Pro simulierter Sekunde:
+ * Joins/Leaves/Serverwechsel, AFK-Nachrichten, ab und zu Staff-Änderungen,
+ * dann werden alle fälligen Scheduler-Tasks ausgeführt und es wird
+ * gewartet, bis DB-Executor und Promotion-Prüfungen wieder leer sind.
+ *
+ * Ausgabe: Dauer pro simulierter Sekunde und pro Punkte-Tick (Perzentile),
+ * DB-Statements pro Sekunde / Tick je Komponente, Heap-Wachstum.
+ *
+ * Optionen (alle --name=wert): players, seconds, ramp-seconds, staff,
+ * churn-per-minute, switch-per-minute, afk-per-minute (Prozent der
+ * Online-Spieler), staff-changes-per-minute, afk-frames, lp-latency-ms,
+ * points-in-memory, tick-budget-ms, max-tick-p99-ms, seed, jdbc-url,
+ * db-user, db-password, prometheus-out, verbose.
+ */
+public final class LoadHarness {
+
+    private static final List<String> BACKENDS = List.of("lobby", "survival", "creative", "minigames");
+    private static final List<String> DB_COMPONENTS = List.of("stafflist", "presence", "points");
+
+    private static final String DEFAULT_JDBC_URL =
+            "jdbc:h2:mem:rankproxy-load;MODE=MySQL;DATABASE_TO_LOWER=TRUE;CASE_INSENSITIVE_IDENTIFIERS=TRUE;DB_CLOSE_DELAY=-1";
+
+    private final Map<String, String> options;
+    private final Random random;
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    // Plugin-Komponenten
+    private final MetricsRegistry metrics = new MetricsRegistry();
+    private ConfigManager config;
+    private LogHelper log;
+    private HikariDataSource dataSource;
+    private DbExecutor dbExecutor;
+    private StafflistManager stafflistManager;
+    private PresenceManager presenceManager;
+    private PointsService pointsService;
+    private PromotionManager promotionManager;
+    private OfflinePlayerStore offlinePlayerStore;
+    private AfkMessageListener afkListener;
+    private PlayerLoginListener loginListener;
+    private PlayerDisconnectListener disconnectListener;
+
+    // Simulation
+    private final VirtualScheduler clock = new VirtualScheduler();
+    private SimulatedProxy proxy;
+    private InMemoryLuckPerms luckPerms;
+    private final List<SimPlayer> offline = new ArrayList<>();
+    private final List<SimPlayer> online = new ArrayList<>();
+    private final Set<UUID> staff = new HashSet<>();
+
+    // Messwerte des Harness
+    private final LatencyHistogram secondDuration = new LatencyHistogram();
+    private final LatencyHistogram pointsTickDuration = new LatencyHistogram();
+    private long[] statementsPerSecond;
+    private final List<Long> statementsPerPointsTick = new ArrayList<>();
+    private int overBudget;
+    private long peakHeap;
+    private long events;
+
+    private LoadHarness(Map<String, String> options) {
+        this.options = options;
+        this.random = new Random(longOption("seed", 42));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                continue;
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+
+        LoadHarness harness = new LoadHarness(options);
+        int exitCode;
+        try {
+            harness.setUp();
+            harness.run();
+            exitCode = harness.report();
+        } finally {
+            harness.tearDown();
+        }
+        System.exit(exitCode);
+    }
+
+    // ---------------------------------------------------------------------
+    // Aufbau (wie RankProxyPlugin.onProxyInitialize)
+    // ---------------------------------------------------------------------
+
+    private void setUp() throws Exception {
+        boolean verbose = boolOption("verbose", false);
+        Path dataDirectory = Files.createTempDirectory("rankproxy-load");
+        copyResource("resources.yaml", dataDirectory);
+        copyResource("ranks.yaml", dataDirectory);
+
+        var baseLogger = Fakes.consoleLogger(verbose);
+        this.config = new ConfigManager(dataDirectory, baseLogger);
+        this.log = new LogHelper(baseLogger, verbose ? LogLevel.INFO : LogLevel.WARN);
+
+        String jdbcUrl = stringOption("jdbc-url", DEFAULT_JDBC_URL);
+        String dbUser = stringOption("db-user", "sa");
+        String dbPassword = stringOption("db-password", "");
+
+        HikariConfig hikari = new HikariConfig();
+        hikari.setJdbcUrl(jdbcUrl);
+        hikari.setUsername(dbUser);
+        hikari.setPassword(dbPassword);
+        hikari.setPoolName("RankProxyLoad");
+        hikari.setMaximumPoolSize(config.getMysqlPoolSize());
+        this.dataSource = new HikariDataSource(hikari);
+        createPointsTable(config.getPointsTable());
+
+        Scheduler scheduler = clock.asScheduler();
+        this.proxy = new SimulatedProxy(scheduler, BACKENDS);
+        this.luckPerms = new InMemoryLuckPerms(intOption("lp-latency-ms", 2), config.getDefaultDefaultGroup());
+        luckPerms.install();
+        Object plugin = this;
+
+        this.dbExecutor = new DbExecutor(config.getMysqlPoolSize(), log);
+        dbExecutor.setMetrics(metrics);
+
+        this.stafflistManager = new StafflistManager(
+                metrics.instrument(dataSource, "stafflist"), log, dbExecutor);
+        stafflistManager.setFullResyncSeconds(config.getStaffFullResyncIntervalSeconds());
+        this.presenceManager = new PresenceManager(metrics.instrument(dataSource, "presence"), log, dbExecutor);
+        int presenceFlushMillis = config.getPresenceFlushIntervalMillis();
+        scheduler.buildTask(plugin, presenceManager::flush)
+                .delay(presenceFlushMillis, TimeUnit.MILLISECONDS)
+                .repeat(presenceFlushMillis, TimeUnit.MILLISECONDS)
+                .schedule();
+
+        PendingStaffEventStore pendingStaffEventStore = new PendingStaffEventStore();
+        DataSource pointsDataSource = metrics.instrument(dataSource, "points");
+        PointsBatchWriter batchWriter = new PointsBatchWriter(
+                pointsDataSource, log, config.getPointsTable(), config.getPointsBatchSize());
+        PointsLedger ledger = config.isWriteBehindEnabled()
+                ? new PointsLedger(dataDirectory, batchWriter, log)
+                : null;
+        PointsCache cache = config.isPointsCacheEnabled()
+                ? new PointsCache(config.getPointsCacheMaxEntries(), config.getPointsCacheTtlSeconds())
+                : null;
+        PointsRepository repository = boolOption("points-in-memory", false)
+                ? new InMemoryPointsRepository()
+                : new MySqlPointsRepository(pointsDataSource, log, batchWriter, config.getPointsBatchSize());
+        this.pointsService = new PointsService(repository, ledger, cache, log);
+        pointsService.setExcludedFromPoints(uuid -> !config.isStaffPointsAllowed() && stafflistManager.isStaff(uuid));
+
+        this.offlinePlayerStore = new OfflinePlayerStore(dataDirectory, log, config.getOfflinePlayersMaxEntries());
+        PlayerNameIndex nameIndex = new PlayerNameIndex(log, config.getSuggestionLimit());
+        stafflistManager.setSnapshotListener(nameIndex::updateStaff);
+
+        RankManager rankManager = new RankManager(dataDirectory, log, luckPerms.api());
+        List<String> playerTrackGroups = rankManager.getLadder().getRanks().stream().map(r -> r.name).toList();
+
+        this.promotionManager = new PromotionManager(
+                luckPerms.api(), rankManager, stafflistManager, pointsService, log,
+                config.getDefaultDefaultGroup(), proxy.server(), scheduler, plugin,
+                config.getPromotionMaxConcurrent(), config.getPromotionStepTimeoutSeconds());
+        promotionManager.setMetrics(metrics);
+
+        StaffPermissionService staffPermissionService = new StaffPermissionService(
+                luckPerms.api(), log, playerTrackGroups, config.getStaffRanks(),
+                config.getDefaultTrackName(), config.getStaffTrackName(),
+                config.getDefaultDefaultGroup(), config.getStaffDefaultGroup());
+        staffPermissionService.setMetrics(metrics);
+
+        AfkManager afkManager = new AfkManager();
+        this.afkListener = new AfkMessageListener(proxy.server(), afkManager, log, presenceManager, null,
+                config.getAfkHysteresisSeconds(), config.getAfkRateLimitPerSecond(), config.getAfkRateLimitBurst());
+        afkListener.setMetrics(metrics);
+        if (afkListener.isHysteresisEnabled()) {
+            scheduler.buildTask(plugin, afkListener::commitDue)
+                    .delay(1, TimeUnit.SECONDS)
+                    .repeat(1, TimeUnit.SECONDS)
+                    .schedule();
+        }
+
+        SchedulerManager schedulerManager = new SchedulerManager(
+                proxy.server(), scheduler, pointsService, stafflistManager, config, promotionManager,
+                staffPermissionService, pendingStaffEventStore, offlinePlayerStore, log, afkManager, dbExecutor);
+        schedulerManager.setMetrics(metrics);
+        schedulerManager.startTasks(plugin);
+
+        this.loginListener = new PlayerLoginListener(promotionManager, offlinePlayerStore, stafflistManager,
+                staffPermissionService, pendingStaffEventStore, log, scheduler, plugin, presenceManager, null, nameIndex);
+        this.disconnectListener = new PlayerDisconnectListener(presenceManager, afkManager,
+                promotionManager.getThresholdTracker(), nameIndex, log);
+
+        createPopulation(intOption("players", 2000), intOption("staff", 50), config.getStaffDefaultGroup());
+        awaitIdle(10_000);
+
+        System.out.printf(Locale.ROOT, "Lasttest: %d Spieler (%d Staff), %d s simuliert, DB %s%n",
+                offline.size(), staff.size(), intOption("seconds", 600), jdbcUrl);
+    }
+
+    /**
+     * Spieler-Pool mit reproduzierbaren UUIDs; die ersten staffCount sind Staff.
+     */
+    private void createPopulation(int players, int staffCount, String staffDefaultGroup) {
+        for (int i = 0; i < players; i++) {
+            UUID uuid = UUID.nameUUIDFromBytes(("rankproxy-load:" + i).getBytes(StandardCharsets.UTF_8));
+            SimPlayer player = new SimPlayer(uuid, "Sim" + i, proxy);
+            offline.add(player);
+
+            if (i < staffCount) {
+                stafflistManager.addStaffMember(uuid, player.name);
+                luckPerms.assign(uuid, staffDefaultGroup);
+                staff.add(uuid);
+            }
+        }
+    }
+
+    private void createPointsTable(String table) throws SQLException {
+        final String sql =
+                "CREATE TABLE IF NOT EXISTS " + table + " (" +
+                        "  UUID   VARCHAR(36) NOT NULL PRIMARY KEY," +
+                        "  points INT         NOT NULL DEFAULT 0" +
+                        ")";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.executeUpdate();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Simulation
+    // ---------------------------------------------------------------------
+
+    private void run() {
+        int seconds = intOption("seconds", 600);
+        int rampSeconds = Math.max(1, intOption("ramp-seconds", 120));
+        int players = offline.size();
+
+        double churn = doubleOption("churn-per-minute", 2.0) / 100.0 / 60.0;
+        double switches = doubleOption("switch-per-minute", 3.0) / 100.0 / 60.0;
+        double afkToggles = doubleOption("afk-per-minute", 5.0) / 100.0 / 60.0;
+        double staffChanges = doubleOption("staff-changes-per-minute", 1.0) / 60.0;
+        boolean frames = boolOption("afk-frames", true);
+        long budgetMillis = longOption("tick-budget-ms", 5_000);
+
+        this.statementsPerSecond = new long[seconds];
+        double staffCarry = 0.0;
+        long heapAfterRamp = -1;
+
+        for (int second = 1; second <= seconds; second++) {
+            long statementsBefore = statementCount();
+            long pointsTicksBefore = pointsTickCount();
+            long start = System.nanoTime();
+
+            if (second <= rampSeconds) {
+                int target = (int) ((long) players * second / rampSeconds);
+                while (online.size() < target && !offline.isEmpty()) {
+                    join(takeRandom(offline));
+                }
+            } else {
+                int leaving = sample(online.size() * churn);
+                for (int i = 0; i < leaving && !online.isEmpty(); i++) {
+                    leave(takeRandom(online));
+                }
+                for (int i = 0; i < leaving && !offline.isEmpty(); i++) {
+                    join(takeRandom(offline));
+                }
+            }
+
+            int switching = sample(online.size() * switches);
+            for (int i = 0; i < switching && !online.isEmpty(); i++) {
+                SimPlayer player = online.get(random.nextInt(online.size()));
+                loginListener.onPlayerLogin(proxy.switchServer(player, randomBackend()));
+                events++;
+            }
+
+            sendAfkChanges(sample(online.size() * afkToggles), frames);
+
+            staffCarry += staffChanges;
+            while (staffCarry >= 1.0) {
+                staffCarry -= 1.0;
+                changeStaff();
+            }
+
+            clock.advanceTo(second * 1000L);
+            if (!awaitIdle(budgetMillis)) {
+                overBudget++;
+            }
+
+            long elapsed = System.nanoTime() - start;
+            long statements = statementCount() - statementsBefore;
+            secondDuration.recordNanos(elapsed);
+            statementsPerSecond[second - 1] = statements;
+            if (pointsTickCount() > pointsTicksBefore) {
+                pointsTickDuration.recordNanos(elapsed);
+                statementsPerPointsTick.add(statements);
+            }
+
+            peakHeap = Math.max(peakHeap, memory.getHeapMemoryUsage().getUsed());
+            if (second == rampSeconds) {
+                heapAfterRamp = usedHeapAfterGc();
+            }
+            if (second % 60 == 0) {
+                LatencyHistogram.Snapshot s = secondDuration.snapshot();
+                System.out.printf(Locale.ROOT, "  t=%4ds online=%5d p99=%7.2fms stmts/s=%5d heap=%4dMB%n",
+                        second, proxy.onlineCount(), s.p99() / 1000.0, statements,
+                        memory.getHeapMemoryUsage().getUsed() >> 20);
+            }
+        }
+
+        options.put("heap-after-ramp", String.valueOf(heapAfterRamp));
+    }
+
+    private void join(SimPlayer player) {
+        online.add(player);
+        loginListener.onPlayerLogin(proxy.join(player, randomBackend()));
+        events++;
+    }
+
+    private void leave(SimPlayer player) {
+        offline.add(player);
+        disconnectListener.onDisconnect(proxy.leave(player));
+        events++;
+    }
+
+    /**
+     * AFK-Wechsel pro Backend gebündelt (ein Frame pro Backend) oder
+     * einzeln als Textnachricht wie bei älteren Backends.
+     */
+    private void sendAfkChanges(int count, boolean frames) {
+        if (count <= 0 || online.isEmpty()) {
+            return;
+        }
+
+        Map<RegisteredServer, Map<UUID, Boolean>> byBackend = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            SimPlayer player = online.get(random.nextInt(online.size()));
+            player.afk = !player.afk;
+            byBackend.computeIfAbsent(player.server, b -> new LinkedHashMap<>()).put(player.uuid, player.afk);
+        }
+
+        for (Map.Entry<RegisteredServer, Map<UUID, Boolean>> entry : byBackend.entrySet()) {
+            if (frames) {
+                afkListener.onPluginMessage(proxy.afkMessage(entry.getKey(), AfkFrameCodec.encode(entry.getValue())));
+                events++;
+                continue;
+            }
+            for (Map.Entry<UUID, Boolean> change : entry.getValue().entrySet()) {
+                byte[] data = (change.getKey() + ";" + change.getValue()).getBytes(StandardCharsets.UTF_8);
+                afkListener.onPluginMessage(proxy.afkMessage(entry.getKey(), data));
+                events++;
+            }
+        }
+    }
+
+    /**
+     * Wie /staffadd bzw. /staffremove für einen zufälligen Spieler;
+     * der Staff-Sync-Task übernimmt die Änderung beim nächsten Poll.
+     */
+    private void changeStaff() {
+        List<SimPlayer> pool = random.nextBoolean() ? online : offline;
+        if (pool.isEmpty()) {
+            return;
+        }
+        SimPlayer player = pool.get(random.nextInt(pool.size()));
+        if (staff.remove(player.uuid)) {
+            stafflistManager.removeStaffMemberAsync(player.uuid);
+        } else {
+            staff.add(player.uuid);
+            stafflistManager.addStaffMemberAsync(player.uuid, player.name);
+        }
+        events++;
+    }
+
+    /**
+     * Wartet, bis DB-Executor und Promotion-Prüfungen leer sind.
+     *
+     * @return false, wenn das Budget überschritten wurde
+     */
+    private boolean awaitIdle(long budgetMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        while (dbExecutor.getQueueDepth() > 0
+                || dbExecutor.getActiveCount() > 0
+                || promotionManager.getInFlightCount() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            LockSupport.parkNanos(50_000);
+        }
+        return true;
+    }
+
+    // ---------------------------------------------------------------------
+    // Auswertung
+    // ---------------------------------------------------------------------
+
+    private int report() throws IOException {
+        long heapEnd = usedHeapAfterGc();
+        long heapAfterRamp = Long.parseLong(options.getOrDefault("heap-after-ramp", "-1"));
+
+        System.out.println();
+        System.out.println("=== Ergebnis ===");
+        System.out.printf(Locale.ROOT, "Events: %d, Scheduler-Tasks: %d (%d fehlgeschlagen), Sekunden über Budget: %d%n",
+                events, clock.getExecuted(), clock.getFailed(), overBudget);
+
+        printLatency("Simulierte Sekunde (Events + Tasks + DB)", secondDuration.snapshot());
+        printLatency("Sekunde mit Punkte-Tick", pointsTickDuration.snapshot());
+        printLatency("  davon Punkte-Task", metrics.getSnapshot("scheduler_task_seconds", "task", "points"));
+        printLatency("  davon DB-Aufgabe points-tick", metrics.getSnapshot("db_task_seconds", "task", "points-tick"));
+        printLatency("Promotion-Sweep", metrics.getSnapshot("promotion_sweep_seconds", null, null));
+        printLatency("Staff-Poll", metrics.getSnapshot("staff_poll_seconds", null, null));
+        printLatency("DB-Wartezeit Executor", metrics.getSnapshot("db_task_wait_seconds", null, null));
+
+        long[] perSecond = statementsPerSecond.clone();
+        Arrays.sort(perSecond);
+        long[] perTick = statementsPerPointsTick.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf(Locale.ROOT, "DB-Statements/Sekunde: Ø %.1f, p95 %d, max %d%n",
+                Arrays.stream(perSecond).average().orElse(0), quantile(perSecond, 0.95), quantile(perSecond, 1.0));
+        System.out.printf(Locale.ROOT, "DB-Statements/Punkte-Tick: Ø %.1f, p95 %d, max %d (%d Ticks)%n",
+                Arrays.stream(perTick).average().orElse(0), quantile(perTick, 0.95), quantile(perTick, 1.0), perTick.length);
+        for (String component : DB_COMPONENTS) {
+            LatencyHistogram.Snapshot s = metrics.getSnapshot("db_statement_seconds", "component", component);
+            System.out.printf(Locale.ROOT, "  %-10s %8d Statements, %5d Fehler, p99 %.2fms%n",
+                    component, s == null ? 0 : s.count(),
+                    metrics.getCount("db_statement_errors_total", "component", component),
+                    s == null ? 0.0 : s.p99() / 1000.0);
+        }
+
+        System.out.printf(Locale.ROOT, "LuckPerms: %d loadUser, %d saveUser, %d User%n",
+                luckPerms.getLoads(), luckPerms.getSaves(), luckPerms.getUserCount());
+        System.out.printf(Locale.ROOT, "AFK: %d übernommen, %d Flaps unterdrückt, %d verworfen%n",
+                afkListener.getCommittedChanges(), afkListener.getSuppressedFlaps(), afkListener.getDroppedEntries());
+        System.out.printf(Locale.ROOT, "Heap: nach Ramp %s, Ende %s, Wachstum %s, Spitze %s%n",
+                mb(heapAfterRamp), mb(heapEnd),
+                heapAfterRamp < 0 ? "-" : mb(heapEnd - heapAfterRamp), mb(peakHeap));
+
+        String promOut = options.get("prometheus-out");
+        if (promOut != null) {
+            metrics.writePrometheus(Path.of(promOut));
+            System.out.println("Messwerte geschrieben nach " + promOut);
+        }
+
+        long maxP99 = longOption("max-tick-p99-ms", 0);
+        long p99Millis = secondDuration.snapshot().p99() / 1000;
+        if (maxP99 > 0 && p99Millis > maxP99) {
+            System.out.printf(Locale.ROOT, "FEHLGESCHLAGEN: p99 %dms > Grenze %dms%n", p99Millis, maxP99);
+            return 1;
+        }
+        return 0;
+    }
+
+    private void tearDown() {
+        if (promotionManager != null) {
+            promotionManager.shutdown();
+        }
+        if (pointsService != null) {
+            pointsService.shutdown();
+        }
+        if (dbExecutor != null) {
+            dbExecutor.shutdown(5);
+        }
+        if (presenceManager != null) {
+            presenceManager.flushNow();
+        }
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    private static void printLatency(String label, LatencyHistogram.Snapshot s) {
+        if (s == null || s.count() == 0) {
+            System.out.printf(Locale.ROOT, "%-42s -%n", label);
+            return;
+        }
+        System.out.printf(Locale.ROOT, "%-42s n=%-6d p50=%8.2fms p95=%8.2fms p99=%8.2fms max=%8.2fms%n",
+                label, s.count(), s.p50() / 1000.0, s.p95() / 1000.0, s.p99() / 1000.0, s.max() / 1000.0);
+    }
+
+    private long statementCount() {
+        long total = 0;
+        for (String component : DB_COMPONENTS) {
+            LatencyHistogram.Snapshot s = metrics.getSnapshot("db_statement_seconds", "component", component);
+            total += (s == null) ? 0 : s.count();
+        }
+        return total;
+    }
+
+    private long pointsTickCount() {
+        LatencyHistogram.Snapshot s = metrics.getSnapshot("scheduler_task_seconds", "task", "points");
+        return s == null ? 0 : s.count();
+    }
+
+    private long usedHeapAfterGc() {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private static String mb(long bytes) {
+        return (bytes < 0 ? "-" : "") + (Math.abs(bytes) >> 20) + " MB";
+    }
+
+    private static long quantile(long[] sorted, double q) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(q * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    // ---------------------------------------------------------------------
+    // Hilfen
+    // ---------------------------------------------------------------------
+
+    /**
+     * Ganzzahlige Stichprobe zu einem Erwartungswert (Rest zufällig aufgerundet).
+     */
+    private int sample(double expected) {
+        int whole = (int) expected;
+        return whole + (random.nextDouble() < expected - whole ? 1 : 0);
+    }
+
+    private SimPlayer takeRandom(List<SimPlayer> list) {
+        int index = random.nextInt(list.size());
+        SimPlayer player = list.get(index);
+        SimPlayer last = list.remove(list.size() - 1);
+        if (index < list.size()) {
+            list.set(index, last);
+        }
+        return player;
+    }
+
+    private RegisteredServer randomBackend() {
+        List<RegisteredServer> backends = proxy.backends();
+        return backends.get(random.nextInt(backends.size()));
+    }
+
+    private static void copyResource(String name, Path dataDirectory) throws IOException {
+        try (InputStream in = LoadHarness.class.getClassLoader().getResourceAsStream(name)) {
+            if (in == null) {
+                throw new IOException("Ressource '" + name + "' nicht auf dem Klassenpfad");
+            }
+            Files.copy(in, dataDirectory.resolve(name));
+        }
+    }
+
+    private String stringOption(String name, String fallback) {
+        return options.getOrDefault(name, fallback);
+    }
+
+    private int intOption(String name, int fallback) {
+        return Integer.parseInt(options.getOrDefault(name, String.valueOf(fallback)));
+    }
+
+    private long longOption(String name, long fallback) {
+        return Long.parseLong(options.getOrDefault(name, String.valueOf(fallback)));
+    }
+
+    private double doubleOption(String name, double fallback) {
+        return Double.parseDouble(options.getOrDefault(name, String.valueOf(fallback)));
+    }
+
+    private boolean boolOption(String name, boolean fallback) {
+        return Boolean.parseBoolean(options.getOrDefault(name, String.valueOf(fallback)));
+    }
+}
@@ -0,0 +1,145 @@
+package ch.ksrminecraft.RankProxyPlugin.loadtest;
+
+import com.velocitypowered.api.event.connection.DisconnectEvent;
+import com.velocitypowered.api.event.connection.PluginMessageEvent;
+import com.velocitypowered.api.event.player.ServerConnectedEvent;
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.ServerConnection;
+import com.velocitypowered.api.proxy.messages.MinecraftChannelIdentifier;
+import com.velocitypowered.api.proxy.server.RegisteredServer;
+import com.velocitypowered.api.proxy.server.ServerInfo;
+import com.velocitypowered.api.scheduler.Scheduler;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ProxyServer im Speicher: Online-Spieler, Backends und die Events,
+ * die Velocity beim Verbinden, Serverwechsel, Trennen und bei
+ * Plugin-Messages erzeugen würde.
+ */
+final class SimulatedProxy {
+
+    private static final MinecraftChannelIdentifier AFK_CHANNEL = MinecraftChannelIdentifier.from("rankproxy:afk");
+
+    /**
+     * Simulierter Spieler; server ist null, solange er offline ist.
+     */
+    static final class SimPlayer {
+        final UUID uuid;
+        final String name;
+        final Player player;
+        volatile RegisteredServer server;
+        volatile boolean afk;
+
+        SimPlayer(UUID uuid, String name, SimulatedProxy proxy) {
+            this.uuid = uuid;
+            this.name = name;
+            this.player = Fakes.proxy(Player.class, Map.of(
+                    "getUniqueId", a -> uuid,
+                    "getUsername", a -> name,
+                    "isActive", a -> server != null,
+                    "getCurrentServer", a -> Optional.ofNullable(server).map(s -> proxy.connection(this, s))
+            ));
+        }
+    }
+
+    private final List<RegisteredServer> backends = new ArrayList<>();
+    private final Map<RegisteredServer, ServerConnection> backendSources = new ConcurrentHashMap<>();
+    private final Map<UUID, SimPlayer> online = new ConcurrentHashMap<>();
+    private final Map<String, SimPlayer> onlineByName = new ConcurrentHashMap<>();
+    private final ProxyServer server;
+
+    SimulatedProxy(Scheduler scheduler, List<String> backendNames) {
+        for (String name : backendNames) {
+            ServerInfo info = new ServerInfo(name, InetSocketAddress.createUnresolved(name, 25565));
+            RegisteredServer backend = Fakes.proxy(RegisteredServer.class, Map.of(
+                    "getServerInfo", a -> info,
+                    "getPlayersConnected", a -> online.values().stream()
+                            .filter(p -> p.server != null && p.server.getServerInfo() == info)
+                            .map(p -> p.player)
+                            .toList()
+            ));
+            backends.add(backend);
+        }
+
+        this.server = Fakes.proxy(ProxyServer.class, Map.of(
+                "getAllPlayers", a -> online.values().stream().map(p -> p.player).toList(),
+                "getPlayerCount", a -> online.size(),
+                "getPlayer", a -> lookup(a[0]),
+                "getScheduler", a -> scheduler
+        ));
+    }
+
+    ProxyServer server() {
+        return server;
+    }
+
+    List<RegisteredServer> backends() {
+        return backends;
+    }
+
+    int onlineCount() {
+        return online.size();
+    }
+
+    boolean isOnline(SimPlayer player) {
+        return online.containsKey(player.uuid);
+    }
+
+    /**
+     * Erster Connect auf den Proxy (previousServer = null).
+     */
+    ServerConnectedEvent join(SimPlayer player, RegisteredServer backend) {
+        online.put(player.uuid, player);
+        onlineByName.put(player.name.toLowerCase(), player);
+        player.server = backend;
+        player.afk = false;
+        return new ServerConnectedEvent(player.player, backend, null);
+    }
+
+    ServerConnectedEvent switchServer(SimPlayer player, RegisteredServer target) {
+        RegisteredServer previous = player.server;
+        player.server = target;
+        return new ServerConnectedEvent(player.player, target, previous);
+    }
+
+    DisconnectEvent leave(SimPlayer player) {
+        online.remove(player.uuid);
+        onlineByName.remove(player.name.toLowerCase());
+        player.server = null;
+        return new DisconnectEvent(player.player, DisconnectEvent.LoginStatus.SUCCESSFUL_LOGIN);
+    }
+
+    /**
+     * AFK-Nachricht, wie sie ein Backend auf rankproxy:afk schickt.
+     */
+    PluginMessageEvent afkMessage(RegisteredServer backend, byte[] data) {
+        ServerConnection source = backendSources.computeIfAbsent(backend, b -> Fakes.proxy(ServerConnection.class, Map.of(
+                "getServerInfo", a -> b.getServerInfo(),
+                "getServer", a -> b
+        )));
+        return new PluginMessageEvent(source, null, AFK_CHANNEL, data);
+    }
+
+    private ServerConnection connection(SimPlayer player, RegisteredServer backend) {
+        return Fakes.proxy(ServerConnection.class, Map.of(
+                "getServerInfo", a -> backend.getServerInfo(),
+                "getServer", a -> backend,
+                "getPlayer", a -> player.player
+        ));
+    }
+
+    private Optional<Player> lookup(Object key) {
+        SimPlayer player = (key instanceof UUID uuid)
+                ? online.get(uuid)
+                : onlineByName.get(String.valueOf(key).toLowerCase());
+        return Optional.ofNullable(player).map(p -> p.player);
+    }
+}
@@ -0,0 +1,176 @@
+package ch.ksrminecraft.RankProxyPlugin.loadtest;
+
+import com.velocitypowered.api.scheduler.ScheduledTask;
+import com.velocitypowered.api.scheduler.Scheduler;
+import com.velocitypowered.api.scheduler.TaskStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Velocity-Scheduler mit virtueller Uhr: Tasks laufen erst, wenn der
+ * Harness die Zeit mit advanceTo() vorstellt, und zwar synchron auf
+ * dessen Thread. So lassen sich zehn Minuten Proxy-Betrieb in Sekunden
+ * abspielen, und jeder Tick ist einzeln messbar.
+ */
+final class VirtualScheduler {
+
+    private final class Task {
+        final Runnable body;
+        final long repeatMillis;
+        final long seq = sequence.incrementAndGet();
+        long dueAt;
+        volatile TaskStatus status = TaskStatus.SCHEDULED;
+        ScheduledTask handle;
+
+        Task(Runnable body, long dueAt, long repeatMillis) {
+            this.body = body;
+            this.dueAt = dueAt;
+            this.repeatMillis = repeatMillis;
+        }
+    }
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>(
+            (a, b) -> a.dueAt != b.dueAt ? Long.compare(a.dueAt, b.dueAt) : Long.compare(a.seq, b.seq));
+    private final AtomicLong sequence = new AtomicLong();
+
+    private long now;
+    private long executed;
+    private long failed;
+
+    Scheduler asScheduler() {
+        return Fakes.proxy(Scheduler.class, Map.of(
+                "buildTask", a -> builder(a[1]),
+                "tasksByPlugin", a -> handles()
+        ));
+    }
+
+    /**
+     * Führt alle bis einschliesslich targetMillis fälligen Tasks aus.
+     */
+    void advanceTo(long targetMillis) {
+        while (true) {
+            Task task;
+            synchronized (this) {
+                task = queue.peek();
+                if (task == null || task.dueAt > targetMillis) {
+                    now = targetMillis;
+                    return;
+                }
+                queue.poll();
+                now = task.dueAt;
+            }
+
+            if (task.status == TaskStatus.CANCELLED) {
+                continue;
+            }
+
+            try {
+                task.body.run();
+            } catch (Throwable t) {
+                synchronized (this) {
+                    failed++;
+                }
+                System.err.println("[WARN ] VirtualScheduler: Task fehlgeschlagen: " + t);
+            }
+
+            synchronized (this) {
+                executed++;
+                if (task.repeatMillis > 0 && task.status != TaskStatus.CANCELLED) {
+                    task.dueAt += task.repeatMillis;
+                    queue.add(task);
+                } else if (task.status != TaskStatus.CANCELLED) {
+                    task.status = TaskStatus.FINISHED;
+                }
+            }
+        }
+    }
+
+    synchronized long now() {
+        return now;
+    }
+
+    synchronized long getExecuted() {
+        return executed;
+    }
+
+    synchronized long getFailed() {
+        return failed;
+    }
+
+    synchronized int getQueued() {
+        return queue.size();
+    }
+
+    private synchronized List<ScheduledTask> handles() {
+        List<ScheduledTask> handles = new ArrayList<>();
+        for (Task task : queue) {
+            if (task.status == TaskStatus.SCHEDULED) {
+                handles.add(task.handle);
+            }
+        }
+        return handles;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Scheduler.TaskBuilder builder(Object body) {
+        long[] delayMillis = {0};
+        long[] repeatMillis = {0};
+        Scheduler.TaskBuilder[] self = new Scheduler.TaskBuilder[1];
+
+        self[0] = Fakes.proxy(Scheduler.TaskBuilder.class, Map.of(
+                "delay", a -> {
+                    delayMillis[0] = toMillis(a);
+                    return self[0];
+                },
+                "repeat", a -> {
+                    repeatMillis[0] = toMillis(a);
+                    return self[0];
+                },
+                "clearDelay", a -> {
+                    delayMillis[0] = 0;
+                    return self[0];
+                },
+                "clearRepeat", a -> {
+                    repeatMillis[0] = 0;
+                    return self[0];
+                },
+                "schedule", a -> {
+                    Task[] holder = new Task[1];
+                    Runnable runnable = (body instanceof Runnable r)
+                            ? r
+                            : () -> ((Consumer<ScheduledTask>) body).accept(holder[0].handle);
+                    return schedule(holder, runnable, delayMillis[0], repeatMillis[0]);
+                }
+        ));
+        return self[0];
+    }
+
+    private synchronized ScheduledTask schedule(Task[] holder, Runnable runnable, long delayMillis, long repeatMillis) {
+        Task task = new Task(runnable, now + Math.max(0, delayMillis), Math.max(0, repeatMillis));
+        holder[0] = task;
+        task.handle = Fakes.proxy(ScheduledTask.class, Map.of(
+                "plugin", a -> null,
+                "status", a -> task.status,
+                "cancel", a -> {
+                    task.status = TaskStatus.CANCELLED;
+                    return null;
+                }
+        ));
+        queue.add(task);
+        return task.handle;
+    }
+
+    private static long toMillis(Object[] args) {
+        if (args.length == 1 && args[0] instanceof Duration duration) {
+            return duration.toMillis();
+        }
+        return ((TimeUnit) args[1]).toMillis((Long) args[0]);
+    }
+}
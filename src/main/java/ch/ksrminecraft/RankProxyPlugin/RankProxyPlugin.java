@@ -1,6 +1,5 @@
 package ch.ksrminecraft.RankProxyPlugin;
 
-import ch.ksrminecraft.RankPointsAPI.PointsAPI;
 import ch.ksrminecraft.RankProxyPlugin.commands.*;
 import ch.ksrminecraft.RankProxyPlugin.listeners.*;
 import ch.ksrminecraft.RankProxyPlugin.utils.*;
@@ -16,6 +15,7 @@ import com.velocitypowered.api.proxy.messages.MinecraftChannelIdentifier;
 import com.velocitypowered.api.scheduler.Scheduler;
 
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.LuckPermsProvider;
 import org.slf4j.Logger;
@@ -27,11 +27,13 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.ToIntFunction;
 
 @Plugin(id = "rankproxyplugin", name = "RankProxyPlugin", version = "1.0")
 public class RankProxyPlugin {
@@ -47,16 +49,22 @@ public class RankProxyPlugin {
     // ---------------------------------------------------------------------
     // Zentrale Plugin-Komponenten
     // ---------------------------------------------------------------------
-    private PointsAPI pointsAPI;
     private ConfigManager config;
     private StafflistManager stafflistManager;
     private LuckPerms luckPerms;
     private RankManager rankManager;
     private PromotionManager promotionManager;
     private OfflinePlayerStore offlinePlayerStore;
+    private PlayerNameIndex playerNameIndex;
+    private PlayerUuidResolver uuidResolver;
     private LogHelper log;
     private StaffPermissionService staffPermissionService;
+    private StaffStartupSync staffStartupSync;
     private PendingStaffEventStore pendingStaffEventStore;
+    private PointsBatchWriter pointsBatchWriter;
+    private PointsRepository pointsRepository;
+    private PointsLedger pointsLedger;
+    private PointsService pointsService;
 
     // ---------------------------------------------------------------------
     // Presence / AFK / Vanish
@@ -70,6 +78,12 @@ public class RankProxyPlugin {
     // Datenquellen
     // ---------------------------------------------------------------------
     private DataSource staffDataSource;
+    private DbExecutor dbExecutor;
+
+    // ---------------------------------------------------------------------
+    // Messwerte
+    // ---------------------------------------------------------------------
+    private MetricsRegistry metrics = MetricsRegistry.NOOP;
 
     @Inject
     public RankProxyPlugin(ProxyServer server, @DataDirectory Path dataDirectory, Logger logger) {
@@ -81,6 +95,7 @@ public class RankProxyPlugin {
 
     @Subscribe
     public void onProxyInitialize(ProxyInitializeEvent event) {
+        long startNanos = System.nanoTime();
         try {
             // -----------------------------------------------------------------
             // 1) Standarddateien bei Bedarf aus dem JAR kopieren
@@ -97,72 +112,117 @@ public class RankProxyPlugin {
             this.log = new LogHelper(baseLogger, configuredLevel);
             log.info("Aktuelles Log-Level (aus resources.yaml): {}", configuredLevel);
 
-            // -----------------------------------------------------------------
-            // 3) RankPointsAPI initialisieren
-            // -----------------------------------------------------------------
-            this.pointsAPI = config.loadAPI();
+            if (config.isMetricsEnabled()) {
+                this.metrics = new MetricsRegistry();
+            }
 
             // -----------------------------------------------------------------
-            // 4) LuckPerms laden
+            // 3) LuckPerms laden
             // -----------------------------------------------------------------
             this.luckPerms = LuckPermsProvider.get();
             log.info("LuckPerms API erfolgreich initialisiert.");
 
             // -----------------------------------------------------------------
-            // 5) Staff-/Presence-Datenquelle und Manager aufbauen
+            // 4) Startphasen als Abhängigkeitsgraph: unabhängige Stufen laufen parallel,
+            //    Pflicht-Stufen sind vor der Annahme von Spielern fertig
             // -----------------------------------------------------------------
-            this.staffDataSource = config.createStafflistDataSource();
+            this.dbExecutor = new DbExecutor(config.getMysqlPoolSize(), log);
+            log.info("DB-Executor: virtuelle Threads, max. {} gleichzeitige DB-Aufgaben", dbExecutor.getMaxConcurrent());
+            dbExecutor.setMetrics(metrics);
+
+            BootstrapGraph bootstrap = new BootstrapGraph(log);
+
+            // Gemeinsame Datenquelle (Stafflist, Presence, Punkte)
+            // onAbort: schlägt eine andere Pflicht-Stufe fehl, werden Pools und Journal wieder geschlossen
+            bootstrap.required("pool", List.of(), () ->
+                    this.staffDataSource = config.createStafflistDataSource(),
+                    () -> closePool(staffDataSource));
+
+            // Stafflist eager laden: Staff-Erkennung beim Login und Punkte-Ausschluss brauchen den Snapshot
+            bootstrap.required("stafflist", List.of("pool"), () -> {
+                this.stafflistManager = new StafflistManager(
+                        metrics.instrument(staffDataSource, "stafflist"), log, dbExecutor);
+                stafflistManager.setFullResyncSeconds(config.getStaffFullResyncIntervalSeconds());
+            });
+
+            // Punkte-Tabelle sicherstellen und ggf. Journal vom letzten Lauf nachspielen
+            bootstrap.required("points", List.of("pool"), this::initPointsStorage, () -> {
+                if (pointsLedger != null) {
+                    pointsLedger.close();
+                }
+            });
 
-            int staffCacheTtl = config.getStaffCacheTtlSeconds();
-            this.stafflistManager = new StafflistManager(staffDataSource, log, staffCacheTtl);
-            this.presenceManager = new PresenceManager(staffDataSource, log);
-            this.pendingStaffEventStore = new PendingStaffEventStore();
+            // PremiumVanish hat einen eigenen Pool; vanished Spieler müssen vor dem ersten Login bekannt sein
+            if (config.isPremiumVanishEnabled()) {
+                bootstrap.required("vanish", List.of(), () -> {
+                    this.premiumVanishDataSource = config.createPremiumVanishDataSource();
+                    this.premiumVanishHook = new PremiumVanishHook(
+                            metrics.instrument(premiumVanishDataSource, "vanish"),
+                            log,
+                            config.getPremiumVanishTable(),
+                            dbExecutor
+                    );
+                    premiumVanishHook.refreshNow();
+                }, () -> closePool(premiumVanishDataSource));
+            }
+
+            // Ränge nur aus den Dateien; das Anlegen fehlender LuckPerms-Gruppen läuft im Hintergrund
+            bootstrap.required("ranks", List.of(), () ->
+                    this.rankManager = new RankManager(dataDirectory, log, luckPerms, false));
+            bootstrap.background("rank-groups", List.of("ranks"), () -> rankManager.syncRanksWithLuckPerms());
+
+            bootstrap.required("offline-players", List.of(), () ->
+                    this.offlinePlayerStore = new OfflinePlayerStore(dataDirectory, log, config.getOfflinePlayersMaxEntries()));
+
+            List<String> playerTrackGroups = loadPlayerTrackGroups();
+            List<String> staffRanks = config.getStaffRanks();
+
+            bootstrap.awaitRequired();
 
             // -----------------------------------------------------------------
-            // 6) PremiumVanish optional aktivieren
+            // 5) Manager auf den geladenen Datenquellen aufbauen
             // -----------------------------------------------------------------
-            if (config.isPremiumVanishEnabled()) {
-                this.premiumVanishDataSource = config.createPremiumVanishDataSource();
-                this.premiumVanishHook = new PremiumVanishHook(
-                        premiumVanishDataSource,
-                        log,
-                        config.getPremiumVanishTable()
-                );
+            this.presenceManager = new PresenceManager(
+                    metrics.instrument(staffDataSource, "presence"), log, dbExecutor);
+
+            int presenceFlushMillis = config.getPresenceFlushIntervalMillis();
+            scheduler.buildTask(this, presenceManager::flush)
+                    .delay(presenceFlushMillis, TimeUnit.MILLISECONDS)
+                    .repeat(presenceFlushMillis, TimeUnit.MILLISECONDS)
+                    .schedule();
+            log.info("Presence: Änderungen werden alle {}ms gebündelt geschrieben", presenceFlushMillis);
+
+            this.pendingStaffEventStore = new PendingStaffEventStore();
 
-                premiumVanishHook.refreshNow();
+            PointsCache pointsCache = null;
+            if (config.isPointsCacheEnabled()) {
+                pointsCache = new PointsCache(config.getPointsCacheMaxEntries(), config.getPointsCacheTtlSeconds());
+                log.info("Punkte: Cache aktiv (max. {} Einträge, TTL {}s)",
+                        config.getPointsCacheMaxEntries(), config.getPointsCacheTtlSeconds());
+            }
+            this.pointsService = new PointsService(pointsRepository, pointsLedger, pointsCache, log);
+
+            // Staff-Ausschluss aus dem Snapshot im Speicher (keine Stafflist-Abfrage pro Gutschrift)
+            pointsService.setExcludedFromPoints(uuid -> !config.isStaffPointsAllowed() && stafflistManager.isStaff(uuid));
 
+            // -----------------------------------------------------------------
+            // 6) PremiumVanish-Refresh einplanen (Erstabfrage lief in Stufe 'vanish')
+            // -----------------------------------------------------------------
+            if (premiumVanishHook != null) {
                 int refreshSeconds = Math.max(2, config.getPremiumVanishRefreshSeconds());
                 log.info("PremiumVanish aktiviert. Refresh alle {}s (table={})",
                         refreshSeconds, config.getPremiumVanishTable());
 
-                scheduler.buildTask(this, () -> {
+                scheduler.buildTask(this, () -> premiumVanishHook.refreshAsync().thenAccept(changes -> {
                             try {
-                                premiumVanishHook.refreshNow();
-
-                                server.getAllPlayers().forEach(p -> {
-                                    UUID uuid = p.getUniqueId();
-                                    String name = p.getUsername();
-
-                                    boolean vanished = premiumVanishHook.isVanished(uuid);
-                                    if (vanished) {
-                                        presenceManager.forceHidden(uuid, name);
-                                        if (afkManager != null) {
-                                            afkManager.setAfk(uuid, false);
-                                        }
-                                        log.trace("PremiumVanish-Reconcile: {} ({}) hidden gesetzt", name, uuid);
-                                    } else {
-                                        String srv = p.getCurrentServer()
-                                                .map(cs -> cs.getServerInfo().getName())
-                                                .orElse(null);
-                                        presenceManager.markOnline(uuid, name, srv);
-                                        log.trace("PremiumVanish-Reconcile: {} ({}) online auf {} gesetzt", name, uuid, srv);
-                                    }
-                                });
+                                if (!changes.isEmpty()) {
+                                    reconcileVanishChanges(changes);
+                                }
                             } catch (Throwable t) {
                                 log.warn("PremiumVanish Refresh/Reconcile fehlgeschlagen: {}", t.getMessage());
                                 log.debug("PremiumVanish Refresh/Reconcile Exception", t);
                             }
-                        }).delay(refreshSeconds, TimeUnit.SECONDS)
+                        })).delay(refreshSeconds, TimeUnit.SECONDS)
                         .repeat(refreshSeconds, TimeUnit.SECONDS)
                         .schedule();
             } else {
@@ -170,13 +230,22 @@ public class RankProxyPlugin {
             }
 
             // -----------------------------------------------------------------
-            // 7) Offline-Spieler, Ränge und Promotion-System
+            // 7) Namensindex, UUID-Auflösung und Promotion-System
             // -----------------------------------------------------------------
-            this.offlinePlayerStore = new OfflinePlayerStore(dataDirectory, log);
-            this.rankManager = new RankManager(dataDirectory, log, luckPerms);
+            this.playerNameIndex = new PlayerNameIndex(log, config.getSuggestionLimit());
+            playerNameIndex.seed(offlinePlayerStore);
+            stafflistManager.setSnapshotListener(playerNameIndex::updateStaff);
 
-            List<String> playerTrackGroups = loadPlayerTrackGroups();
-            List<String> staffRanks = config.getStaffRanks();
+            this.uuidResolver = new PlayerUuidResolver(
+                    server,
+                    offlinePlayerStore,
+                    luckPerms,
+                    config.getUuidLookupProfileUrl(),
+                    config.getUuidLookupTimeoutMillis(),
+                    config.getUuidLookupCacheTtlSeconds(),
+                    config.getUuidLookupNegativeTtlSeconds(),
+                    log
+            );
 
             // Wichtig:
             // PromotionManager soll für die normale Laufbahn die technische Default-Gruppe kennen,
@@ -185,13 +254,16 @@ public class RankProxyPlugin {
                     luckPerms,
                     rankManager,
                     stafflistManager,
-                    pointsAPI,
+                    pointsService,
                     log,
                     config.getDefaultDefaultGroup(),
                     server,
                     scheduler,
-                    this
+                    this,
+                    config.getPromotionMaxConcurrent(),
+                    config.getPromotionStepTimeoutSeconds()
             );
+            promotionManager.setMetrics(metrics);
 
             this.staffPermissionService = new StaffPermissionService(
                     luckPerms,
@@ -203,6 +275,7 @@ public class RankProxyPlugin {
                     config.getDefaultDefaultGroup(),
                     config.getStaffDefaultGroup()
             );
+            staffPermissionService.setMetrics(metrics);
 
             log.info("StaffPermissionService initialisiert.");
             log.info("Player-Track: {} | Player-Default: {} | Player-Ränge aus ranks.yaml: {}",
@@ -222,17 +295,27 @@ public class RankProxyPlugin {
             MinecraftChannelIdentifier afkChannel = MinecraftChannelIdentifier.from("rankproxy:afk");
             server.getChannelRegistrar().register(afkChannel);
 
-            server.getEventManager().register(
-                    this,
-                    new AfkMessageListener(
-                            server,
-                            afkManager,
-                            log,
-                            presenceManager,
-                            premiumVanishHook
-                    )
+            AfkMessageListener afkMessageListener = new AfkMessageListener(
+                    server,
+                    afkManager,
+                    log,
+                    presenceManager,
+                    premiumVanishHook,
+                    config.getAfkHysteresisSeconds(),
+                    config.getAfkRateLimitPerSecond(),
+                    config.getAfkRateLimitBurst()
             );
-            log.info("AFK-System aktiviert (Channel: rankproxy:afk).");
+            afkMessageListener.setMetrics(metrics);
+            server.getEventManager().register(this, afkMessageListener);
+
+            if (afkMessageListener.isHysteresisEnabled()) {
+                scheduler.buildTask(this, afkMessageListener::commitDue)
+                        .delay(1, TimeUnit.SECONDS)
+                        .repeat(1, TimeUnit.SECONDS)
+                        .schedule();
+            }
+            log.info("AFK-System aktiviert (Channel: rankproxy:afk, Hysterese {}s, Limit {}/s pro Backend).",
+                    config.getAfkHysteresisSeconds(), config.getAfkRateLimitPerSecond());
 
             // -----------------------------------------------------------------
             // 9) Hintergrund-Tasks starten
@@ -240,7 +323,7 @@ public class RankProxyPlugin {
             SchedulerManager schedulerManager = new SchedulerManager(
                     server,
                     scheduler,
-                    pointsAPI,
+                    pointsService,
                     stafflistManager,
                     config,
                     promotionManager,
@@ -248,10 +331,15 @@ public class RankProxyPlugin {
                     pendingStaffEventStore,
                     offlinePlayerStore,
                     log,
-                    afkManager
+                    afkManager,
+                    dbExecutor
             );
+            schedulerManager.setMetrics(metrics);
             schedulerManager.startTasks(this);
 
+            registerGauges(afkMessageListener);
+            startMetricsExport();
+
             // -----------------------------------------------------------------
             // 10) Listener registrieren
             // -----------------------------------------------------------------
@@ -265,19 +353,22 @@ public class RankProxyPlugin {
                     scheduler,
                     this,
                     presenceManager,
-                    premiumVanishHook
+                    premiumVanishHook,
+                    playerNameIndex
             ));
 
             server.getEventManager().register(this, new PlayerDisconnectListener(
                     presenceManager,
                     afkManager,
+                    promotionManager.getThresholdTracker(),
+                    playerNameIndex,
                     log
             ));
 
             // -----------------------------------------------------------------
-            // 11) Staff-Laufbahn beim Pluginstart einmal sauber abgleichen
+            // 11) Staff-Laufbahn beim Pluginstart einmal sauber abgleichen (Hintergrund)
             // -----------------------------------------------------------------
-            syncStaffGroupOnStartup();
+            syncStaffGroupOnStartup(bootstrap);
 
             // -----------------------------------------------------------------
             // 12) Commands registrieren
@@ -286,11 +377,12 @@ public class RankProxyPlugin {
                     new AddPointsCommand(
                             server,
                             luckPerms,
-                            pointsAPI,
+                            pointsService,
                             stafflistManager,
                             offlinePlayerStore,
                             config,
                             promotionManager,
+                            playerNameIndex,
                             log
                     )
             );
@@ -299,11 +391,12 @@ public class RankProxyPlugin {
                     new SetPointsCommand(
                             server,
                             luckPerms,
-                            pointsAPI,
+                            pointsService,
                             stafflistManager,
                             offlinePlayerStore,
                             config,
                             promotionManager,
+                            playerNameIndex,
                             log
                     )
             );
@@ -312,10 +405,11 @@ public class RankProxyPlugin {
                     new GetPointsCommand(
                             server,
                             luckPerms,
-                            pointsAPI,
+                            pointsService,
                             offlinePlayerStore,
                             stafflistManager,
                             config,
+                            playerNameIndex,
                             log
                     )
             );
@@ -324,6 +418,10 @@ public class RankProxyPlugin {
                     new ReloadConfigCommand(config)
             );
 
+            server.getCommandManager().register("rankproxystats",
+                    new RankProxyStatsCommand(metrics)
+            );
+
             server.getCommandManager().register(
                     "staffadd",
                     new StafflistAddCommand(
@@ -333,6 +431,8 @@ public class RankProxyPlugin {
                             pendingStaffEventStore,
                             scheduler,
                             this,
+                            uuidResolver,
+                            playerNameIndex,
                             log
                     )
             );
@@ -346,6 +446,7 @@ public class RankProxyPlugin {
                             pendingStaffEventStore,
                             scheduler,
                             this,
+                            playerNameIndex,
                             log
                     )
             );
@@ -361,10 +462,11 @@ public class RankProxyPlugin {
             server.getCommandManager().register("rankinfo",
                     new RankInfoCommand(
                             server,
-                            pointsAPI,
+                            pointsService,
                             rankManager,
                             stafflistManager,
                             config,
+                            playerNameIndex,
                             log,
                             luckPerms
                     )
@@ -373,7 +475,8 @@ public class RankProxyPlugin {
             // -----------------------------------------------------------------
             // 13) Abschlussmeldung
             // -----------------------------------------------------------------
-            log.info("RankProxyPlugin erfolgreich gestartet (inkl. AFK, Rank-Sync, Presence-Tracking, PremiumVanish optional).");
+            log.info("RankProxyPlugin erfolgreich gestartet in {} ms (inkl. AFK, Rank-Sync, Presence-Tracking, PremiumVanish optional).",
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
 
         } catch (Exception e) {
             baseLogger.error("Fehler beim Starten des Plugins", e);
@@ -381,64 +484,90 @@ public class RankProxyPlugin {
     }
 
     /**
-     * Synchronisiert beim Pluginstart alle Spieler aus der Stafflist
-     * vorsorglich nochmals mit der Staff-Laufbahn in LuckPerms.
-     *
-     * Wichtig:
-     * Wenn die Staffliste wegen eines DB-Problems nicht geladen werden kann,
-     * wird der Startup-Sync sauber übersprungen.
+     * Überträgt geänderte Vanish-Zustände auf Presence/AFK.
+     * Nur Spieler, deren Sichtbarkeit gewechselt hat und die online sind.
      */
-    private void syncStaffGroupOnStartup() {
-        log.info("Prüfe Staff-Mitglieder beim Start auf korrekte Staff-Laufbahn...");
-
-        StafflistManager.StaffLoadSnapshot snapshot = stafflistManager.loadAllStaffSnapshot();
-
-        if (!snapshot.success()) {
-            log.warn("StaffSync: Startup-Sync wird übersprungen, weil die Staffliste nicht erfolgreich aus der DB geladen werden konnte.");
-            return;
+    private void reconcileVanishChanges(PremiumVanishHook.VanishChanges changes) {
+        for (UUID uuid : changes.nowVanished()) {
+            server.getPlayer(uuid).ifPresent(p -> {
+                presenceManager.forceHidden(uuid, p.getUsername());
+                if (afkManager != null) {
+                    afkManager.setAfk(uuid, false);
+                }
+                log.trace("PremiumVanish-Reconcile: {} ({}) hidden gesetzt", p.getUsername(), uuid);
+            });
         }
 
-        Map<String, String> allStaff = snapshot.entries();
-
-        if (allStaff.isEmpty()) {
-            log.info("StaffSync: Keine Staff-Mitglieder in der Staffliste gefunden.");
-            return;
+        for (UUID uuid : changes.nowVisible()) {
+            server.getPlayer(uuid).ifPresent(p -> {
+                String srv = p.getCurrentServer()
+                        .map(cs -> cs.getServerInfo().getName())
+                        .orElse(null);
+                presenceManager.markOnline(uuid, p.getUsername(), srv);
+                log.trace("PremiumVanish-Reconcile: {} ({}) online auf {} gesetzt", p.getUsername(), uuid, srv);
+            });
         }
 
-        log.info("StaffSync: {} Staff-Mitglieder aus der DB geladen, starte Synchronisation...", allStaff.size());
+        log.debug("PremiumVanish-Reconcile: {} vanished, {} wieder sichtbar",
+                changes.nowVanished().size(), changes.nowVisible().size());
+    }
 
-        int successCount = 0;
-        int changedCount = 0;
-        int failedCount = 0;
+    /**
+     * Synchronisiert beim Pluginstart alle Spieler aus der Stafflist
+     * vorsorglich nochmals mit der Staff-Laufbahn in LuckPerms.
+     *
+     * Läuft als Hintergrund-Stufe; der Proxy wartet nicht darauf
+     * (Fortschritt und Ergebnis erscheinen im Log). Wenn die Staffliste
+     * nicht geladen werden kann, wird der Abgleich sauber übersprungen.
+     */
+    private void syncStaffGroupOnStartup(BootstrapGraph bootstrap) {
+        log.info("Prüfe Staff-Mitglieder beim Start auf korrekte Staff-Laufbahn (im Hintergrund)...");
+
+        this.staffStartupSync = new StaffStartupSync(
+                stafflistManager,
+                staffPermissionService,
+                log,
+                dataDirectory,
+                config.getStaffStartupSyncParallelism(),
+                config.getStaffStartupSyncMaxAgeHours(),
+                staffPermissionService.getConfigFingerprint()
+        );
+        bootstrap.background("staff-sync", List.of("stafflist"), () -> staffStartupSync.runAsync().join());
+    }
 
-        for (Map.Entry<String, String> entry : allStaff.entrySet()) {
-            try {
-                UUID uuid = UUID.fromString(entry.getKey());
-                String name = entry.getValue();
-
-                StaffPermissionService.PermissionSyncResult result =
-                        staffPermissionService.promoteToStaff(uuid, name);
-
-                if (!result.success()) {
-                    failedCount++;
-                    log.warn("StaffSync: Synchronisation für {} ({}) fehlgeschlagen", name, uuid);
-                } else if (result.changed()) {
-                    successCount++;
-                    changedCount++;
-                    log.info("StaffSync: {} ({}) erfolgreich auf Staff-Laufbahn synchronisiert", name, uuid);
-                } else {
-                    successCount++;
-                    log.debug("StaffSync: {} ({}) war bereits korrekt in der Staff-Laufbahn", name, uuid);
-                }
-            } catch (Exception e) {
-                failedCount++;
-                log.error("StaffSync: Fehler beim Sync für {}: {}", entry.getValue(), entry.getKey());
-                log.debug("StaffSync Exception für Eintrag {}", entry, e);
-            }
+    /**
+     * Stufe 'points': Punkte-Tabelle, Repository und Write-Behind-Journal.
+     * Ein Journal vom letzten Lauf wird hier nachgespielt, bevor Punkte gelesen werden.
+     */
+    private void initPointsStorage() throws SQLException, IOException {
+        DataSource pointsDataSource = metrics.instrument(staffDataSource, "points");
+        this.pointsBatchWriter = new PointsBatchWriter(
+                pointsDataSource,
+                log,
+                config.getPointsTable(),
+                config.getPointsBatchSize()
+        );
+        MySqlPointsRepository mysqlPoints = new MySqlPointsRepository(
+                pointsDataSource,
+                log,
+                pointsBatchWriter,
+                config.getPointsBatchSize()
+        );
+        mysqlPoints.ensureTable();
+        this.pointsRepository = mysqlPoints;
+
+        if (config.isWriteBehindEnabled()) {
+            this.pointsLedger = new PointsLedger(dataDirectory, pointsBatchWriter, log);
+            pointsLedger.flush();
+            log.info("Punkte: Write-Behind aktiv (Flush alle {}s, Journal in {})",
+                    config.getWriteBehindFlushIntervalSeconds(), dataDirectory.resolve("points-journal"));
         }
+    }
 
-        log.info("StaffSync: Startup-Synchronisation abgeschlossen. Erfolgreich: {}, geändert: {}, fehlgeschlagen: {}",
-                successCount, changedCount, failedCount);
+    private static void closePool(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource hikari) {
+            hikari.close();
+        }
     }
 
     /**
@@ -500,6 +629,29 @@ public class RankProxyPlugin {
 
     @Subscribe
     public void onProxyShutdown(ProxyShutdownEvent event) {
+        if (staffStartupSync != null) {
+            staffStartupSync.shutdown();
+        }
+
+        if (promotionManager != null) {
+            promotionManager.shutdown();
+        }
+
+        if (pointsService != null && pointsService.isWriteBehind()) {
+            log.info("Flushing points ledger...");
+            pointsService.shutdown();
+        }
+
+        if (dbExecutor != null) {
+            log.info("Waiting for pending DB tasks...");
+            dbExecutor.shutdown(5);
+        }
+
+        if (presenceManager != null) {
+            log.info("Flushing presence changes...");
+            presenceManager.flushNow();
+        }
+
         if (offlinePlayerStore != null) {
             log.info("Saving offline player store...");
             offlinePlayerStore.save();
@@ -527,12 +679,104 @@ public class RankProxyPlugin {
         }
     }
 
+    /**
+     * Gauges für Zustände, die die Komponenten bereits selbst zählen.
+     * Werden erst beim Auslesen abgefragt.
+     */
+    private void registerGauges(AfkMessageListener afkMessageListener) {
+        if (!metrics.isEnabled()) {
+            return;
+        }
+
+        metrics.gauge("players_online", server::getPlayerCount);
+        metrics.gauge("staff_entries", () -> stafflistManager.getStaffSnapshot().size());
+        metrics.gauge("known_players", offlinePlayerStore::size);
+        metrics.gauge("name_index_entries", playerNameIndex::size);
+        metrics.gauge("uuid_resolver_cache_entries", uuidResolver::getCacheSize);
+
+        metrics.gauge("db_executor_queued", dbExecutor::getQueueDepth);
+        metrics.gauge("db_executor_active", dbExecutor::getActiveCount);
+        metrics.gauge("db_executor_completed", dbExecutor::getCompletedCount);
+        metrics.gauge("db_executor_failed", dbExecutor::getFailedCount);
+        registerPoolGauges("stafflist", staffDataSource);
+        registerPoolGauges("vanish", premiumVanishDataSource);
+
+        metrics.gauge("presence_pending", presenceManager::getPendingCount);
+        metrics.gauge("presence_changes_received", presenceManager::getChangesReceived);
+        metrics.gauge("presence_rows_written", presenceManager::getRowsWritten);
+
+        metrics.gauge("promotion_in_flight", promotionManager::getInFlightCount);
+        metrics.gauge("promotion_tracked_players", () -> promotionManager.getThresholdTracker().size());
+
+        PointsCache cache = pointsService.getCache();
+        if (cache != null) {
+            metrics.gauge("points_cache_entries", cache::size);
+            metrics.gauge("points_cache_hit_ratio", cache::getHitRatio);
+            metrics.gauge("points_cache_evictions", cache::getEvictionCount);
+        }
+        PointsLedger ledger = pointsService.getLedger();
+        if (ledger != null) {
+            metrics.gauge("points_ledger_pending", ledger::getPendingCount);
+            metrics.gauge("points_ledger_unflushed_segments", ledger::getUnflushedSegmentCount);
+        }
+
+        metrics.gauge("afk_pending", afkMessageListener::getPendingCount);
+        metrics.gauge("afk_dropped", afkMessageListener::getDroppedEntries);
+        metrics.gauge("afk_suppressed_flaps", afkMessageListener::getSuppressedFlaps);
+        metrics.gauge("afk_committed_changes", afkMessageListener::getCommittedChanges);
+    }
+
+    private void registerPoolGauges(String pool, DataSource dataSource) {
+        if (!(dataSource instanceof HikariDataSource hikari)) {
+            return;
+        }
+        metrics.gauge("db_pool_active", "pool", pool, () -> poolStat(hikari, HikariPoolMXBean::getActiveConnections));
+        metrics.gauge("db_pool_idle", "pool", pool, () -> poolStat(hikari, HikariPoolMXBean::getIdleConnections));
+        metrics.gauge("db_pool_total", "pool", pool, () -> poolStat(hikari, HikariPoolMXBean::getTotalConnections));
+        metrics.gauge("db_pool_waiting", "pool", pool, () -> poolStat(hikari, HikariPoolMXBean::getThreadsAwaitingConnection));
+    }
+
+    private static int poolStat(HikariDataSource hikari, ToIntFunction<HikariPoolMXBean> stat) {
+        HikariPoolMXBean bean = hikari.getHikariPoolMXBean();
+        return bean == null ? 0 : stat.applyAsInt(bean);
+    }
+
+    /**
+     * Schreibt die Messwerte periodisch im Prometheus-Textformat
+     * nach metrics.prom im Datenordner (für node_exporter textfile o. ä.).
+     */
+    private void startMetricsExport() {
+        int interval = config.getMetricsExportIntervalSeconds();
+        if (!metrics.isEnabled() || interval <= 0) {
+            return;
+        }
+
+        Path file = dataDirectory.resolve("metrics.prom");
+        scheduler.buildTask(this, () -> {
+            try {
+                metrics.writePrometheus(file);
+            } catch (Exception e) {
+                log.warn("Metrics: Schreiben von {} fehlgeschlagen: {}", file, e.getMessage());
+                log.debug("Metrics Exception beim Prometheus-Export", e);
+            }
+        }).delay(interval, TimeUnit.SECONDS).repeat(interval, TimeUnit.SECONDS).schedule();
+        log.info("Metrics: Prometheus-Export alle {}s nach {}", interval, file);
+    }
+
     public LuckPerms getLuckPerms() {
         return luckPerms;
     }
 
-    public PointsAPI getPointsAPI() {
-        return pointsAPI;
+    public PointsRepository getPointsRepository() {
+        return pointsRepository;
+    }
+
+    public PointsService getPointsService() {
+        return pointsService;
+    }
+
+    public DbExecutor getDbExecutor() {
+        return dbExecutor;
     }
 
     public StafflistManager getStafflistManager() {
@@ -1,10 +1,11 @@
 package ch.ksrminecraft.RankProxyPlugin.commands;
 
-import ch.ksrminecraft.RankPointsAPI.PointsAPI;
 import ch.ksrminecraft.RankProxyPlugin.utils.CommandUtils;
 import ch.ksrminecraft.RankProxyPlugin.utils.ConfigManager;
 import ch.ksrminecraft.RankProxyPlugin.utils.LogHelper;
 import ch.ksrminecraft.RankProxyPlugin.utils.OfflinePlayerStore;
+import ch.ksrminecraft.RankProxyPlugin.utils.PlayerNameIndex;
+import ch.ksrminecraft.RankProxyPlugin.utils.PointsService;
 import ch.ksrminecraft.RankProxyPlugin.utils.PromotionManager;
 import ch.ksrminecraft.RankProxyPlugin.utils.StafflistManager;
 
@@ -24,28 +25,31 @@ public class AddPointsCommand implements SimpleCommand {
 
     private final ProxyServer proxy;
     private final LuckPerms luckPerms;
-    private final PointsAPI pointsAPI;
+    private final PointsService pointsService;
     private final StafflistManager stafflistManager;
     private final OfflinePlayerStore offlineStore;
     private final ConfigManager configManager;
     private final PromotionManager promotionManager;
+    private final PlayerNameIndex nameIndex;
     private final LogHelper log;
 
     public AddPointsCommand(ProxyServer proxy,
                             LuckPerms luckPerms,
-                            PointsAPI pointsAPI,
+                            PointsService pointsService,
                             StafflistManager stafflistManager,
                             OfflinePlayerStore offlineStore,
                             ConfigManager configManager,
                             PromotionManager promotionManager,
+                            PlayerNameIndex nameIndex,
                             LogHelper log) {
         this.proxy = proxy;
         this.luckPerms = luckPerms;
-        this.pointsAPI = pointsAPI;
+        this.pointsService = pointsService;
         this.stafflistManager = stafflistManager;
         this.offlineStore = offlineStore;
         this.configManager = configManager;
         this.promotionManager = promotionManager;
+        this.nameIndex = nameIndex;
         this.log = log;
     }
 
@@ -101,8 +105,8 @@ public class AddPointsCommand implements SimpleCommand {
         try {
             log.debug("Füge {} Punkte zu '{}' ({}) hinzu", amount, targetName, uuid);
 
-            pointsAPI.addPoints(uuid, amount);
-            int total = pointsAPI.getPoints(uuid);
+            pointsService.addPoints(uuid, amount);
+            int total = pointsService.getPoints(uuid);
 
             log.debug("Neue Punktzahl für '{}' ({}) nach addPoints: {}", targetName, uuid, total);
 
@@ -129,7 +133,7 @@ public class AddPointsCommand implements SimpleCommand {
         String[] args = invocation.arguments();
 
         if (args.length == 1) {
-            return CommandUtils.suggestPlayerNames(proxy, luckPerms, args[0]);
+            return CommandUtils.suggestPlayerNames(proxy, luckPerms, nameIndex, args[0]);
         } else if (args.length == 2) {
             return List.of("1", "5", "10", "100");
         }
@@ -1,10 +1,11 @@
 package ch.ksrminecraft.RankProxyPlugin.commands;
 
-import ch.ksrminecraft.RankPointsAPI.PointsAPI;
 import ch.ksrminecraft.RankProxyPlugin.utils.CommandUtils;
 import ch.ksrminecraft.RankProxyPlugin.utils.ConfigManager;
 import ch.ksrminecraft.RankProxyPlugin.utils.LogHelper;
 import ch.ksrminecraft.RankProxyPlugin.utils.OfflinePlayerStore;
+import ch.ksrminecraft.RankProxyPlugin.utils.PlayerNameIndex;
+import ch.ksrminecraft.RankProxyPlugin.utils.PointsService;
 import ch.ksrminecraft.RankProxyPlugin.utils.StafflistManager;
 
 import com.velocitypowered.api.command.CommandSource;
@@ -23,25 +24,28 @@ public class GetPointsCommand implements SimpleCommand {
 
     private final ProxyServer proxy;
     private final LuckPerms luckPerms;
-    private final PointsAPI pointsAPI;
+    private final PointsService pointsService;
     private final OfflinePlayerStore offlineStore;
     private final StafflistManager stafflistManager;
     private final ConfigManager configManager;
+    private final PlayerNameIndex nameIndex;
     private final LogHelper log;
 
     public GetPointsCommand(ProxyServer proxy,
                             LuckPerms luckPerms,
-                            PointsAPI pointsAPI,
+                            PointsService pointsService,
                             OfflinePlayerStore offlineStore,
                             StafflistManager stafflistManager,
                             ConfigManager configManager,
+                            PlayerNameIndex nameIndex,
                             LogHelper log) {
         this.proxy = proxy;
         this.luckPerms = luckPerms;
-        this.pointsAPI = pointsAPI;
+        this.pointsService = pointsService;
         this.offlineStore = offlineStore;
         this.stafflistManager = stafflistManager;
         this.configManager = configManager;
+        this.nameIndex = nameIndex;
         this.log = log;
     }
 
@@ -86,7 +90,7 @@ public class GetPointsCommand implements SimpleCommand {
         }
 
         try {
-            int points = pointsAPI.getPoints(uuid);
+            int points = pointsService.getPoints(uuid);
             log.debug("GetPointsCommand: Abgerufene Punkte für '{}' ({}) = {}", playerName, uuid, points);
 
             if (stafflistManager.isStaff(uuid) && !configManager.isStaffPointsAllowed()) {
@@ -119,7 +123,7 @@ public class GetPointsCommand implements SimpleCommand {
     public List<String> suggest(Invocation invocation) {
         String[] args = invocation.arguments();
         if (args.length == 1) {
-            return CommandUtils.suggestPlayerNames(proxy, luckPerms, args[0]);
+            return CommandUtils.suggestPlayerNames(proxy, luckPerms, nameIndex, args[0]);
         }
         return List.of();
     }
@@ -1,9 +1,10 @@
 package ch.ksrminecraft.RankProxyPlugin.commands;
 
-import ch.ksrminecraft.RankPointsAPI.PointsAPI;
 import ch.ksrminecraft.RankProxyPlugin.utils.CommandUtils;
 import ch.ksrminecraft.RankProxyPlugin.utils.ConfigManager;
 import ch.ksrminecraft.RankProxyPlugin.utils.LogHelper;
+import ch.ksrminecraft.RankProxyPlugin.utils.PlayerNameIndex;
+import ch.ksrminecraft.RankProxyPlugin.utils.PointsService;
 import ch.ksrminecraft.RankProxyPlugin.utils.RankManager;
 import ch.ksrminecraft.RankProxyPlugin.utils.RankManager.RankProgressInfo;
 import ch.ksrminecraft.RankProxyPlugin.utils.StafflistManager;
@@ -32,25 +33,28 @@ import java.util.concurrent.CompletableFuture;
 public class RankInfoCommand implements SimpleCommand {
 
     private final ProxyServer proxy;
-    private final PointsAPI pointsAPI;
+    private final PointsService pointsService;
     private final RankManager rankManager;
     private final StafflistManager stafflistManager;
     private final ConfigManager config;
+    private final PlayerNameIndex nameIndex;
     private final LogHelper log;
     private final LuckPerms luckPerms;
 
     public RankInfoCommand(ProxyServer proxy,
-                           PointsAPI pointsAPI,
+                           PointsService pointsService,
                            RankManager rankManager,
                            StafflistManager stafflistManager,
                            ConfigManager config,
+                           PlayerNameIndex nameIndex,
                            LogHelper log,
                            LuckPerms luckPerms) {
         this.proxy = proxy;
-        this.pointsAPI = pointsAPI;
+        this.pointsService = pointsService;
         this.rankManager = rankManager;
         this.stafflistManager = stafflistManager;
         this.config = config;
+        this.nameIndex = nameIndex;
         this.log = log;
         this.luckPerms = luckPerms;
     }
@@ -122,7 +126,7 @@ public class RankInfoCommand implements SimpleCommand {
     private void showRankInfo(CommandSource viewer, UUID uuid, String name) {
         final int points;
         try {
-            points = pointsAPI.getPoints(uuid);
+            points = pointsService.getPoints(uuid);
             log.debug("RankInfoCommand: Punkte für '{}' ({}) = {}", name, uuid, points);
         } catch (Exception e) {
             viewer.sendMessage(Component.text("§cFehler beim Laden der Punkte von " + name + "."));
@@ -247,7 +251,7 @@ public class RankInfoCommand implements SimpleCommand {
     public List<String> suggest(Invocation invocation) {
         String[] args = invocation.arguments();
         if (args.length == 1) {
-            return CommandUtils.suggestPlayerNames(proxy, luckPerms, args[0]);
+            return CommandUtils.suggestPlayerNames(proxy, luckPerms, nameIndex, args[0]);
         }
         return List.of();
     }
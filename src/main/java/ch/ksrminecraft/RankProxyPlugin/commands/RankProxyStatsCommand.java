@@ -0,0 +1,45 @@
+package ch.ksrminecraft.RankProxyPlugin.commands;
+
+import ch.ksrminecraft.RankProxyPlugin.utils.MetricsRegistry;
+import com.velocitypowered.api.command.CommandSource;
+import com.velocitypowered.api.command.SimpleCommand;
+import net.kyori.adventure.text.Component;
+
+import java.util.List;
+
+/**
+ * /rankproxystats [präfix]
+ * Zeigt Zähler, Gauges und Latenzen (p50/p95/p99/max) aus der MetricsRegistry.
+ */
+public class RankProxyStatsCommand implements SimpleCommand {
+
+    private final MetricsRegistry metrics;
+
+    public RankProxyStatsCommand(MetricsRegistry metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void execute(Invocation invocation) {
+        CommandSource source = invocation.source();
+        String[] args = invocation.arguments();
+
+        String filter = args.length > 0 ? args[0] : "";
+        List<String> lines = metrics.describe(filter);
+
+        if (lines.isEmpty()) {
+            source.sendMessage(Component.text("§eKeine Messwerte" + (filter.isEmpty() ? "." : " für '" + filter + "'.")));
+            return;
+        }
+
+        source.sendMessage(Component.text("§6RankProxy-Statistik (" + lines.size() + " Werte):"));
+        for (String line : lines) {
+            source.sendMessage(Component.text("§7" + line));
+        }
+    }
+
+    @Override
+    public boolean hasPermission(Invocation invocation) {
+        return invocation.source().hasPermission("rankproxyplugin.stats");
+    }
+}
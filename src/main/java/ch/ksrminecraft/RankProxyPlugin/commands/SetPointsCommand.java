@@ -1,10 +1,11 @@
 package ch.ksrminecraft.RankProxyPlugin.commands;
 
-import ch.ksrminecraft.RankPointsAPI.PointsAPI;
 import ch.ksrminecraft.RankProxyPlugin.utils.CommandUtils;
 import ch.ksrminecraft.RankProxyPlugin.utils.ConfigManager;
 import ch.ksrminecraft.RankProxyPlugin.utils.LogHelper;
 import ch.ksrminecraft.RankProxyPlugin.utils.OfflinePlayerStore;
+import ch.ksrminecraft.RankProxyPlugin.utils.PlayerNameIndex;
+import ch.ksrminecraft.RankProxyPlugin.utils.PointsService;
 import ch.ksrminecraft.RankProxyPlugin.utils.PromotionManager;
 import ch.ksrminecraft.RankProxyPlugin.utils.StafflistManager;
 
@@ -24,28 +25,31 @@ public class SetPointsCommand implements SimpleCommand {
 
     private final ProxyServer proxy;
     private final LuckPerms luckPerms;
-    private final PointsAPI pointsAPI;
+    private final PointsService pointsService;
     private final StafflistManager stafflistManager;
     private final OfflinePlayerStore offlineStore;
     private final ConfigManager configManager;
     private final PromotionManager promotionManager;
+    private final PlayerNameIndex nameIndex;
     private final LogHelper log;
 
     public SetPointsCommand(ProxyServer proxy,
                             LuckPerms luckPerms,
-                            PointsAPI pointsAPI,
+                            PointsService pointsService,
                             StafflistManager stafflistManager,
                             OfflinePlayerStore offlineStore,
                             ConfigManager configManager,
                             PromotionManager promotionManager,
+                            PlayerNameIndex nameIndex,
                             LogHelper log) {
         this.proxy = proxy;
         this.luckPerms = luckPerms;
-        this.pointsAPI = pointsAPI;
+        this.pointsService = pointsService;
         this.stafflistManager = stafflistManager;
         this.offlineStore = offlineStore;
         this.configManager = configManager;
         this.promotionManager = promotionManager;
+        this.nameIndex = nameIndex;
         this.log = log;
     }
 
@@ -101,8 +105,8 @@ public class SetPointsCommand implements SimpleCommand {
         try {
             log.debug("Setze Punkte für '{}' ({}) auf {}", targetName, uuid, amount);
 
-            pointsAPI.setPoints(uuid, amount);
-            int total = pointsAPI.getPoints(uuid);
+            pointsService.setPoints(uuid, amount);
+            int total = pointsService.getPoints(uuid);
 
             log.debug("Neue Punktzahl für '{}' ({}) nach setPoints: {}", targetName, uuid, total);
 
@@ -128,7 +132,7 @@ public class SetPointsCommand implements SimpleCommand {
     public List<String> suggest(Invocation invocation) {
         String[] args = invocation.arguments();
         if (args.length == 1) {
-            return CommandUtils.suggestPlayerNames(proxy, luckPerms, args[0]);
+            return CommandUtils.suggestPlayerNames(proxy, luckPerms, nameIndex, args[0]);
         } else if (args.length == 2) {
             return List.of("0", "10", "50", "100");
         }
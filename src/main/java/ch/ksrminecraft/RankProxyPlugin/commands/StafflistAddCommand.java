@@ -2,6 +2,8 @@ package ch.ksrminecraft.RankProxyPlugin.commands;
 
 import ch.ksrminecraft.RankProxyPlugin.utils.LogHelper;
 import ch.ksrminecraft.RankProxyPlugin.utils.PendingStaffEventStore;
+import ch.ksrminecraft.RankProxyPlugin.utils.PlayerNameIndex;
+import ch.ksrminecraft.RankProxyPlugin.utils.PlayerUuidResolver;
 import ch.ksrminecraft.RankProxyPlugin.utils.PromotionMessageSender;
 import ch.ksrminecraft.RankProxyPlugin.utils.StaffPermissionService;
 import ch.ksrminecraft.RankProxyPlugin.utils.StafflistManager;
@@ -12,15 +14,10 @@ import com.velocitypowered.api.proxy.ProxyServer;
 import com.velocitypowered.api.scheduler.Scheduler;
 
 import net.kyori.adventure.text.Component;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 public class StafflistAddCommand implements SimpleCommand {
 
@@ -30,6 +27,8 @@ public class StafflistAddCommand implements SimpleCommand {
     private final PendingStaffEventStore pendingStaffEventStore;
     private final Scheduler scheduler;
     private final Object pluginInstance;
+    private final PlayerUuidResolver uuidResolver;
+    private final PlayerNameIndex nameIndex;
     private final LogHelper log;
 
     public StafflistAddCommand(ProxyServer server,
@@ -38,6 +37,8 @@ public class StafflistAddCommand implements SimpleCommand {
                                PendingStaffEventStore pendingStaffEventStore,
                                Scheduler scheduler,
                                Object pluginInstance,
+                               PlayerUuidResolver uuidResolver,
+                               PlayerNameIndex nameIndex,
                                LogHelper log) {
         this.server = server;
         this.stafflistManager = stafflistManager;
@@ -45,6 +46,8 @@ public class StafflistAddCommand implements SimpleCommand {
         this.pendingStaffEventStore = pendingStaffEventStore;
         this.scheduler = scheduler;
         this.pluginInstance = pluginInstance;
+        this.uuidResolver = uuidResolver;
+        this.nameIndex = nameIndex;
         this.log = log;
     }
 
@@ -62,20 +65,34 @@ public class StafflistAddCommand implements SimpleCommand {
         String targetName = args[0];
         log.debug("StafflistAddCommand ausgeführt für '{}'", targetName);
 
-        UUID uuid = server.getPlayer(targetName)
-                .map(p -> p.getUniqueId())
-                .orElseGet(() -> fetchUUIDFromMojang(targetName));
-
-        if (uuid == null) {
-            source.sendMessage(Component.text("§cFehler: '" + targetName + "' ist kein gültiger Minecraft-Name."));
-            log.debug("StafflistAddCommand: '{}' konnte nicht in UUID aufgelöst werden", targetName);
-            return;
-        }
-
-        log.debug("StafflistAddCommand: UUID für '{}' = {}", targetName, uuid);
-
-        boolean addedToStafflist = stafflistManager.addStaffMember(uuid, targetName);
+        // Namensauflösung und DB-Zugriff laufen asynchron, der Command-Thread wartet nicht
+        uuidResolver.resolve(targetName)
+                .thenCompose(uuidOpt -> {
+                    if (uuidOpt.isEmpty()) {
+                        source.sendMessage(Component.text("§cFehler: '" + targetName + "' ist kein gültiger Minecraft-Name."));
+                        log.debug("StafflistAddCommand: '{}' konnte nicht in UUID aufgelöst werden", targetName);
+                        return CompletableFuture.completedFuture(null);
+                    }
+
+                    UUID uuid = uuidOpt.get();
+                    log.debug("StafflistAddCommand: UUID für '{}' = {}", targetName, uuid);
+
+                    return stafflistManager.addStaffMemberAsync(uuid, targetName)
+                            .thenAccept(added -> completeAdd(source, targetName, uuid, added));
+                })
+                .exceptionally(e -> {
+                    source.sendMessage(Component.text("§cFehler: " + targetName + " konnte nicht hinzugefügt werden. Bitte später erneut versuchen."));
+                    log.warn("StafflistAddCommand: Hinzufügen von {} fehlgeschlagen: {}", targetName, e.getMessage());
+                    log.debug("StafflistAddCommand Exception bei Hinzufügen von '{}'", targetName, e);
+                    return null;
+                });
+    }
 
+    /**
+     * Zweiter Teil nach dem Stafflist-Eintrag: LuckPerms umstellen (oder zurückrollen)
+     * und Staff-Event zustellen. Läuft auf dem Thread des DB-Zugriffs.
+     */
+    private void completeAdd(CommandSource source, String targetName, UUID uuid, boolean addedToStafflist) {
         if (!addedToStafflist) {
             source.sendMessage(Component.text("§c" + targetName + " konnte nicht hinzugefügt werden (bereits vorhanden?)."));
             log.warn("StafflistAddCommand: Hinzufügen von {} ({}) zur Stafflist fehlgeschlagen", targetName, uuid);
@@ -131,6 +148,10 @@ public class StafflistAddCommand implements SimpleCommand {
 
         String prefix = args.length == 0 ? "" : args[0].toLowerCase();
 
+        if (nameIndex != null) {
+            return nameIndex.suggest(prefix, true, PlayerNameIndex.StaffFilter.NON_STAFF);
+        }
+
         return server.getAllPlayers().stream()
                 .filter(player -> !stafflistManager.isStaff(player.getUniqueId()))
                 .map(player -> player.getUsername())
@@ -138,44 +159,4 @@ public class StafflistAddCommand implements SimpleCommand {
                 .sorted(String.CASE_INSENSITIVE_ORDER)
                 .toList();
     }
-
-    private UUID fetchUUIDFromMojang(String name) {
-        try {
-            log.debug("StafflistAddCommand: Mojang-Abfrage für '{}'", name);
-
-            URL url = new URL("https://api.mojang.com/users/profiles/minecraft/" + name);
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setConnectTimeout(4000);
-            conn.setReadTimeout(4000);
-
-            int responseCode = conn.getResponseCode();
-            log.debug("StafflistAddCommand: Mojang-Response für '{}' = {}", name, responseCode);
-
-            if (responseCode != 200) {
-                return null;
-            }
-
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-                String jsonText = reader.lines().reduce("", (a, b) -> a + b);
-                JSONObject json = (JSONObject) new JSONParser().parse(jsonText);
-                String id = (String) json.get("id");
-
-                if (id == null) {
-                    return null;
-                }
-
-                UUID uuid = UUID.fromString(id.replaceFirst(
-                        "(\\w{8})(\\w{4})(\\w{4})(\\w{4})(\\w{12})",
-                        "$1-$2-$3-$4-$5"
-                ));
-
-                log.debug("StafflistAddCommand: Mojang lieferte UUID {} für '{}'", uuid, name);
-                return uuid;
-            }
-        } catch (Exception e) {
-            log.warn("StafflistAddCommand: Mojang-Abfrage für {} fehlgeschlagen: {}", name, e.getMessage());
-            log.debug("StafflistAddCommand Exception bei Mojang-Abfrage für '{}'", name, e);
-            return null;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -2,6 +2,7 @@ package ch.ksrminecraft.RankProxyPlugin.commands;
 
 import ch.ksrminecraft.RankProxyPlugin.utils.LogHelper;
 import ch.ksrminecraft.RankProxyPlugin.utils.PendingStaffEventStore;
+import ch.ksrminecraft.RankProxyPlugin.utils.PlayerNameIndex;
 import ch.ksrminecraft.RankProxyPlugin.utils.PromotionMessageSender;
 import ch.ksrminecraft.RankProxyPlugin.utils.StaffPermissionService;
 import ch.ksrminecraft.RankProxyPlugin.utils.StafflistManager;
@@ -25,6 +26,7 @@ public class StafflistRemoveCommand implements SimpleCommand {
     private final PendingStaffEventStore pendingStaffEventStore;
     private final Scheduler scheduler;
     private final Object pluginInstance;
+    private final PlayerNameIndex nameIndex;
     private final LogHelper log;
 
     public StafflistRemoveCommand(ProxyServer server,
@@ -33,6 +35,7 @@ public class StafflistRemoveCommand implements SimpleCommand {
                                   PendingStaffEventStore pendingStaffEventStore,
                                   Scheduler scheduler,
                                   Object pluginInstance,
+                                  PlayerNameIndex nameIndex,
                                   LogHelper log) {
         this.server = server;
         this.stafflistManager = stafflistManager;
@@ -40,6 +43,7 @@ public class StafflistRemoveCommand implements SimpleCommand {
         this.pendingStaffEventStore = pendingStaffEventStore;
         this.scheduler = scheduler;
         this.pluginInstance = pluginInstance;
+        this.nameIndex = nameIndex;
         this.log = log;
     }
 
@@ -121,6 +125,11 @@ public class StafflistRemoveCommand implements SimpleCommand {
 
         if (args.length == 1) {
             String prefix = args[0].toLowerCase();
+
+            if (nameIndex != null) {
+                return nameIndex.suggest(prefix, false, PlayerNameIndex.StaffFilter.STAFF);
+            }
+
             for (String name : stafflistManager.getAllStaffNames()) {
                 if (name.toLowerCase().startsWith(prefix)) {
                     suggestions.add(name);
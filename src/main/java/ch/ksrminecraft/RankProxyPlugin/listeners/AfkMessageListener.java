@@ -1,43 +1,112 @@
 package ch.ksrminecraft.RankProxyPlugin.listeners;
 
+import ch.ksrminecraft.RankProxyPlugin.utils.AfkFrameCodec;
 import ch.ksrminecraft.RankProxyPlugin.utils.AfkManager;
 import ch.ksrminecraft.RankProxyPlugin.utils.LogHelper;
+import ch.ksrminecraft.RankProxyPlugin.utils.MetricsRegistry;
 import ch.ksrminecraft.RankProxyPlugin.utils.PresenceManager;
 import ch.ksrminecraft.RankProxyPlugin.utils.PremiumVanishHook;
+import ch.ksrminecraft.RankProxyPlugin.utils.TokenBucket;
 
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.PluginMessageEvent;
 import com.velocitypowered.api.proxy.ProxyServer;
+import com.velocitypowered.api.proxy.ServerConnection;
 import com.velocitypowered.api.proxy.messages.ChannelIdentifier;
 import com.velocitypowered.api.proxy.messages.MinecraftChannelIdentifier;
 
 import java.nio.charset.StandardCharsets;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Empfängt AFK-Status-Nachrichten von den Paper-Servern (RankPointsAPI-Bridge)
  * über den Channel "rankproxy:afk" und aktualisiert den AfkManager + Presence-DB.
+ *
+ * Akzeptiert den Binär-Frame aus AfkFrameCodec (mehrere Spieler pro Nachricht)
+ * und weiterhin die Textform "uuid;true".
+ *
+ * Nachrichten werden nur von Backend-Servern (ServerConnection) angenommen
+ * und nie weitergeleitet; ein Client kann den AFK-Status nicht setzen.
+ *
+ * Schutz gegen laute Backends:
+ * - Hysterese: ein AFK-Wechsel wird erst übernommen, wenn er hysteresis
+ *   Sekunden bestehen bleibt (commitDue() läuft periodisch). Flattert der
+ *   Status zurück, wird nichts geschrieben.
+ * - Token-Bucket pro Backend-Server: jeder Eintrag kostet einen Token,
+ *   überzählige Einträge werden verworfen und gezählt.
  */
 public class AfkMessageListener {
 
+    private static final long DROP_WARN_INTERVAL_MILLIS = 30_000L;
+
+    /**
+     * Noch nicht übernommener AFK-Wechsel.
+     */
+    private record PendingAfk(boolean afk, long since) {
+    }
+
     private final ProxyServer proxy;
     private final AfkManager afkManager;
     private final LogHelper log;
     private final PresenceManager presence;
     private final PremiumVanishHook premiumVanish; // kann null sein
 
+    private final long hysteresisMillis;
+    private final double ratePerSecond;
+    private final int burst;
+
     private final ChannelIdentifier channel = MinecraftChannelIdentifier.from("rankproxy:afk");
 
+    private final Map<UUID, PendingAfk> pendingAfk = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final LongAdder droppedEntries = new LongAdder();
+    private final LongAdder suppressedFlaps = new LongAdder();
+    private final LongAdder committedChanges = new LongAdder();
+    private final AtomicLong lastDropWarn = new AtomicLong();
+
+    private volatile MetricsRegistry metrics = MetricsRegistry.NOOP;
+
     public AfkMessageListener(ProxyServer proxy,
                               AfkManager afkManager,
                               LogHelper log,
                               PresenceManager presence,
                               PremiumVanishHook premiumVanish) {
+        this(proxy, afkManager, log, presence, premiumVanish, 0, 0.0, 0);
+    }
+
+    /**
+     * @param hysteresisSeconds 0 = Wechsel sofort übernehmen
+     * @param ratePerSecond     0 = kein Rate-Limit
+     * @param burst             max. Einträge am Stück pro Backend
+     */
+    public AfkMessageListener(ProxyServer proxy,
+                              AfkManager afkManager,
+                              LogHelper log,
+                              PresenceManager presence,
+                              PremiumVanishHook premiumVanish,
+                              int hysteresisSeconds,
+                              double ratePerSecond,
+                              int burst) {
         this.proxy = proxy;
         this.afkManager = afkManager;
         this.log = log;
         this.presence = presence;
         this.premiumVanish = premiumVanish;
+        this.hysteresisMillis = Math.max(0, hysteresisSeconds) * 1000L;
+        this.ratePerSecond = Math.max(0.0, ratePerSecond);
+        this.burst = Math.max(1, burst);
+    }
+
+    /**
+     * Misst die Verarbeitung als plugin_message_seconds{channel="rankproxy:afk"}.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = (metrics == null) ? MetricsRegistry.NOOP : metrics;
     }
 
     @Subscribe
@@ -46,51 +115,207 @@ public class AfkMessageListener {
             return;
         }
 
-        byte[] data = event.getData();
+        // unser Channel: weder an den Client noch an das Backend weiterleiten
+        event.setResult(PluginMessageEvent.ForwardResult.handled());
+
+        if (!(event.getSource() instanceof ServerConnection connection)) {
+            log.debug("AfkMessageListener: AFK-Nachricht von {} ignoriert (kein Backend-Server)", event.getSource());
+            return;
+        }
+
+        MetricsRegistry m = metrics;
+        long start = System.nanoTime();
+        try {
+            handleMessage(event.getData(), connection);
+        } finally {
+            m.increment("plugin_messages_total", "channel", "rankproxy:afk");
+            m.recordNanos("plugin_message_seconds", "channel", "rankproxy:afk", System.nanoTime() - start);
+        }
+    }
+
+    private void handleMessage(byte[] data, ServerConnection source) {
+        TokenBucket bucket = bucketFor(source);
+
+        // Binär-Frame mit beliebig vielen Spielern
+        if (AfkFrameCodec.isFrame(data)) {
+            int count = AfkFrameCodec.decode(data, (uuid, afk) -> {
+                if (admit(bucket)) {
+                    receive(uuid, afk);
+                }
+            });
+            if (count < 0) {
+                if (admit(bucket)) {
+                    log.warn("AfkMessageListener: Ungültiger AFK-Frame ({} Bytes, Version {})",
+                            data.length, data.length > 1 ? data[1] : -1);
+                }
+                return;
+            }
+            log.trace("AfkMessageListener: AFK-Frame mit {} Einträgen empfangen", count);
+            return;
+        }
+
+        if (!admit(bucket)) {
+            return;
+        }
+
+        // Textform "uuid;true" (ältere Backends)
         String message = new String(data, StandardCharsets.UTF_8);
         log.trace("AfkMessageListener: empfangene Plugin-Message '{}'", message);
 
-        String[] parts = message.split(";");
-        if (parts.length != 2) {
+        int sep = message.indexOf(';');
+        if (sep < 0 || message.indexOf(';', sep + 1) >= 0) {
             log.warn("AfkMessageListener: Ungültige AFK-Nachricht: {}", message);
             return;
         }
 
         try {
-            UUID uuid = UUID.fromString(parts[0]);
-            boolean isAfk = Boolean.parseBoolean(parts[1]);
+            UUID uuid = UUID.fromString(message.substring(0, sep));
+            boolean isAfk = Boolean.parseBoolean(message.substring(sep + 1));
+            receive(uuid, isAfk);
+        } catch (IllegalArgumentException e) {
+            log.warn("AfkMessageListener: Fehler beim Parsen der Nachricht '{}': {}", message, e.getMessage());
+            log.debug("AfkMessageListener Exception beim Parsen", e);
+        }
+    }
 
-            log.debug("AfkMessageListener: empfangen für {} -> isAfk={}", uuid, isAfk);
+    /**
+     * Übernimmt AFK-Wechsel, die lange genug bestanden haben.
+     * Wird periodisch vom Plugin aufgerufen (nur bei aktiver Hysterese nötig).
+     */
+    public void commitDue() {
+        if (pendingAfk.isEmpty()) {
+            return;
+        }
 
-            // Wenn vanished: immer AFK=0 erzwingen und nicht als online/afk anzeigen
-            if (premiumVanish != null && premiumVanish.isVanished(uuid)) {
-                log.debug("AfkMessageListener: {} ist vanished, erzwinge hidden / nicht AFK", uuid);
+        long now = System.currentTimeMillis();
+        for (Map.Entry<UUID, PendingAfk> entry : pendingAfk.entrySet()) {
+            UUID uuid = entry.getKey();
+            PendingAfk pending = entry.getValue();
 
-                afkManager.setAfk(uuid, false);
+            if (now - pending.since() < hysteresisMillis) {
+                continue;
+            }
+            if (!pendingAfk.remove(uuid, pending)) {
+                continue;
+            }
 
-                if (presence != null) {
-                    presence.updateAfk(uuid, false);
-                    presence.forceHidden(uuid, null);
-                }
-                return;
+            // inzwischen offline: nichts mehr übernehmen
+            if (proxy.getPlayer(uuid).isEmpty()) {
+                continue;
             }
+            applyAfk(uuid, pending.afk());
+        }
+    }
 
-            boolean old = afkManager.isAfk(uuid);
-            if (old == isAfk) {
-                log.trace("AfkMessageListener: keine AFK-Änderung für {} (weiterhin {})", uuid, isAfk);
-                return;
+    public boolean isHysteresisEnabled() {
+        return hysteresisMillis > 0;
+    }
+
+    public int getPendingCount() {
+        return pendingAfk.size();
+    }
+
+    public long getDroppedEntries() {
+        return droppedEntries.sum();
+    }
+
+    public long getSuppressedFlaps() {
+        return suppressedFlaps.sum();
+    }
+
+    public long getCommittedChanges() {
+        return committedChanges.sum();
+    }
+
+    /**
+     * Verworfene Einträge pro Backend-Server.
+     */
+    public Map<String, Long> getDroppedPerSource() {
+        Map<String, Long> result = new ConcurrentHashMap<>();
+        buckets.forEach((source, bucket) -> result.put(source, bucket.getDropped()));
+        return result;
+    }
+
+    private TokenBucket bucketFor(ServerConnection source) {
+        if (ratePerSecond <= 0.0) {
+            return null;
+        }
+        return buckets.computeIfAbsent(source.getServerInfo().getName(), k -> new TokenBucket(ratePerSecond, burst));
+    }
+
+    private boolean admit(TokenBucket bucket) {
+        if (bucket == null || bucket.tryAcquire()) {
+            return true;
+        }
+
+        droppedEntries.increment();
+
+        // Warnung höchstens alle 30 Sekunden
+        long now = System.currentTimeMillis();
+        long last = lastDropWarn.get();
+        if (now - last >= DROP_WARN_INTERVAL_MILLIS && lastDropWarn.compareAndSet(last, now)) {
+            log.warn("AfkMessageListener: AFK-Rate-Limit überschritten, bisher {} Einträge verworfen {}",
+                    droppedEntries.sum(), getDroppedPerSource());
+        }
+        return false;
+    }
+
+    /**
+     * Nimmt einen gemeldeten Status entgegen. Vanished wird sofort behandelt,
+     * sonst greift die Hysterese.
+     */
+    private void receive(UUID uuid, boolean isAfk) {
+        if (hysteresisMillis <= 0 || (premiumVanish != null && premiumVanish.isVanished(uuid))) {
+            pendingAfk.remove(uuid);
+            applyAfk(uuid, isAfk);
+            return;
+        }
+
+        if (afkManager.isAfk(uuid) == isAfk) {
+            // zurückgeflattert, bevor der Wechsel übernommen wurde
+            if (pendingAfk.remove(uuid) != null) {
+                suppressedFlaps.increment();
+                log.trace("AfkMessageListener: AFK-Wechsel für {} zurückgenommen, nichts geschrieben", uuid);
             }
+            return;
+        }
+
+        // bestehenden Wechsel in dieselbe Richtung nicht neu starten
+        pendingAfk.compute(uuid, (k, existing) ->
+                (existing != null && existing.afk() == isAfk)
+                        ? existing
+                        : new PendingAfk(isAfk, System.currentTimeMillis()));
+    }
+
+    private void applyAfk(UUID uuid, boolean isAfk) {
+        log.debug("AfkMessageListener: empfangen für {} -> isAfk={}", uuid, isAfk);
 
-            afkManager.setAfk(uuid, isAfk);
+        // Wenn vanished: immer AFK=0 erzwingen und nicht als online/afk anzeigen
+        if (premiumVanish != null && premiumVanish.isVanished(uuid)) {
+            log.debug("AfkMessageListener: {} ist vanished, erzwinge hidden / nicht AFK", uuid);
+
+            afkManager.setAfk(uuid, false);
 
             if (presence != null) {
-                presence.updateAfk(uuid, isAfk);
+                presence.updateAfk(uuid, false);
+                presence.forceHidden(uuid, null);
             }
+            return;
+        }
 
-            log.info("AFK-Status geändert: {} -> {}", uuid, isAfk ? "AFK" : "aktiv");
-        } catch (IllegalArgumentException e) {
-            log.warn("AfkMessageListener: Fehler beim Parsen der Nachricht '{}': {}", message, e.getMessage());
-            log.debug("AfkMessageListener Exception beim Parsen", e);
+        boolean old = afkManager.isAfk(uuid);
+        if (old == isAfk) {
+            log.trace("AfkMessageListener: keine AFK-Änderung für {} (weiterhin {})", uuid, isAfk);
+            return;
         }
+
+        afkManager.setAfk(uuid, isAfk);
+        committedChanges.increment();
+
+        if (presence != null) {
+            presence.updateAfk(uuid, isAfk);
+        }
+
+        log.info("AFK-Status geändert: {} -> {}", uuid, isAfk ? "AFK" : "aktiv");
     }
-}
\ No newline at end of file
+}
@@ -2,7 +2,9 @@ package ch.ksrminecraft.RankProxyPlugin.listeners;
 
 import ch.ksrminecraft.RankProxyPlugin.utils.AfkManager;
 import ch.ksrminecraft.RankProxyPlugin.utils.LogHelper;
+import ch.ksrminecraft.RankProxyPlugin.utils.PlayerNameIndex;
 import ch.ksrminecraft.RankProxyPlugin.utils.PresenceManager;
+import ch.ksrminecraft.RankProxyPlugin.utils.PromotionThresholdTracker;
 
 import com.velocitypowered.api.event.Subscribe;
 import com.velocitypowered.api.event.connection.DisconnectEvent;
@@ -14,11 +16,30 @@ public class PlayerDisconnectListener {
 
     private final PresenceManager presence;
     private final AfkManager afkManager;
+    private final PromotionThresholdTracker thresholdTracker;
+    private final PlayerNameIndex nameIndex;
     private final LogHelper log;
 
     public PlayerDisconnectListener(PresenceManager presence, AfkManager afkManager, LogHelper log) {
+        this(presence, afkManager, null, log);
+    }
+
+    public PlayerDisconnectListener(PresenceManager presence,
+                                    AfkManager afkManager,
+                                    PromotionThresholdTracker thresholdTracker,
+                                    LogHelper log) {
+        this(presence, afkManager, thresholdTracker, null, log);
+    }
+
+    public PlayerDisconnectListener(PresenceManager presence,
+                                    AfkManager afkManager,
+                                    PromotionThresholdTracker thresholdTracker,
+                                    PlayerNameIndex nameIndex,
+                                    LogHelper log) {
         this.presence = presence;
         this.afkManager = afkManager;
+        this.thresholdTracker = thresholdTracker;
+        this.nameIndex = nameIndex;
         this.log = log;
     }
 
@@ -31,6 +52,14 @@ public class PlayerDisconnectListener {
             afkManager.clear(uuid);
         }
 
+        if (thresholdTracker != null) {
+            thresholdTracker.forget(uuid);
+        }
+
+        if (nameIndex != null) {
+            nameIndex.playerLeft(uuid);
+        }
+
         if (presence != null) {
             presence.markOffline(uuid);
         }
@@ -3,6 +3,7 @@ package ch.ksrminecraft.RankProxyPlugin.listeners;
 import ch.ksrminecraft.RankProxyPlugin.utils.LogHelper;
 import ch.ksrminecraft.RankProxyPlugin.utils.OfflinePlayerStore;
 import ch.ksrminecraft.RankProxyPlugin.utils.PendingStaffEventStore;
+import ch.ksrminecraft.RankProxyPlugin.utils.PlayerNameIndex;
 import ch.ksrminecraft.RankProxyPlugin.utils.PresenceManager;
 import ch.ksrminecraft.RankProxyPlugin.utils.PremiumVanishHook;
 import ch.ksrminecraft.RankProxyPlugin.utils.PromotionManager;
@@ -30,6 +31,7 @@ public class PlayerLoginListener {
     private final LogHelper log;
     private final PresenceManager presence;
     private final PremiumVanishHook premiumVanish;
+    private final PlayerNameIndex nameIndex;
 
     public PlayerLoginListener(PromotionManager promotionManager,
                                OfflinePlayerStore offlineStore,
@@ -41,6 +43,21 @@ public class PlayerLoginListener {
                                Object pluginInstance,
                                PresenceManager presence,
                                PremiumVanishHook premiumVanish) {
+        this(promotionManager, offlineStore, stafflistManager, staffPermissionService, pendingStaffEventStore,
+                log, scheduler, pluginInstance, presence, premiumVanish, null);
+    }
+
+    public PlayerLoginListener(PromotionManager promotionManager,
+                               OfflinePlayerStore offlineStore,
+                               StafflistManager stafflistManager,
+                               StaffPermissionService staffPermissionService,
+                               PendingStaffEventStore pendingStaffEventStore,
+                               LogHelper log,
+                               Scheduler scheduler,
+                               Object pluginInstance,
+                               PresenceManager presence,
+                               PremiumVanishHook premiumVanish,
+                               PlayerNameIndex nameIndex) {
         this.promotionManager = promotionManager;
         this.offlineStore = offlineStore;
         this.stafflistManager = stafflistManager;
@@ -51,6 +68,7 @@ public class PlayerLoginListener {
         this.log = log;
         this.presence = presence;
         this.premiumVanish = premiumVanish;
+        this.nameIndex = nameIndex;
     }
 
     @Subscribe
@@ -64,6 +82,9 @@ public class PlayerLoginListener {
         log.debug("ServerConnectedEvent getriggert für {} ({}) firstJoinToProxy={}", name, uuid, firstJoinToProxy);
 
         offlineStore.record(name, uuid);
+        if (nameIndex != null) {
+            nameIndex.playerJoined(uuid, name);
+        }
 
         String targetServer = event.getServer().getServerInfo().getName();
         boolean vanished = (premiumVanish != null && premiumVanish.isVanished(uuid));
@@ -91,7 +112,8 @@ public class PlayerLoginListener {
                         .map(cs -> cs.getServerInfo().getName())
                         .orElse(null);
 
-                if (current != null && presence != null) {
+                // gleicher Server wie beim Login -> kein zusätzlicher Schreibzugriff
+                if (current != null && presence != null && !current.equals(targetServer)) {
                     presence.updateServer(uuid, current);
                     log.trace("PlayerLoginListener: aktueller Server für {} ({}) auf {} aktualisiert", name, uuid, current);
                 }
@@ -142,7 +164,7 @@ public class PlayerLoginListener {
             scheduler.buildTask(pluginInstance, () -> {
                 try {
                     log.debug("Verzögerte Promotion-/Demotion-Prüfung 5s nach erstem Login für {}", name);
-                    promotionManager.handleLogin(player);
+                    promotionManager.evaluateAsync(uuid, name);
                 } catch (Exception e) {
                     log.error("PlayerLoginListener: Promotion-Prüfung für {} fehlgeschlagen: {}", name, e.getMessage());
                     log.debug("PlayerLoginListener Exception bei handleLogin für '{}'", name, e);
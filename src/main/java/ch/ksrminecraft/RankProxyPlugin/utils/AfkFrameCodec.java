@@ -0,0 +1,119 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Binäres Format für AFK-Nachrichten auf "rankproxy:afk".
+ *
+ * Aufbau (Big Endian):
+ * - 1 Byte  MAGIC (0xA7, kann nicht am Anfang der Textform "uuid;true" stehen)
+ * - 1 Byte  VERSION (aktuell 1)
+ * - 2 Byte  Anzahl Einträge (unsigned)
+ * - N x 17 Byte: UUID msb (long), UUID lsb (long), Status (0 = aktiv, 1 = AFK)
+ *
+ * Damit kann ein Backend viele AFK-Wechsel in einer Nachricht senden
+ * (z. B. nach einem Neustart). Dekodiert wird direkt aus dem Byte-Array,
+ * ohne Zwischen-Strings.
+ */
+public final class AfkFrameCodec {
+
+    public static final byte MAGIC = (byte) 0xA7;
+    public static final byte VERSION = 1;
+
+    public static final int HEADER_SIZE = 4;
+    public static final int ENTRY_SIZE = 17;
+    public static final int MAX_ENTRIES = 0xFFFF;
+
+    private static final byte STATE_ACTIVE = 0;
+    private static final byte STATE_AFK = 1;
+
+    /**
+     * Empfängt die dekodierten Einträge.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(UUID uuid, boolean afk);
+    }
+
+    private AfkFrameCodec() {
+    }
+
+    /**
+     * true, wenn die Nachricht ein Binär-Frame ist (sonst Textform).
+     */
+    public static boolean isFrame(byte[] data) {
+        return data != null && data.length >= 1 && data[0] == MAGIC;
+    }
+
+    /**
+     * Dekodiert einen Frame und übergibt jeden gültigen Eintrag an consumer.
+     *
+     * @return Anzahl Einträge, oder -1 bei unbekannter Version / falscher Länge
+     *         (dann wird kein Eintrag übergeben)
+     */
+    public static int decode(byte[] data, EntryConsumer consumer) {
+        if (!isFrame(data) || data.length < HEADER_SIZE || data[1] != VERSION) {
+            return -1;
+        }
+
+        int count = ((data[2] & 0xFF) << 8) | (data[3] & 0xFF);
+        if (data.length != HEADER_SIZE + count * ENTRY_SIZE) {
+            return -1;
+        }
+
+        int offset = HEADER_SIZE;
+        for (int i = 0; i < count; i++) {
+            long msb = readLong(data, offset);
+            long lsb = readLong(data, offset + 8);
+            byte state = data[offset + 16];
+            offset += ENTRY_SIZE;
+
+            // unbekannte Status-Werte überspringen (vorwärtskompatibel)
+            if (state != STATE_ACTIVE && state != STATE_AFK) {
+                continue;
+            }
+            consumer.accept(new UUID(msb, lsb), state == STATE_AFK);
+        }
+        return count;
+    }
+
+    /**
+     * Kodiert AFK-Zustände als Frame (Gegenstück für Backends und Tests).
+     */
+    public static byte[] encode(Map<UUID, Boolean> states) {
+        if (states.size() > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Zu viele Einträge für einen Frame: " + states.size());
+        }
+
+        byte[] out = new byte[HEADER_SIZE + states.size() * ENTRY_SIZE];
+        out[0] = MAGIC;
+        out[1] = VERSION;
+        out[2] = (byte) (states.size() >>> 8);
+        out[3] = (byte) states.size();
+
+        int offset = HEADER_SIZE;
+        for (Map.Entry<UUID, Boolean> entry : states.entrySet()) {
+            writeLong(out, offset, entry.getKey().getMostSignificantBits());
+            writeLong(out, offset + 8, entry.getKey().getLeastSignificantBits());
+            out[offset + 16] = Boolean.TRUE.equals(entry.getValue()) ? STATE_AFK : STATE_ACTIVE;
+            offset += ENTRY_SIZE;
+        }
+        return out;
+    }
+
+    private static long readLong(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (data[offset + i] & 0xFFL);
+        }
+        return value;
+    }
+
+    private static void writeLong(byte[] out, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            out[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Startphasen des Plugins als Abhängigkeitsgraph: jede Stufe läuft auf
+ * einem eigenen virtuellen Thread, sobald ihre Abhängigkeiten fertig sind.
+ * Unabhängige Stufen (z. B. Stafflist laden und PremiumVanish abfragen)
+ * warten so nicht mehr aufeinander.
+ *
+ * Pflicht-Stufen müssen fertig sein, bevor der Proxy Spieler annimmt
+ * (awaitRequired()), Hintergrund-Stufen laufen nach dem Start weiter.
+ * Jede Stufe meldet ihre Dauer im Log; schlägt eine fehl, werden die von
+ * ihr abhängigen Stufen übersprungen.
+ *
+ * Schlägt eine Pflicht-Stufe fehl, startet keine weitere Stufe mehr.
+ * Laufende Stufen werden noch abgewartet, danach geben die bereits fertigen
+ * Stufen ihre Ressourcen in umgekehrter Reihenfolge wieder frei (onAbort).
+ */
+public class BootstrapGraph {
+
+    @FunctionalInterface
+    public interface Step {
+        void run() throws Exception;
+    }
+
+    private static final class Stage {
+        final String name;
+        final Runnable onAbort;
+        final CompletableFuture<Void> settled = new CompletableFuture<>();
+
+        Stage(String name, Runnable onAbort) {
+            this.name = name;
+            this.onAbort = onAbort;
+        }
+    }
+
+    private final LogHelper log;
+    private final long startNanos = System.nanoTime();
+
+    private final Map<String, CompletableFuture<Void>> stages = new ConcurrentHashMap<>();
+    private final List<CompletableFuture<Void>> requiredStages = new CopyOnWriteArrayList<>();
+    private final AtomicLong requiredMillis = new AtomicLong();
+
+    // geschützt durch this
+    private final List<Stage> started = new ArrayList<>();
+    private final List<Stage> succeeded = new ArrayList<>();
+    private boolean aborted;
+    private Exception firstFailure;
+
+    public BootstrapGraph(LogHelper log) {
+        this.log = log;
+    }
+
+    /**
+     * Stufe, die vor der Annahme von Spielern abgeschlossen sein muss.
+     */
+    public BootstrapGraph required(String name, List<String> after, Step step) {
+        return add(name, after, step, null, true);
+    }
+
+    /**
+     * Wie required(); onAbort gibt die von der Stufe geöffneten Ressourcen
+     * frei, falls der Start danach an einer anderen Pflicht-Stufe scheitert.
+     */
+    public BootstrapGraph required(String name, List<String> after, Step step, Runnable onAbort) {
+        return add(name, after, step, onAbort, true);
+    }
+
+    /**
+     * Stufe, die nach dem Start im Hintergrund fertig werden darf.
+     */
+    public BootstrapGraph background(String name, List<String> after, Step step) {
+        return add(name, after, step, null, false);
+    }
+
+    /**
+     * Wartet auf alle Pflicht-Stufen.
+     *
+     * @throws IllegalStateException wenn eine Pflicht-Stufe fehlgeschlagen ist;
+     *                               der Graph ist dann bereits abgebrochen und aufgeräumt
+     */
+    public void awaitRequired() {
+        try {
+            CompletableFuture.allOf(requiredStages.toArray(new CompletableFuture[0])).join();
+        } catch (CompletionException | CancellationException e) {
+            Throwable cause;
+            synchronized (this) {
+                cause = (firstFailure != null) ? firstFailure : unwrap(e);
+            }
+            abort();
+            throw new IllegalStateException("Pflicht-Stufe beim Start fehlgeschlagen: " + cause.getMessage(), cause);
+        }
+
+        log.info("Bootstrap: {} Pflicht-Stufen nach {} ms abgeschlossen (nacheinander wären es {} ms)",
+                requiredStages.size(), elapsedMillis(startNanos), requiredMillis.get());
+    }
+
+    /**
+     * Verhindert den Start weiterer Stufen, wartet laufende ab und ruft
+     * onAbort der erfolgreich abgeschlossenen Stufen (neueste zuerst).
+     */
+    private void abort() {
+        List<Stage> running;
+        synchronized (this) {
+            aborted = true;
+            running = new ArrayList<>(started);
+        }
+
+        for (Stage stage : running) {
+            // Ausgang egal, es geht nur ums Abwarten (z. B. Pool-Aufbau mit Connection-Timeout)
+            stage.settled.join();
+        }
+
+        List<Stage> cleanup;
+        synchronized (this) {
+            cleanup = new ArrayList<>(succeeded);
+        }
+
+        for (int i = cleanup.size() - 1; i >= 0; i--) {
+            Stage stage = cleanup.get(i);
+            if (stage.onAbort == null) {
+                continue;
+            }
+            try {
+                stage.onAbort.run();
+                log.debug("Bootstrap: Stufe '{}' nach Startabbruch aufgeräumt", stage.name);
+            } catch (Exception e) {
+                log.warn("Bootstrap: Aufräumen der Stufe '{}' fehlgeschlagen: {}", stage.name, e.getMessage());
+                log.debug("Bootstrap Exception beim Aufräumen der Stufe '{}'", stage.name, e);
+            }
+        }
+    }
+
+    private BootstrapGraph add(String name, List<String> after, Step step, Runnable onAbort, boolean required) {
+        if (stages.containsKey(name)) {
+            throw new IllegalArgumentException("Stufe '" + name + "' ist bereits registriert");
+        }
+
+        CompletableFuture<?>[] dependencies = new CompletableFuture[after.size()];
+        for (int i = 0; i < after.size(); i++) {
+            CompletableFuture<Void> dependency = stages.get(after.get(i));
+            if (dependency == null) {
+                throw new IllegalArgumentException("Stufe '" + name + "': unbekannte Abhängigkeit '" + after.get(i) + "'");
+            }
+            dependencies[i] = dependency;
+        }
+
+        Stage stage = new Stage(name, onAbort);
+        CompletableFuture<Void> future = CompletableFuture.allOf(dependencies)
+                .thenRunAsync(() -> execute(stage, step, required),
+                        r -> Thread.ofVirtual().name("RankProxy-Boot-" + name).start(r));
+
+        future.whenComplete((v, t) -> {
+            if (t == null || stage.settled.isDone()) {
+                return;
+            }
+            if (unwrap(t) instanceof CancellationException) {
+                log.debug("Bootstrap: Stufe '{}' nicht gestartet, Start wurde abgebrochen", name);
+            } else {
+                log.warn("Bootstrap: Stufe '{}' übersprungen, weil eine Abhängigkeit ({}) fehlgeschlagen ist", name, after);
+            }
+        });
+
+        stages.put(name, future);
+        if (required) {
+            requiredStages.add(future);
+        }
+        return this;
+    }
+
+    private void execute(Stage stage, Step step, boolean required) {
+        synchronized (this) {
+            if (aborted) {
+                throw new CancellationException("Start abgebrochen");
+            }
+            started.add(stage);
+        }
+
+        long begin = System.nanoTime();
+        String kind = required ? "Pflicht" : "Hintergrund";
+
+        boolean ok = false;
+        try {
+            step.run();
+            ok = true;
+        } catch (Exception e) {
+            log.error("Bootstrap: Stufe '{}' ({}) nach {} ms fehlgeschlagen: {}", stage.name, kind, elapsedMillis(begin), e.getMessage());
+            log.debug("Bootstrap Exception in Stufe '{}'", stage.name, e);
+            if (required) {
+                // Start ist gescheitert: ab jetzt keine neuen Stufen mehr anfangen
+                synchronized (this) {
+                    aborted = true;
+                    if (firstFailure == null) {
+                        firstFailure = e;
+                    }
+                }
+            }
+            throw new CompletionException(e);
+        } finally {
+            if (ok) {
+                synchronized (this) {
+                    succeeded.add(stage);
+                }
+            }
+            stage.settled.complete(null);
+        }
+
+        long millis = elapsedMillis(begin);
+        if (required) {
+            requiredMillis.addAndGet(millis);
+        }
+        log.info("Bootstrap: Stufe '{}' ({}) fertig in {} ms, {} ms nach Startbeginn",
+                stage.name, kind, millis, elapsedMillis(startNanos));
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        return (t instanceof CompletionException && t.getCause() != null) ? t.getCause() : t;
+    }
+
+    private static long elapsedMillis(long sinceNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sinceNanos);
+    }
+}
@@ -5,36 +5,53 @@ import com.velocitypowered.api.proxy.ProxyServer;
 import net.luckperms.api.LuckPerms;
 import net.luckperms.api.model.user.User;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 /**
  * Hilfsmethoden für Command-Autocompletion.
  * Berücksichtigt Online-Spieler sowie bereits geladene LuckPerms-User.
+ *
+ * Ist ein PlayerNameIndex übergeben, wird nur noch dieser abgefragt
+ * (Online-Spieler und alle bekannten Offline-Spieler, mit Limit).
  */
 public class CommandUtils {
 
     public static List<String> suggestPlayerNames(ProxyServer proxy, LuckPerms luckPerms, String prefix) {
+        return suggestPlayerNames(proxy, luckPerms, null, prefix);
+    }
+
+    /**
+     * @param nameIndex optional, null = Online-Spieler und geladene LuckPerms-User
+     */
+    public static List<String> suggestPlayerNames(ProxyServer proxy, LuckPerms luckPerms,
+                                                  PlayerNameIndex nameIndex, String prefix) {
+        if (nameIndex != null) {
+            return nameIndex.suggest(prefix, false, PlayerNameIndex.StaffFilter.ANY);
+        }
+
         String lowerPrefix = prefix.toLowerCase(Locale.ROOT);
 
-        // Online-Spieler
-        List<String> online = proxy.getAllPlayers().stream()
-                .map(Player::getUsername)
-                .filter(name -> name.toLowerCase(Locale.ROOT).startsWith(lowerPrefix))
-                .collect(Collectors.toList());
+        // Online-Spieler zuerst, danach bereits geladene LuckPerms-User, ohne Duplikate
+        Set<String> names = new LinkedHashSet<>();
 
-        // Offline-Spieler aus LuckPerms (bereits geladene User)
-        List<String> offline = luckPerms.getUserManager().getLoadedUsers().stream()
-                .map(User::getUsername)
-                .filter(name -> name != null && name.toLowerCase(Locale.ROOT).startsWith(lowerPrefix))
-                .collect(Collectors.toList());
+        for (Player player : proxy.getAllPlayers()) {
+            String name = player.getUsername();
+            if (name.toLowerCase(Locale.ROOT).startsWith(lowerPrefix)) {
+                names.add(name);
+            }
+        }
 
-        // Zusammenführen ohne Duplikate
-        offline.stream()
-                .filter(name -> !online.contains(name))
-                .forEach(online::add);
+        for (User user : luckPerms.getUserManager().getLoadedUsers()) {
+            String name = user.getUsername();
+            if (name != null && name.toLowerCase(Locale.ROOT).startsWith(lowerPrefix)) {
+                names.add(name);
+            }
+        }
 
-        return online;
+        return new ArrayList<>(names);
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,5 @@
 package ch.ksrminecraft.RankProxyPlugin.utils;
 
-import ch.ksrminecraft.RankPointsAPI.PointsAPI;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
@@ -65,6 +64,28 @@ public class ConfigManager {
             defaultParams.put("cachePrepStmts", "true");
             defaultParams.put("tcpKeepAlive", "true");
             root.node("mysql", "params").set(defaultParams);
+            root.node("mysql", "pool-size").set(5);
+
+            // Presence defaults
+            root.node("presence", "flush-interval-millis").set(250);
+
+            // Tab-Vervollständigung
+            root.node("commands", "suggestion-limit").set(50);
+
+            // Messwerte
+            root.node("metrics", "enabled").set(true);
+            root.node("metrics", "export-interval-seconds").set(60);
+
+            // AFK-Nachrichten
+            root.node("afk", "hysteresis-seconds").set(5);
+            root.node("afk", "rate-limit", "per-second").set(20);
+            root.node("afk", "rate-limit", "burst").set(200);
+
+            // Namensauflösung (Name -> UUID)
+            root.node("uuid-lookup", "profile-url").set("https://api.mojang.com/users/profiles/minecraft/");
+            root.node("uuid-lookup", "timeout-millis").set(4000);
+            root.node("uuid-lookup", "cache-ttl-seconds").set(3600);
+            root.node("uuid-lookup", "negative-ttl-seconds").set(60);
 
             // PremiumVanish defaults
             root.node("premiumvanish", "enabled").set(false);
@@ -81,14 +102,30 @@ public class ConfigManager {
             // Punkte & Promotion
             root.node("points", "interval-seconds").set(60);
             root.node("points", "amount").set(1);
+            root.node("points", "shards").set(6);
+            root.node("points", "session-anchored").set(true);
             root.node("points", "promotion-interval-seconds").set(60);
+            root.node("points", "event-driven-promotion").set(true);
+            root.node("points", "promotion-sweep-interval-seconds").set(900);
+            root.node("points", "promotion-max-concurrent").set(8);
+            root.node("points", "promotion-step-timeout-seconds").set(10);
+            root.node("points", "table").set("points");
+            root.node("points", "batch-size").set(500);
+            root.node("points", "write-behind", "enabled").set(false);
+            root.node("points", "write-behind", "flush-interval-seconds").set(5);
+            root.node("points", "cache", "enabled").set(true);
+            root.node("points", "cache", "max-entries").set(10000);
+            root.node("points", "cache", "ttl-seconds").set(300);
 
             // Autosave
             root.node("storage", "autosave-interval-seconds").set(300);
+            root.node("storage", "offline-players-max-entries").set(0);
 
             // Staff
-            root.node("staff", "cache-ttl-seconds").set(60);
             root.node("staff", "sync-interval-seconds").set(15);
+            root.node("staff", "full-resync-interval-seconds").set(600);
+            root.node("staff", "startup-sync", "parallelism").set(8);
+            root.node("staff", "startup-sync", "max-age-hours").set(24);
             root.node("staff", "give-points").set(false);
             root.node("staff", "track").set("staff");
             root.node("staff", "default-group").set("default_staff");
@@ -172,10 +209,114 @@ public class ConfigManager {
                 }
             }
 
+            // MySQL-Pool (auch Limit für den DbExecutor)
+            if (root.node("mysql", "pool-size").virtual()) {
+                root.node("mysql", "pool-size").set(5);
+                changed = true;
+            }
+
+            // Presence defaults
+            if (root.node("presence", "flush-interval-millis").virtual()) {
+                root.node("presence", "flush-interval-millis").set(250);
+                changed = true;
+            }
+
+            // Tab-Vervollständigung
+            if (root.node("commands", "suggestion-limit").virtual()) {
+                root.node("commands", "suggestion-limit").set(50);
+                changed = true;
+            }
+
+            // Messwerte
+            if (root.node("metrics", "enabled").virtual()) {
+                root.node("metrics", "enabled").set(true);
+                changed = true;
+            }
+            if (root.node("metrics", "export-interval-seconds").virtual()) {
+                root.node("metrics", "export-interval-seconds").set(60);
+                changed = true;
+            }
+
+            // AFK-Nachrichten
+            if (root.node("afk", "hysteresis-seconds").virtual()) {
+                root.node("afk", "hysteresis-seconds").set(5);
+                changed = true;
+            }
+            if (root.node("afk", "rate-limit", "per-second").virtual()) {
+                root.node("afk", "rate-limit", "per-second").set(20);
+                changed = true;
+            }
+            if (root.node("afk", "rate-limit", "burst").virtual()) {
+                root.node("afk", "rate-limit", "burst").set(200);
+                changed = true;
+            }
+
+            // Namensauflösung (Name -> UUID)
+            if (root.node("uuid-lookup", "profile-url").virtual()) {
+                root.node("uuid-lookup", "profile-url").set("https://api.mojang.com/users/profiles/minecraft/");
+                changed = true;
+            }
+            if (root.node("uuid-lookup", "timeout-millis").virtual()) {
+                root.node("uuid-lookup", "timeout-millis").set(4000);
+                changed = true;
+            }
+            if (root.node("uuid-lookup", "cache-ttl-seconds").virtual()) {
+                root.node("uuid-lookup", "cache-ttl-seconds").set(3600);
+                changed = true;
+            }
+            if (root.node("uuid-lookup", "negative-ttl-seconds").virtual()) {
+                root.node("uuid-lookup", "negative-ttl-seconds").set(60);
+                changed = true;
+            }
+
+            // Storage defaults
+            if (root.node("storage", "offline-players-max-entries").virtual()) {
+                root.node("storage", "offline-players-max-entries").set(0);
+                changed = true;
+            }
+
+            // Points defaults (Batch-Vergabe)
+            if (root.node("points", "table").virtual()) {
+                root.node("points", "table").set("points");
+                changed = true;
+            }
+            if (root.node("points", "batch-size").virtual()) {
+                root.node("points", "batch-size").set(500);
+                changed = true;
+            }
+            if (root.node("points", "write-behind").virtual()) {
+                root.node("points", "write-behind", "enabled").set(false);
+                root.node("points", "write-behind", "flush-interval-seconds").set(5);
+                changed = true;
+            }
+            if (root.node("points", "event-driven-promotion").virtual()) {
+                root.node("points", "event-driven-promotion").set(true);
+                root.node("points", "promotion-sweep-interval-seconds").set(900);
+                changed = true;
+            }
+            if (root.node("points", "promotion-max-concurrent").virtual()) {
+                root.node("points", "promotion-max-concurrent").set(8);
+                root.node("points", "promotion-step-timeout-seconds").set(10);
+                changed = true;
+            }
+            if (root.node("points", "cache").virtual()) {
+                root.node("points", "cache", "enabled").set(true);
+                root.node("points", "cache", "max-entries").set(10000);
+                root.node("points", "cache", "ttl-seconds").set(300);
+                changed = true;
+            }
+            if (root.node("points", "shards").virtual()) {
+                root.node("points", "shards").set(6);
+                root.node("points", "session-anchored").set(true);
+                changed = true;
+            }
+
             // Staff defaults / Migration
             if (root.node("staff").virtual()) {
-                root.node("staff", "cache-ttl-seconds").set(60);
                 root.node("staff", "sync-interval-seconds").set(15);
+                root.node("staff", "full-resync-interval-seconds").set(600);
+                root.node("staff", "startup-sync", "parallelism").set(8);
+                root.node("staff", "startup-sync", "max-age-hours").set(24);
                 root.node("staff", "give-points").set(false);
                 root.node("staff", "track").set("staff");
                 root.node("staff", "default-group").set("default_staff");
@@ -188,14 +329,19 @@ public class ConfigManager {
                 ));
                 changed = true;
             } else {
-                if (root.node("staff", "cache-ttl-seconds").virtual()) {
-                    root.node("staff", "cache-ttl-seconds").set(60);
-                    changed = true;
-                }
                 if (root.node("staff", "sync-interval-seconds").virtual()) {
                     root.node("staff", "sync-interval-seconds").set(15);
                     changed = true;
                 }
+                if (root.node("staff", "full-resync-interval-seconds").virtual()) {
+                    root.node("staff", "full-resync-interval-seconds").set(600);
+                    changed = true;
+                }
+                if (root.node("staff", "startup-sync").virtual()) {
+                    root.node("staff", "startup-sync", "parallelism").set(8);
+                    root.node("staff", "startup-sync", "max-age-hours").set(24);
+                    changed = true;
+                }
                 if (root.node("staff", "give-points").virtual()) {
                     root.node("staff", "give-points").set(false);
                     changed = true;
@@ -280,40 +426,45 @@ public class ConfigManager {
         log.info("Configuration reloaded from resources.yaml (Log-Level: {})", getConfiguredLogLevel());
     }
 
+    /**
+     * Grösse des gemeinsamen Pools (Stafflist, Presence, Punkte). Der DbExecutor lässt
+     * höchstens so viele DB-Aufgaben gleichzeitig laufen.
+     */
+    public int getMysqlPoolSize() {
+        return Math.max(1, root.node("mysql", "pool-size").getInt(5));
+    }
+
+    /**
+     * Intervall, in dem gesammelte Presence-Änderungen gebündelt geschrieben werden.
+     */
+    public int getPresenceFlushIntervalMillis() {
+        return Math.max(50, root.node("presence", "flush-interval-millis").getInt(250));
+    }
+
     // ---------------------------------------------------------------------
-    // RankPointsAPI
+    // Gemeinsamer Pool (Stafflist, Presence, Punkte)
     // ---------------------------------------------------------------------
-    public PointsAPI loadAPI() {
+    public DataSource createStafflistDataSource() {
         String jdbcUrl = root.node("mysql", "host").getString();
         String user = root.node("mysql", "user").getString();
         String password = root.node("mysql", "password").getString();
-        boolean givePointsToStaff = root.node("staff", "give-points").getBoolean(false);
 
         if (jdbcUrl == null || user == null || password == null) {
             log.warn("MySQL config is incomplete. Please check resources.yaml.");
             throw new IllegalStateException("Missing MySQL config values");
         }
 
-        boolean apiDebug = isDebugLoggingEnabled();
-
-        log.info("Loaded MySQL config: url={}, user={}, staffPoints={}", jdbcUrl, user, givePointsToStaff);
-        log.debug("RankPointsAPI debug mode is {}", apiDebug);
-
-        java.util.logging.Logger javaLogger = java.util.logging.Logger.getLogger("RankPointsAPI");
-
-        return new PointsAPI(jdbcUrl, user, password, javaLogger, apiDebug, !givePointsToStaff);
-    }
+        log.info("Loaded MySQL config: url={}, user={}, staffPoints={}", jdbcUrl, user, isStaffPointsAllowed());
 
-    // ---------------------------------------------------------------------
-    // Stafflist Pool (auch für Presence)
-    // ---------------------------------------------------------------------
-    public DataSource createStafflistDataSource() {
         HikariConfig cfg = new HikariConfig();
-        cfg.setJdbcUrl(getJdbcUrl());
-        cfg.setUsername(getJdbcUser());
-        cfg.setPassword(getJdbcPassword());
+        cfg.setJdbcUrl(jdbcUrl);
+        cfg.setUsername(user);
+        cfg.setPassword(password);
         cfg.setPoolName("RankProxyPlugin-StafflistPool");
-        cfg.setMaximumPoolSize(5);
+        cfg.setMaximumPoolSize(getMysqlPoolSize());
+
+        // JDBC-Batches (Punkte-Task) als mehrzeilige INSERTs senden
+        cfg.addDataSourceProperty("rewriteBatchedStatements", "true");
         cfg.setMinimumIdle(1);
         cfg.setConnectionTimeout(5_000);
         cfg.setValidationTimeout(2_000);
@@ -397,22 +548,204 @@ public class ConfigManager {
         return root.node("points", "amount").getInt(1);
     }
 
+    /**
+     * Anzahl Teil-Ticks pro Intervall für Punkte-Task und Promotion-Durchlauf
+     * (1 = alle Spieler im selben Moment wie früher).
+     */
+    public int getTickShards() {
+        return Math.max(1, Math.min(60, root.node("points", "shards").getInt(6)));
+    }
+
+    /**
+     * Punkte-Intervall ab Sitzungsbeginn zählen statt nach festem Takt.
+     */
+    public boolean isSessionAnchoredPoints() {
+        return root.node("points", "session-anchored").getBoolean(true);
+    }
+
     public int getPromotionIntervalSeconds() {
         return root.node("points", "promotion-interval-seconds").getInt(60);
     }
 
+    /**
+     * Promotion nur prüfen, wenn eine Gutschrift eine Rang-Grenze überschreitet.
+     * Bei false werden wie bisher alle promotion-interval-seconds alle
+     * Online-Spieler geprüft.
+     */
+    public boolean isEventDrivenPromotion() {
+        return root.node("points", "event-driven-promotion").getBoolean(true);
+    }
+
+    /**
+     * Sicherheits-Durchlauf über alle Online-Spieler im ereignisgesteuerten
+     * Modus (fängt Änderungen von aussen ab). 0 = deaktiviert.
+     */
+    public int getPromotionSweepIntervalSeconds() {
+        return root.node("points", "promotion-sweep-interval-seconds").getInt(900);
+    }
+
+    /**
+     * Max. Anzahl gleichzeitig laufender Promotion-Prüfungen (LuckPerms).
+     */
+    public int getPromotionMaxConcurrent() {
+        return root.node("points", "promotion-max-concurrent").getInt(8);
+    }
+
+    /**
+     * Timeout pro LuckPerms-Schritt (loadUser, saveUser) einer Promotion-Prüfung.
+     */
+    public int getPromotionStepTimeoutSeconds() {
+        return root.node("points", "promotion-step-timeout-seconds").getInt(10);
+    }
+
+    /**
+     * Tabelle der RankPointsAPI, in die der Punkte-Task gebündelt schreibt.
+     */
+    public String getPointsTable() {
+        return root.node("points", "table").getString("points");
+    }
+
+    /**
+     * Maximale Anzahl Spieler pro JDBC-Batch im Punkte-Task.
+     */
+    public int getPointsBatchSize() {
+        return root.node("points", "batch-size").getInt(500);
+    }
+
+    /**
+     * Write-Behind: Punkte-Gutschriften zuerst ins lokale Journal,
+     * gebündelt alle flush-interval-seconds nach MySQL.
+     */
+    public boolean isWriteBehindEnabled() {
+        return root.node("points", "write-behind", "enabled").getBoolean(false);
+    }
+
+    public int getWriteBehindFlushIntervalSeconds() {
+        return root.node("points", "write-behind", "flush-interval-seconds").getInt(5);
+    }
+
+    /**
+     * Read-Through-Cache für Punktestände (Commands, PromotionManager).
+     */
+    public boolean isPointsCacheEnabled() {
+        return root.node("points", "cache", "enabled").getBoolean(true);
+    }
+
+    public int getPointsCacheMaxEntries() {
+        return root.node("points", "cache", "max-entries").getInt(10000);
+    }
+
+    /**
+     * Nach dieser Zeit wird ein Punktestand neu aus der DB geladen,
+     * damit Änderungen von aussen sichtbar werden.
+     */
+    public int getPointsCacheTtlSeconds() {
+        return root.node("points", "cache", "ttl-seconds").getInt(300);
+    }
+
     public int getAutosaveIntervalSeconds() {
         return root.node("storage", "autosave-interval-seconds").getInt(300);
     }
 
-    public int getStaffCacheTtlSeconds() {
-        return root.node("staff", "cache-ttl-seconds").getInt(60);
+    /**
+     * Maximale Anzahl Namensvorschläge pro Tab-Vervollständigung.
+     */
+    public int getSuggestionLimit() {
+        return Math.max(1, root.node("commands", "suggestion-limit").getInt(50));
+    }
+
+    /**
+     * Messwerte erfassen (/rankproxystats, Prometheus-Datei).
+     */
+    public boolean isMetricsEnabled() {
+        return root.node("metrics", "enabled").getBoolean(true);
+    }
+
+    /**
+     * Intervall für metrics.prom im Datenordner (0 = kein Export).
+     */
+    public int getMetricsExportIntervalSeconds() {
+        return Math.max(0, root.node("metrics", "export-interval-seconds").getInt(60));
+    }
+
+    /**
+     * So lange muss ein AFK-Wechsel bestehen, bevor er übernommen wird (0 = sofort).
+     */
+    public int getAfkHysteresisSeconds() {
+        return Math.max(0, root.node("afk", "hysteresis-seconds").getInt(5));
+    }
+
+    /**
+     * Erlaubte AFK-Einträge pro Sekunde und Backend-Server (0 = unbegrenzt).
+     */
+    public double getAfkRateLimitPerSecond() {
+        return Math.max(0.0, root.node("afk", "rate-limit", "per-second").getDouble(20.0));
+    }
+
+    public int getAfkRateLimitBurst() {
+        return Math.max(1, root.node("afk", "rate-limit", "burst").getInt(200));
+    }
+
+    /**
+     * Basis-URL des Profil-Endpunkts; der Spielername wird angehängt.
+     * Leer = keine HTTP-Abfrage.
+     */
+    public String getUuidLookupProfileUrl() {
+        return root.node("uuid-lookup", "profile-url").getString("https://api.mojang.com/users/profiles/minecraft/");
+    }
+
+    public int getUuidLookupTimeoutMillis() {
+        return root.node("uuid-lookup", "timeout-millis").getInt(4000);
+    }
+
+    /**
+     * Wie lange eine gefundene UUID gecacht wird.
+     */
+    public int getUuidLookupCacheTtlSeconds() {
+        return root.node("uuid-lookup", "cache-ttl-seconds").getInt(3600);
+    }
+
+    /**
+     * Wie lange "Name existiert nicht" gecacht wird (kurz halten).
+     */
+    public int getUuidLookupNegativeTtlSeconds() {
+        return root.node("uuid-lookup", "negative-ttl-seconds").getInt(60);
+    }
+
+    /**
+     * Maximale Anzahl Spieler im OfflinePlayerStore (0 = unbegrenzt).
+     * Darüber werden die am längsten nicht gesehenen Spieler entfernt.
+     */
+    public int getOfflinePlayersMaxEntries() {
+        return Math.max(0, root.node("storage", "offline-players-max-entries").getInt(0));
     }
 
     public int getStaffSyncIntervalSeconds() {
         return root.node("staff", "sync-interval-seconds").getInt(15);
     }
 
+    /**
+     * Vollabgleich der stafflist-Tabelle (fängt Änderungen ausserhalb des Plugins), 0 = aus.
+     */
+    public int getStaffFullResyncIntervalSeconds() {
+        return root.node("staff", "full-resync-interval-seconds").getInt(600);
+    }
+
+    /**
+     * Gleichzeitige LuckPerms-Abgleiche beim Start-Abgleich der Staff-Laufbahn.
+     */
+    public int getStaffStartupSyncParallelism() {
+        return Math.max(1, root.node("staff", "startup-sync", "parallelism").getInt(8));
+    }
+
+    /**
+     * Unveränderte Staff-Einträge werden beim Start so lange übersprungen,
+     * danach wieder geprüft. 0 = jeden Start alle prüfen.
+     */
+    public int getStaffStartupSyncMaxAgeHours() {
+        return Math.max(0, root.node("staff", "startup-sync", "max-age-hours").getInt(24));
+    }
+
     public String getLogLevel() {
         return root.node("log", "level").getString("INFO");
     }
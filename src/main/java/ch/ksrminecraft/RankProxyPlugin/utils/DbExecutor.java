@@ -0,0 +1,185 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Plugin-eigener Executor für alle JDBC-Zugriffe.
+ *
+ * Jede Aufgabe bekommt einen eigenen virtuellen Thread. Ein Semaphor
+ * begrenzt die gleichzeitig laufenden Aufgaben auf die Grösse des
+ * Hikari-Pools, damit wartende Aufgaben nicht im Pool-Timeout landen.
+ * Wartende virtuelle Threads kosten dabei keinen Plattform-Thread.
+ *
+ * Velocity-Event- und Scheduler-Threads reichen DB-Arbeit nur noch hier ein
+ * und blockieren nicht mehr auf MySQL.
+ *
+ * Folgestufen ohne *Async laufen nach Freigabe des Slots auf demselben
+ * virtuellen Thread weiter und belegen keine Verbindung.
+ *
+ * Messwerte: Warteschlange, aktive Aufgaben, Wartezeit bis Slot frei.
+ */
+public class DbExecutor {
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final LogHelper log;
+
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    private volatile MetricsRegistry metrics = MetricsRegistry.NOOP;
+
+    public DbExecutor(int maxConcurrent, LogHelper log) {
+        this.maxConcurrent = Math.max(1, maxConcurrent);
+        this.permits = new Semaphore(this.maxConcurrent, true);
+        this.log = log;
+        this.executor = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("RankProxy-DB-", 0).factory()
+        );
+    }
+
+    /**
+     * Laufzeit (db_task_seconds je Aufgabenname) und Wartezeit auf einen Slot
+     * (db_task_wait_seconds) werden ab jetzt hier erfasst.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = (metrics == null) ? MetricsRegistry.NOOP : metrics;
+    }
+
+    /**
+     * Führt eine DB-Aufgabe mit Ergebnis aus.
+     *
+     * @param taskName Name für Logs
+     */
+    public <T> CompletableFuture<T> supply(String taskName, Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long submittedAt = System.nanoTime();
+        queued.incrementAndGet();
+
+        try {
+            executor.execute(() -> runTask(taskName, task, future, submittedAt));
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            failed.increment();
+            log.warn("DbExecutor: Aufgabe '{}' abgelehnt (Executor beendet)", taskName);
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    /**
+     * Führt eine DB-Aufgabe ohne Ergebnis aus.
+     */
+    public CompletableFuture<Void> run(String taskName, Runnable task) {
+        return supply(taskName, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private <T> void runTask(String taskName, Callable<T> task, CompletableFuture<T> future, long submittedAt) {
+        T result;
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            queued.decrementAndGet();
+            failed.increment();
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return;
+        }
+
+        long waited = System.nanoTime() - submittedAt;
+        queued.decrementAndGet();
+        active.incrementAndGet();
+        started.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        MetricsRegistry m = metrics;
+        m.recordNanos("db_task_wait_seconds", waited);
+        long start = System.nanoTime();
+
+        try {
+            result = task.call();
+        } catch (Throwable t) {
+            failed.increment();
+            m.increment("db_task_errors_total", "task", taskName);
+            log.debug("DbExecutor Exception in Aufgabe '{}'", taskName, t);
+            future.completeExceptionally(t);
+            return;
+        } finally {
+            m.recordNanos("db_task_seconds", "task", taskName, System.nanoTime() - start);
+            active.decrementAndGet();
+            permits.release();
+        }
+
+        completed.increment();
+        future.complete(result);
+    }
+
+    /**
+     * Wartet beim Shutdown kurz auf laufende Aufgaben (z. B. markOffline).
+     */
+    public void shutdown(long timeoutSeconds) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+                log.warn("DbExecutor: {} DB-Aufgabe(n) beim Shutdown nicht abgeschlossen", queued.get() + active.get());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Aufgaben, die auf einen freien Slot warten.
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public int getActiveCount() {
+        return active.get();
+    }
+
+    public long getCompletedCount() {
+        return completed.sum();
+    }
+
+    public long getFailedCount() {
+        return failed.sum();
+    }
+
+    public double getAverageWaitMillis() {
+        long count = started.sum();
+        return count == 0 ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / count;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+}
@@ -0,0 +1,53 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Punktestände nur im Speicher – für Lasttest und Benchmarks,
+ * wenn die Datenbank nicht Teil der Messung sein soll.
+ */
+public class InMemoryPointsRepository implements PointsRepository {
+
+    private final Map<UUID, Integer> points = new ConcurrentHashMap<>();
+
+    @Override
+    public int getPoints(UUID uuid) {
+        return points.getOrDefault(uuid, 0);
+    }
+
+    @Override
+    public Map<UUID, Integer> getPoints(Collection<UUID> uuids) {
+        Map<UUID, Integer> result = new LinkedHashMap<>();
+        for (UUID uuid : uuids) {
+            result.put(uuid, getPoints(uuid));
+        }
+        return result;
+    }
+
+    @Override
+    public void addPoints(UUID uuid, int amount) {
+        points.merge(uuid, amount, Integer::sum);
+    }
+
+    @Override
+    public void setPoints(UUID uuid, int amount) {
+        points.put(uuid, amount);
+    }
+
+    @Override
+    public PointsBatchWriter.BatchResult addPoints(Map<UUID, Integer> deltas) {
+        for (Map.Entry<UUID, Integer> entry : deltas.entrySet()) {
+            addPoints(entry.getKey(), entry.getValue());
+        }
+        return new PointsBatchWriter.BatchResult(deltas.size(), deltas.isEmpty() ? 0 : 1, List.of());
+    }
+
+    public int size() {
+        return points.size();
+    }
+}
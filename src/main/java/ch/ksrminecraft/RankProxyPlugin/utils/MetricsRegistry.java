@@ -0,0 +1,371 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+
+/**
+ * Leichtgewichtige Messwerte für das ganze Plugin:
+ * - Zähler (LongAdder)
+ * - Gauges (Supplier, erst beim Auslesen ausgewertet)
+ * - Latenz-Histogramme (LatencyHistogram)
+ *
+ * Ein Messwert hat einen Namen und optional genau ein Label
+ * (z. B. db_task_seconds{task="stafflist-poll"}). Ausgabe als Textzeilen
+ * für /rankproxystats oder im Prometheus-Textformat.
+ *
+ * NOOP zeichnet nichts auf; Komponenten ohne gesetzte Registry nutzen es.
+ */
+public class MetricsRegistry {
+
+    public static final MetricsRegistry NOOP = new MetricsRegistry(false);
+
+    private static final String PREFIX = "rankproxy_";
+
+    private final boolean enabled;
+
+    // sortiert, damit Ausgabe und Export stabil gruppiert sind
+    private final Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Supplier<? extends Number>> gauges = new ConcurrentSkipListMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentSkipListMap<>();
+
+    // schneller Lookup ohne Skip-List-Suche im Hot-Path
+    private final Map<String, LongAdder> counterCache = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histogramCache = new ConcurrentHashMap<>();
+
+    public MetricsRegistry() {
+        this(true);
+    }
+
+    private MetricsRegistry(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ---------------------------------------------------------------------
+    // Aufzeichnen
+    // ---------------------------------------------------------------------
+
+    public void increment(String name) {
+        add(name, null, null, 1);
+    }
+
+    public void increment(String name, String label, String value) {
+        add(name, label, value, 1);
+    }
+
+    public void add(String name, String label, String value, long delta) {
+        if (!enabled) {
+            return;
+        }
+        String key = key(name, label, value);
+        counterCache.computeIfAbsent(key, k -> counters.computeIfAbsent(k, x -> new LongAdder())).add(delta);
+    }
+
+    public void recordNanos(String name, long nanos) {
+        recordNanos(name, null, null, nanos);
+    }
+
+    public void recordNanos(String name, String label, String value, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        String key = key(name, label, value);
+        histogramCache.computeIfAbsent(key, k -> histograms.computeIfAbsent(k, x -> new LatencyHistogram()))
+                .recordNanos(nanos);
+    }
+
+    /**
+     * Gauge, der erst beim Auslesen abgefragt wird.
+     */
+    public void gauge(String name, Supplier<? extends Number> supplier) {
+        gauge(name, null, null, supplier);
+    }
+
+    public void gauge(String name, String label, String value, Supplier<? extends Number> supplier) {
+        if (!enabled) {
+            return;
+        }
+        gauges.put(key(name, label, value), supplier);
+    }
+
+    /**
+     * Misst die Laufzeit eines (Scheduler-)Tasks.
+     */
+    public Runnable timed(String name, String label, String value, Runnable task) {
+        if (!enabled) {
+            return task;
+        }
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                recordNanos(name, label, value, System.nanoTime() - start);
+            }
+        };
+    }
+
+    /**
+     * Misst die Zeit bis zum Abschluss eines Futures (auch bei Fehlern)
+     * und zählt Fehler als name_errors_total.
+     */
+    public <T> CompletableFuture<T> timeFuture(String name, String label, String value, CompletableFuture<T> future) {
+        if (!enabled) {
+            return future;
+        }
+        long start = System.nanoTime();
+        return future.whenComplete((result, error) -> {
+            recordNanos(name, label, value, System.nanoTime() - start);
+            if (error != null) {
+                increment(errorName(name), label, value);
+            }
+        });
+    }
+
+    // ---------------------------------------------------------------------
+    // JDBC-Instrumentierung
+    // ---------------------------------------------------------------------
+
+    /**
+     * Hüllt eine DataSource ein: Wartezeit auf eine Verbindung
+     * (db_connection_wait_seconds) und Dauer jedes execute*-Aufrufs
+     * (db_statement_seconds) werden unter dem Label component gemessen.
+     */
+    public DataSource instrument(DataSource dataSource, String component) {
+        if (!enabled || dataSource == null) {
+            return dataSource;
+        }
+        return wrap(DataSource.class, dataSource, (target, method, args) -> {
+            if (!method.getName().equals("getConnection")) {
+                return invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            Connection connection = (Connection) invoke(target, method, args);
+            recordNanos("db_connection_wait_seconds", "component", component, System.nanoTime() - start);
+            return wrapConnection(connection, component);
+        });
+    }
+
+    private Connection wrapConnection(Connection connection, String component) {
+        return wrap(Connection.class, connection, (target, method, args) -> {
+            Object result = invoke(target, method, args);
+            if (result instanceof Statement statement
+                    && (method.getName().startsWith("prepare") || method.getName().equals("createStatement"))) {
+                return wrapStatement(statement, method.getReturnType(), component);
+            }
+            return result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object wrapStatement(Statement statement, Class<?> type, String component) {
+        return wrap((Class<Object>) type, statement, (target, method, args) -> {
+            if (!method.getName().startsWith("execute")) {
+                return invoke(target, method, args);
+            }
+            long start = System.nanoTime();
+            try {
+                return invoke(target, method, args);
+            } catch (Throwable t) {
+                increment("db_statement_errors_total", "component", component);
+                throw t;
+            } finally {
+                recordNanos("db_statement_seconds", "component", component, System.nanoTime() - start);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler<T> {
+        Object handle(T target, Method method, Object[] args) throws Throwable;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(Class<T> type, T target, Handler<T> handler) {
+        InvocationHandler invocationHandler = (proxy, method, args) -> handler.handle(target, method, args);
+        return (T) Proxy.newProxyInstance(MetricsRegistry.class.getClassLoader(), new Class<?>[]{type}, invocationHandler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Ausgabe
+    // ---------------------------------------------------------------------
+
+    /**
+     * Aktueller Zählerstand (0, wenn noch nie erhöht).
+     */
+    public long getCount(String name, String label, String value) {
+        LongAdder adder = counters.get(key(name, label, value));
+        return adder == null ? 0 : adder.sum();
+    }
+
+    /**
+     * Momentaufnahme eines Histogramms, null solange nichts gemessen wurde.
+     */
+    public LatencyHistogram.Snapshot getSnapshot(String name, String label, String value) {
+        LatencyHistogram histogram = histograms.get(key(name, label, value));
+        return histogram == null ? null : histogram.snapshot();
+    }
+
+    /**
+     * Lesbare Zeilen für /rankproxystats, optional nach Namens-Präfix gefiltert.
+     */
+    public List<String> describe(String filter) {
+        List<String> lines = new ArrayList<>();
+        String f = (filter == null) ? "" : filter.toLowerCase(Locale.ROOT);
+
+        counters.forEach((key, adder) -> {
+            if (key.startsWith(f)) {
+                lines.add(key + " = " + adder.sum());
+            }
+        });
+        gauges.forEach((key, supplier) -> {
+            if (key.startsWith(f)) {
+                lines.add(key + " = " + format(readGauge(supplier)));
+            }
+        });
+        histograms.forEach((key, histogram) -> {
+            if (key.startsWith(f)) {
+                LatencyHistogram.Snapshot s = histogram.snapshot();
+                lines.add(String.format(Locale.ROOT, "%s n=%d p50=%.2fms p95=%.2fms p99=%.2fms max=%.2fms",
+                        key, s.count(), s.p50() / 1000.0, s.p95() / 1000.0, s.p99() / 1000.0, s.max() / 1000.0));
+            }
+        });
+        return lines;
+    }
+
+    /**
+     * Prometheus-Textformat (Histogramme als summary in Sekunden).
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(4096);
+        String[] lastType = {null};
+
+        counters.forEach((key, adder) -> {
+            typeLine(out, lastType, key, "counter");
+            out.append(PREFIX).append(key).append(' ').append(adder.sum()).append('\n');
+        });
+        gauges.forEach((key, supplier) -> {
+            typeLine(out, lastType, key, "gauge");
+            out.append(PREFIX).append(key).append(' ').append(format(readGauge(supplier))).append('\n');
+        });
+        histograms.forEach((key, histogram) -> {
+            typeLine(out, lastType, key, "summary");
+            LatencyHistogram.Snapshot s = histogram.snapshot();
+            String name = baseName(key);
+            String labels = labels(key);
+
+            appendQuantile(out, name, labels, "0.5", s.p50());
+            appendQuantile(out, name, labels, "0.95", s.p95());
+            appendQuantile(out, name, labels, "0.99", s.p99());
+            out.append(PREFIX).append(name).append("_sum").append(labels.isEmpty() ? "" : "{" + labels + "}")
+                    .append(' ').append(format(s.sumMicros() / 1_000_000.0)).append('\n');
+            out.append(PREFIX).append(name).append("_count").append(labels.isEmpty() ? "" : "{" + labels + "}")
+                    .append(' ').append(s.count()).append('\n');
+        });
+        return out.toString();
+    }
+
+    /**
+     * Schreibt toPrometheus() atomar (tmp + move), damit ein Scraper
+     * nie eine halbe Datei liest.
+     */
+    public void writePrometheus(Path file) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tmp, toPrometheus(), StandardCharsets.UTF_8);
+        try {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void appendQuantile(StringBuilder out, String name, String labels, String quantile, long micros) {
+        out.append(PREFIX).append(name).append('{');
+        if (!labels.isEmpty()) {
+            out.append(labels).append(',');
+        }
+        out.append("quantile=\"").append(quantile).append("\"} ")
+                .append(format(micros / 1_000_000.0)).append('\n');
+    }
+
+    private static void typeLine(StringBuilder out, String[] lastType, String key, String type) {
+        String name = baseName(key);
+        if (!name.equals(lastType[0])) {
+            out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+            lastType[0] = name;
+        }
+    }
+
+    private static Number readGauge(Supplier<? extends Number> supplier) {
+        try {
+            Number value = supplier.get();
+            return value == null ? 0 : value;
+        } catch (RuntimeException e) {
+            return Double.NaN;
+        }
+    }
+
+    private static String format(Number value) {
+        if (value instanceof Double || value instanceof Float) {
+            double d = value.doubleValue();
+            if (Double.isNaN(d)) {
+                return "NaN";
+            }
+            return String.format(Locale.ROOT, "%.6f", d);
+        }
+        return String.valueOf(value.longValue());
+    }
+
+    private static String key(String name, String label, String value) {
+        if (label == null) {
+            return name;
+        }
+        return name + "{" + label + "=\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"}";
+    }
+
+    private static String errorName(String name) {
+        return name.endsWith("_seconds")
+                ? name.substring(0, name.length() - "_seconds".length()) + "_errors_total"
+                : name + "_errors_total";
+    }
+
+    private static String baseName(String key) {
+        int brace = key.indexOf('{');
+        return brace < 0 ? key : key.substring(0, brace);
+    }
+
+    private static String labels(String key) {
+        int brace = key.indexOf('{');
+        return brace < 0 ? "" : key.substring(brace + 1, key.length() - 1);
+    }
+}
@@ -0,0 +1,139 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Punkte-Tabelle (UUID, points) über den gemeinsamen Hikari-Pool.
+ *
+ * Einzelzugriffe sind je ein Statement (Upsert bzw. SELECT), Mehrfach-Lesen
+ * läuft blockweise über WHERE UUID IN (...), gebündelte Gutschriften gehen
+ * an den PointsBatchWriter. Damit laufen alle Punkte-Statements über die
+ * instrumentierte DataSource und erscheinen in den Metriken.
+ */
+public class MySqlPointsRepository implements PointsRepository {
+
+    private final DataSource dataSource;
+    private final LogHelper log;
+    private final PointsBatchWriter batchWriter;
+    private final String tableName;
+    private final int batchSize;
+
+    public MySqlPointsRepository(DataSource dataSource, LogHelper log, PointsBatchWriter batchWriter, int batchSize) {
+        this.dataSource = dataSource;
+        this.log = log;
+        this.batchWriter = batchWriter;
+        this.tableName = batchWriter.getTableName();
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Stellt die Punkte-Tabelle sicher (früher Aufgabe der RankPointsAPI).
+     */
+    public void ensureTable() throws SQLException {
+        final String sql =
+                "CREATE TABLE IF NOT EXISTS " + tableName + " (" +
+                        "  UUID   VARCHAR(36) NOT NULL PRIMARY KEY," +
+                        "  points INT         NOT NULL DEFAULT 0" +
+                        ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.executeUpdate();
+            log.info("MySqlPointsRepository: Tabelle '{}' geprüft/erstellt", tableName);
+        }
+    }
+
+    @Override
+    public int getPoints(UUID uuid) {
+        final String sql = "SELECT points FROM " + tableName + " WHERE UUID = ?";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, uuid.toString());
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Punkte für " + uuid + " konnten nicht gelesen werden: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<UUID, Integer> getPoints(Collection<UUID> uuids) {
+        Map<UUID, Integer> result = new LinkedHashMap<>();
+        for (UUID uuid : uuids) {
+            result.put(uuid, 0);
+        }
+        if (result.isEmpty()) {
+            return result;
+        }
+
+        List<UUID> all = new ArrayList<>(result.keySet());
+
+        try (Connection c = dataSource.getConnection()) {
+            for (int next = 0; next < all.size(); next += batchSize) {
+                List<UUID> chunk = all.subList(next, Math.min(next + batchSize, all.size()));
+                String sql = "SELECT UUID, points FROM " + tableName + " WHERE UUID IN ("
+                        + "?,".repeat(chunk.size() - 1) + "?)";
+
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setString(i + 1, chunk.get(i).toString());
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            result.put(UUID.fromString(rs.getString(1)), rs.getInt(2));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException | IllegalArgumentException e) {
+            throw new IllegalStateException("Punkte für " + all.size() + " Spieler konnten nicht gelesen werden: " + e.getMessage(), e);
+        }
+
+        log.trace("MySqlPointsRepository: {} Punktestände gelesen", result.size());
+        return result;
+    }
+
+    @Override
+    public void addPoints(UUID uuid, int amount) {
+        final String sql =
+                "INSERT INTO " + tableName + " (UUID, points) VALUES (?, ?) " +
+                        "ON DUPLICATE KEY UPDATE points = points + VALUES(points)";
+        upsert(sql, uuid, amount, "addPoints");
+    }
+
+    @Override
+    public void setPoints(UUID uuid, int amount) {
+        final String sql =
+                "INSERT INTO " + tableName + " (UUID, points) VALUES (?, ?) " +
+                        "ON DUPLICATE KEY UPDATE points = VALUES(points)";
+        upsert(sql, uuid, amount, "setPoints");
+    }
+
+    @Override
+    public PointsBatchWriter.BatchResult addPoints(Map<UUID, Integer> deltas) {
+        return batchWriter.addPoints(deltas);
+    }
+
+    private void upsert(String sql, UUID uuid, int amount, String operation) {
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setString(1, uuid.toString());
+            ps.setInt(2, amount);
+            ps.executeUpdate();
+        } catch (SQLException e) {
+            throw new IllegalStateException(operation + " für " + uuid + " fehlgeschlagen: " + e.getMessage(), e);
+        }
+    }
+}
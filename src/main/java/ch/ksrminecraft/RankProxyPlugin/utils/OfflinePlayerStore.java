@@ -3,123 +3,530 @@ package ch.ksrminecraft.RankProxyPlugin.utils;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
-import java.util.HashMap;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.BiConsumer;
 
 /**
- * Hält eine lokale JSON-Datei mit Spielernamen und UUIDs für Offline-Lookups.
- * - atomare Writes gegen Datenkorruption
+ * Hält lokal Spielernamen und UUIDs für Offline-Lookups.
  * - bidirektionale Maps (name -> uuid, uuid -> name)
  * - konsistentes Logging über LogHelper
+ *
+ * Thread-sicher: Lesen ohne Lock (Login-, Command- und Scheduler-Threads),
+ * Schreiben über einen gemeinsamen Lock. Der Namensindex ist sortiert
+ * (ConcurrentSkipListMap), Präfix-Suchen laufen in O(log n + k).
+ *
+ * Optional begrenzt (maxEntries > 0): dann werden die am längsten nicht
+ * gesehenen Spieler entfernt.
+ *
+ * Dateiformat (binär):
+ * - offline_players.bin: kompakter Snapshot, nach Namen sortiert, wird per
+ *   Memory-Mapping geladen und atomar ersetzt
+ * - offline_players.journal: record() hängt jeden neuen/geänderten Eintrag an
+ * Eintrag: UUID (2 x long), lastSeen (long), Namenslänge (short), Name (UTF-8).
+ *
+ * save() schreibt nichts, wenn seit dem letzten Speichern nichts passiert ist,
+ * und sonst nur das Journal auf die Platte. Erst wenn das Journal im
+ * Verhältnis zum Store gross wird, wird ein neuer Snapshot geschrieben.
+ * Eine alte offline_players.json wird beim ersten Start übernommen.
  */
 public class OfflinePlayerStore {
 
     private static final Gson GSON = new Gson();
 
-    private final Path filePath;
-    private final Map<String, UUID> nameToUuid = new HashMap<>();
-    private final Map<UUID, String> uuidToName = new HashMap<>();
+    private static final int MAGIC = 0x52504F53; // "RPOS"
+    private static final int VERSION = 1;
+    private static final int ENTRY_FIXED_BYTES = 8 + 8 + 8 + 2;
+
+    // gleicher Name innerhalb dieser Zeit -> lastSeen nicht erneut ins Journal
+    private static final long LAST_SEEN_GRANULARITY_MILLIS = 60L * 60L * 1000L;
+
+    /**
+     * Bekannter Spieler mit Originalschreibweise und letztem Login.
+     */
+    private record Entry(UUID uuid, String name, long lastSeen) {
+    }
+
+    private static final Comparator<Entry> BY_LAST_SEEN =
+            Comparator.comparingLong(Entry::lastSeen).thenComparing(Entry::uuid);
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Path legacyJsonFile;
+    private final NavigableMap<String, UUID> nameToUuid = new ConcurrentSkipListMap<>();
+    private final Map<UUID, Entry> uuidToEntry = new ConcurrentHashMap<>();
     private final LogHelper log;
+    private final int maxEntries;
+
+    // nur unter writeLock; nur bei maxEntries > 0 gepflegt
+    private final TreeSet<Entry> byLastSeen = new TreeSet<>(BY_LAST_SEEN);
+    private FileChannel journal;
+    private int journalEntries = 0;
+    private boolean journalDirty = false;
+
+    private final Object writeLock = new Object();
+    private final Object saveLock = new Object();
 
     public OfflinePlayerStore(Path dataFolder, LogHelper log) {
-        this.filePath = dataFolder.resolve("offline_players.json");
+        this(dataFolder, log, 0);
+    }
+
+    /**
+     * @param maxEntries maximale Anzahl Spieler, 0 = unbegrenzt
+     */
+    public OfflinePlayerStore(Path dataFolder, LogHelper log, int maxEntries) {
+        this.snapshotFile = dataFolder.resolve("offline_players.bin");
+        this.journalFile = dataFolder.resolve("offline_players.journal");
+        this.legacyJsonFile = dataFolder.resolve("offline_players.json");
         this.log = log;
+        this.maxEntries = Math.max(0, maxEntries);
         load();
     }
 
-    private void ensureParent() throws Exception {
-        Path parent = filePath.getParent();
-        if (parent != null && !Files.exists(parent)) {
-            Files.createDirectories(parent);
-        }
-    }
+    // ---------------------------------------------------------------------
+    // Laden
+    // ---------------------------------------------------------------------
 
     private void load() {
-        try {
-            ensureParent();
+        long start = System.nanoTime();
 
-            if (!Files.exists(filePath)) {
-                log.debug("OfflinePlayerStore: Keine bestehende Datei gefunden – neuer Store wird angelegt");
+        synchronized (writeLock) {
+            try {
+                Files.createDirectories(snapshotFile.getParent());
+            } catch (IOException e) {
+                log.error("OfflinePlayerStore: Datenverzeichnis konnte nicht angelegt werden: {}", e.getMessage());
+                log.debug("OfflinePlayerStore Exception beim Anlegen des Datenverzeichnisses", e);
                 return;
             }
 
-            Type type = new TypeToken<Map<String, String>>() {}.getType();
+            int fromSnapshot = 0;
+            try {
+                if (Files.exists(snapshotFile)) {
+                    fromSnapshot = readSnapshot();
+                } else if (Files.exists(legacyJsonFile)) {
+                    fromSnapshot = migrateLegacyJson();
+                } else {
+                    log.debug("OfflinePlayerStore: Keine bestehende Datei gefunden – neuer Store wird angelegt");
+                }
+            } catch (Exception e) {
+                log.error("OfflinePlayerStore: Snapshot konnte nicht geladen werden: {}", e.getMessage());
+                log.debug("OfflinePlayerStore Exception beim Laden des Snapshots", e);
+                fromSnapshot = uuidToEntry.size();
+                moveCorruptSnapshotAside();
+            }
 
-            try (FileReader reader = new FileReader(filePath.toFile())) {
-                Map<String, String> raw = GSON.fromJson(reader, type);
+            // Journal und Schreibkanal auch ohne Snapshot, sonst gehen alle weiteren Einträge verloren
+            try {
+                journalEntries = replayJournal();
+            } catch (Exception e) {
+                log.error("OfflinePlayerStore: Journal konnte nicht abgespielt werden: {}", e.getMessage());
+                log.debug("OfflinePlayerStore Exception beim Abspielen des Journals", e);
+            }
+            evictOverflow();
 
-                if (raw == null) {
-                    log.debug("OfflinePlayerStore: Datei war leer – keine Spieler geladen");
-                    return;
+            try {
+                journal = FileChannel.open(journalFile,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                log.error("OfflinePlayerStore: Journal konnte nicht geöffnet werden – neue Spieler werden nicht gespeichert: {}",
+                        e.getMessage());
+                log.debug("OfflinePlayerStore Exception beim Öffnen des Journals", e);
+                return;
+            }
+
+            log.info("OfflinePlayerStore: {} Spieler erfolgreich geladen ({} aus Snapshot, {} aus Journal, {} ms)",
+                    uuidToEntry.size(), fromSnapshot, journalEntries, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Schiebt einen unlesbaren Snapshot nach offline_players.bin.corrupt:
+     * die nächste Kompaktierung schreibt einen neuen, die alte Datei bleibt
+     * für eine Analyse erhalten.
+     */
+    private void moveCorruptSnapshotAside() {
+        if (!Files.exists(snapshotFile)) {
+            return;
+        }
+        Path corrupt = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".corrupt");
+        try {
+            Files.move(snapshotFile, corrupt, StandardCopyOption.REPLACE_EXISTING);
+            log.error("OfflinePlayerStore: Unlesbarer Snapshot nach {} verschoben", corrupt.getFileName());
+        } catch (IOException e) {
+            log.error("OfflinePlayerStore: Unlesbarer Snapshot konnte nicht verschoben werden: {}", e.getMessage());
+            log.debug("OfflinePlayerStore Exception beim Verschieben des Snapshots", e);
+        }
+    }
+
+    private int readSnapshot() throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotFile, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC) {
+                throw new IOException("Ungültiger Snapshot " + snapshotFile.getFileName());
+            }
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unbekannte Snapshot-Version " + version);
+            }
+
+            int count = buffer.getInt();
+            for (int i = 0; i < count; i++) {
+                Entry entry = readEntry(buffer);
+                if (entry == null) {
+                    log.warn("OfflinePlayerStore: Snapshot nach {} von {} Einträgen abgeschnitten", i, count);
+                    break;
                 }
+                put(entry.name(), entry.uuid(), entry.lastSeen());
+            }
+            return uuidToEntry.size();
+        }
+    }
 
-                nameToUuid.clear();
-                uuidToName.clear();
+    /**
+     * Spielt das Journal ab. Ein nach einem Absturz abgeschnittener letzter
+     * Eintrag wird verworfen und das Journal auf den letzten gültigen Stand gekürzt.
+     */
+    private int replayJournal() throws IOException {
+        if (!Files.exists(journalFile)) {
+            return 0;
+        }
 
-                for (Map.Entry<String, String> entry : raw.entrySet()) {
-                    try {
-                        UUID uuid = UUID.fromString(entry.getValue());
-                        String nameLower = entry.getKey().toLowerCase(Locale.ROOT);
+        int count = 0;
+        try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            if (size == 0) {
+                return 0;
+            }
 
-                        nameToUuid.put(nameLower, uuid);
-                        uuidToName.put(uuid, entry.getKey());
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int valid = 0;
 
-                    } catch (IllegalArgumentException ignored) {
-                        log.warn("OfflinePlayerStore: Fehlerhafte UUID übersprungen: {}", entry.getValue());
-                    }
+            while (buffer.hasRemaining()) {
+                Entry entry = readEntry(buffer);
+                if (entry == null) {
+                    break;
                 }
+                put(entry.name(), entry.uuid(), entry.lastSeen());
+                valid = buffer.position();
+                count++;
+            }
 
-                log.info("OfflinePlayerStore: {} Spieler erfolgreich geladen", nameToUuid.size());
+            if (valid < size) {
+                log.warn("OfflinePlayerStore: Abgeschnittenen Journal-Eintrag verworfen ({} Bytes)", size - valid);
+                channel.truncate(valid);
             }
+        }
 
-        } catch (Exception e) {
-            log.error("OfflinePlayerStore: Fehler beim Laden: {}", e.getMessage());
-            log.debug("OfflinePlayerStore Exception beim Laden", e);
+        if (count > 0) {
+            journalDirty = true;
         }
+        return count;
     }
 
+    /**
+     * Übernimmt eine alte offline_players.json einmalig ins Binärformat.
+     */
+    private int migrateLegacyJson() throws IOException {
+        Type type = new TypeToken<Map<String, String>>() {}.getType();
+
+        Map<String, String> raw;
+        try (Reader reader = Files.newBufferedReader(legacyJsonFile, StandardCharsets.UTF_8)) {
+            raw = GSON.fromJson(reader, type);
+        }
+
+        if (raw != null) {
+            for (Map.Entry<String, String> entry : raw.entrySet()) {
+                try {
+                    // JSON kennt keinen Login-Zeitpunkt -> gelten als am längsten nicht gesehen
+                    put(entry.getKey(), UUID.fromString(entry.getValue()), 0L);
+                } catch (IllegalArgumentException ignored) {
+                    log.warn("OfflinePlayerStore: Fehlerhafte UUID übersprungen: {}", entry.getValue());
+                }
+            }
+        }
+
+        writeSnapshot(new ArrayList<>(uuidToEntry.values()));
+        Files.move(legacyJsonFile, legacyJsonFile.resolveSibling("offline_players.json.migrated"),
+                StandardCopyOption.REPLACE_EXISTING);
+
+        log.info("OfflinePlayerStore: {} Spieler aus offline_players.json ins Binärformat übernommen", uuidToEntry.size());
+        return uuidToEntry.size();
+    }
+
+    // ---------------------------------------------------------------------
+    // Speichern
+    // ---------------------------------------------------------------------
+
+    /**
+     * Unverändert -> kein Schreibzugriff. Sonst Journal auf die Platte bringen
+     * und bei grossem Journal einen neuen Snapshot schreiben.
+     */
     public void save() {
-        try {
-            ensureParent();
+        synchronized (saveLock) {
+            List<Entry> entries;
 
-            Path tmp = filePath.resolveSibling(filePath.getFileName() + ".tmp");
+            synchronized (writeLock) {
+                if (!journalDirty || journal == null) {
+                    log.trace("OfflinePlayerStore: Keine Änderungen – nichts zu speichern");
+                    return;
+                }
+
+                try {
+                    journal.force(false);
+                    journalDirty = false;
+                } catch (IOException e) {
+                    log.error("OfflinePlayerStore: Journal konnte nicht gespeichert werden: {}", e.getMessage());
+                    log.debug("OfflinePlayerStore Exception bei journal.force", e);
+                    return;
+                }
 
-            Map<String, String> raw = new HashMap<>();
-            for (Map.Entry<String, UUID> entry : nameToUuid.entrySet()) {
-                raw.put(entry.getKey(), entry.getValue().toString());
+                if (journalEntries < compactionThreshold()) {
+                    log.debug("OfflinePlayerStore: {} Journal-Einträge gespeichert", journalEntries);
+                    return;
+                }
+
+                entries = new ArrayList<>(uuidToEntry.values());
             }
 
-            try (FileWriter writer = new FileWriter(tmp.toFile())) {
-                GSON.toJson(raw, writer);
+            compact(entries);
+        }
+    }
+
+    private int compactionThreshold() {
+        return Math.max(1024, uuidToEntry.size() / 4);
+    }
+
+    /**
+     * Schreibt einen neuen Snapshot und leert danach das Journal.
+     * Während des Schreibens neu hinzugekommene Einträge bleiben im Journal.
+     */
+    private void compact(List<Entry> entries) {
+        try {
+            writeSnapshot(entries);
+
+            synchronized (writeLock) {
+                // alles, was seit dem Kopieren dazukam, erneut ins (leere) Journal
+                Set<Entry> written = new HashSet<>(entries);
+                List<Entry> newer = new ArrayList<>();
+                for (Entry entry : uuidToEntry.values()) {
+                    if (!written.contains(entry)) {
+                        newer.add(entry);
+                    }
+                }
+
+                journal.truncate(0);
+                journalEntries = 0;
+                for (Entry entry : newer) {
+                    appendToJournal(entry);
+                }
+                journal.force(false);
+                journalDirty = false;
             }
 
-            Files.move(tmp, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
-            log.debug("OfflinePlayerStore: {} Spieler in Datei gespeichert", nameToUuid.size());
+            log.debug("OfflinePlayerStore: Snapshot mit {} Spielern geschrieben, Journal geleert", entries.size());
 
-        } catch (Exception e) {
+        } catch (IOException e) {
             log.error("OfflinePlayerStore: Fehler beim Speichern: {}", e.getMessage());
             log.debug("OfflinePlayerStore Exception beim Speichern", e);
         }
     }
 
+    private void writeSnapshot(List<Entry> entries) throws IOException {
+        entries.sort(Comparator.comparing((Entry e) -> e.name().toLowerCase(Locale.ROOT))
+                .thenComparingLong(Entry::lastSeen));
+
+        Path tmp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(entries.size());
+
+            for (Entry entry : entries) {
+                byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+                if (buffer.remaining() < ENTRY_FIXED_BYTES + name.length) {
+                    writeFully(channel, buffer);
+                }
+                putEntry(buffer, entry, name);
+            }
+            writeFully(channel, buffer);
+            channel.force(true);
+        }
+
+        Files.move(tmp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // ---------------------------------------------------------------------
+    // Eintrags-Kodierung
+    // ---------------------------------------------------------------------
+
+    private static void putEntry(ByteBuffer buffer, Entry entry, byte[] name) {
+        buffer.putLong(entry.uuid().getMostSignificantBits());
+        buffer.putLong(entry.uuid().getLeastSignificantBits());
+        buffer.putLong(entry.lastSeen());
+        buffer.putShort((short) name.length);
+        buffer.put(name);
+    }
+
+    /**
+     * @return null, wenn der Puffer keinen vollständigen Eintrag mehr enthält
+     */
+    private static Entry readEntry(ByteBuffer buffer) {
+        if (buffer.remaining() < ENTRY_FIXED_BYTES) {
+            return null;
+        }
+
+        long msb = buffer.getLong();
+        long lsb = buffer.getLong();
+        long lastSeen = buffer.getLong();
+        int length = Short.toUnsignedInt(buffer.getShort());
+
+        if (length == 0 || buffer.remaining() < length) {
+            return null;
+        }
+
+        byte[] name = new byte[length];
+        buffer.get(name);
+        return new Entry(new UUID(msb, lsb), new String(name, StandardCharsets.UTF_8), lastSeen);
+    }
+
+    /**
+     * Nur unter writeLock.
+     */
+    private void appendToJournal(Entry entry) throws IOException {
+        byte[] name = entry.name().getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_FIXED_BYTES + name.length);
+        putEntry(buffer, entry, name);
+        buffer.flip();
+
+        while (buffer.hasRemaining()) {
+            journal.write(buffer);
+        }
+        journalEntries++;
+        journalDirty = true;
+    }
+
+    // ---------------------------------------------------------------------
+    // Einträge
+    // ---------------------------------------------------------------------
+
     public void record(String name, UUID uuid) {
-        String lower = name.toLowerCase(Locale.ROOT);
-        nameToUuid.put(lower, uuid);
-        uuidToName.put(uuid, name);
+        long now = System.currentTimeMillis();
+
+        synchronized (writeLock) {
+            Entry previous = uuidToEntry.get(uuid);
+            boolean unchanged = previous != null
+                    && previous.name().equals(name)
+                    && uuid.equals(nameToUuid.get(name.toLowerCase(Locale.ROOT)))
+                    && (now - previous.lastSeen()) < LAST_SEEN_GRANULARITY_MILLIS;
+
+            if (unchanged) {
+                return;
+            }
+
+            put(name, uuid, now);
+            evictOverflow();
+
+            Entry current = uuidToEntry.get(uuid);
+            if (journal != null && current != null) {
+                try {
+                    appendToJournal(current);
+                } catch (IOException e) {
+                    log.warn("OfflinePlayerStore: Journal-Eintrag für '{}' fehlgeschlagen: {}", name, e.getMessage());
+                    log.debug("OfflinePlayerStore Exception bei appendToJournal", e);
+                }
+            }
+        }
 
         log.trace("OfflinePlayerStore: Spieler '{}' mit UUID {} eingetragen", name, uuid);
     }
 
+    /**
+     * Trägt einen Spieler ein oder aktualisiert ihn (Namenswechsel). Nur unter writeLock.
+     */
+    private void put(String name, UUID uuid, long lastSeen) {
+        Entry previous = uuidToEntry.get(uuid);
+        if (previous != null) {
+            if (maxEntries > 0) {
+                byLastSeen.remove(previous);
+            }
+
+            String previousLower = previous.name().toLowerCase(Locale.ROOT);
+            if (!previousLower.equals(name.toLowerCase(Locale.ROOT))) {
+                nameToUuid.remove(previousLower, uuid);
+            }
+        }
+
+        Entry entry = new Entry(uuid, name, lastSeen);
+        uuidToEntry.put(uuid, entry);
+        if (maxEntries > 0) {
+            byLastSeen.add(entry);
+        }
+
+        // Name war evtl. einem anderen Account zugeordnet -> neuer Besitzer gewinnt
+        nameToUuid.put(name.toLowerCase(Locale.ROOT), uuid);
+    }
+
+    /**
+     * Entfernt die am längsten nicht gesehenen Spieler über maxEntries hinaus. Nur unter writeLock.
+     */
+    private void evictOverflow() {
+        if (maxEntries <= 0) {
+            return;
+        }
+
+        int evicted = 0;
+        while (uuidToEntry.size() > maxEntries) {
+            Entry oldest = byLastSeen.pollFirst();
+            if (oldest == null) {
+                break;
+            }
+            uuidToEntry.remove(oldest.uuid());
+            nameToUuid.remove(oldest.name().toLowerCase(Locale.ROOT), oldest.uuid());
+            evicted++;
+        }
+
+        if (evicted > 0) {
+            log.debug("OfflinePlayerStore: {} Spieler entfernt (Limit {})", evicted, maxEntries);
+        }
+    }
+
     public Optional<UUID> getUUID(String name) {
         if (name == null) {
             return Optional.empty();
@@ -131,15 +538,51 @@ public class OfflinePlayerStore {
         if (uuid == null) {
             return Optional.empty();
         }
-        return Optional.ofNullable(uuidToName.get(uuid));
+        Entry entry = uuidToEntry.get(uuid);
+        return Optional.ofNullable(entry == null ? null : entry.name());
+    }
+
+    public int size() {
+        return uuidToEntry.size();
+    }
+
+    /**
+     * Ruft action für jeden Spieler auf, dem sein Name aktuell gehört.
+     */
+    public void forEachPlayer(BiConsumer<UUID, String> action) {
+        for (Map.Entry<String, UUID> indexed : nameToUuid.entrySet()) {
+            Entry entry = uuidToEntry.get(indexed.getValue());
+            if (entry != null) {
+                action.accept(entry.uuid(), entry.name());
+            }
+        }
     }
 
+    /**
+     * Alle bekannten Namen (kleingeschrieben, sortiert) mit diesem Präfix.
+     */
     public List<String> getAllNamesStartingWith(String prefix) {
+        return getNamesStartingWith(prefix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Höchstens limit Namen (kleingeschrieben, sortiert) mit diesem Präfix.
+     * Liest nur den passenden Bereich des sortierten Index.
+     */
+    public List<String> getNamesStartingWith(String prefix, int limit) {
         String p = (prefix == null) ? "" : prefix.toLowerCase(Locale.ROOT);
 
-        return nameToUuid.keySet().stream()
-                .filter(name -> name.startsWith(p))
-                .sorted()
-                .toList();
+        NavigableMap<String, UUID> range = p.isEmpty()
+                ? nameToUuid
+                : nameToUuid.subMap(p, true, p + Character.MAX_VALUE, false);
+
+        List<String> result = new ArrayList<>(Math.min(limit, 64));
+        for (String name : range.keySet()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(name);
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
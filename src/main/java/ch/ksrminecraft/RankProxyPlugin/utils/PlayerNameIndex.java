@@ -0,0 +1,233 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Gemeinsamer, sortierter Namensindex für die Tab-Vervollständigung.
+ *
+ * Wird nicht pro Tastendruck aufgebaut, sondern über Events gepflegt:
+ * - beim Start aus dem OfflinePlayerStore befüllt
+ * - Login/Disconnect setzen den Online-Status
+ * - Snapshot-Änderungen des StafflistManager setzen das Staff-Bit
+ *
+ * Schlüssel sind bereits kleingeschrieben; eine Abfrage liest nur den
+ * Präfix-Bereich und bricht nach limit Treffern ab. Für Online- und
+ * Staff-Namen gibt es eigene Teilindizes, damit gefilterte Abfragen nicht
+ * über alle bekannten Spieler laufen.
+ */
+public class PlayerNameIndex {
+
+    public enum StaffFilter {
+        ANY,
+        STAFF,
+        NON_STAFF
+    }
+
+    /**
+     * Eintrag mit Originalschreibweise und Staff-Bit.
+     */
+    private record NameEntry(String name, UUID uuid, boolean staff) {
+
+        NameEntry withStaff(boolean value) {
+            return value == staff ? this : new NameEntry(name, uuid, value);
+        }
+    }
+
+    private final NavigableMap<String, NameEntry> known = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, NameEntry> online = new ConcurrentSkipListMap<>();
+    private final NavigableMap<String, NameEntry> staff = new ConcurrentSkipListMap<>();
+
+    // aktueller Schlüssel pro UUID (für Namenswechsel und Staff-Updates)
+    private final Map<UUID, String> keyByUuid = new ConcurrentHashMap<>();
+
+    private final Object writeLock = new Object();
+    private final LogHelper log;
+    private final int defaultLimit;
+
+    // nur unter writeLock
+    private Set<UUID> staffUuids = Set.of();
+
+    public PlayerNameIndex(LogHelper log, int defaultLimit) {
+        this.log = log;
+        this.defaultLimit = Math.max(1, defaultLimit);
+    }
+
+    // ---------------------------------------------------------------------
+    // Pflege
+    // ---------------------------------------------------------------------
+
+    /**
+     * Übernimmt alle bekannten Spieler aus dem OfflinePlayerStore (Start).
+     */
+    public void seed(OfflinePlayerStore store) {
+        synchronized (writeLock) {
+            store.forEachPlayer(this::putKnown);
+        }
+        log.debug("PlayerNameIndex: {} Namen aus OfflinePlayerStore übernommen", known.size());
+    }
+
+    public void playerJoined(UUID uuid, String name) {
+        synchronized (writeLock) {
+            NameEntry entry = putKnown(uuid, name);
+            online.put(key(name), entry);
+        }
+    }
+
+    public void playerLeft(UUID uuid) {
+        synchronized (writeLock) {
+            String key = keyByUuid.get(uuid);
+            if (key != null) {
+                online.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Setzt das Staff-Bit nach einem neuen Stafflist-Snapshot.
+     * Aufwand proportional zur Anzahl Staff-Einträge, nicht zur Spielerzahl.
+     */
+    public void updateStaff(Map<UUID, String> staffNames) {
+        synchronized (writeLock) {
+            for (UUID uuid : staffUuids) {
+                if (!staffNames.containsKey(uuid)) {
+                    setStaffBit(uuid, false);
+                }
+            }
+
+            for (Map.Entry<UUID, String> entry : staffNames.entrySet()) {
+                UUID uuid = entry.getKey();
+                if (!keyByUuid.containsKey(uuid) && entry.getValue() != null) {
+                    putKnown(uuid, entry.getValue());
+                }
+                setStaffBit(uuid, true);
+            }
+
+            staffUuids = Set.copyOf(staffNames.keySet());
+        }
+        log.trace("PlayerNameIndex: Staff-Bit für {} Einträge aktualisiert", staffNames.size());
+    }
+
+    /**
+     * Nur unter writeLock.
+     */
+    private NameEntry putKnown(UUID uuid, String name) {
+        String newKey = key(name);
+        String oldKey = keyByUuid.put(uuid, newKey);
+
+        boolean isOnline = online.containsKey(newKey);
+
+        // Namenswechsel: alten Schlüssel überall entfernen
+        if (oldKey != null && !oldKey.equals(newKey)) {
+            known.remove(oldKey);
+            staff.remove(oldKey);
+            isOnline |= online.remove(oldKey) != null;
+        }
+
+        NameEntry entry = new NameEntry(name, uuid, staffUuids.contains(uuid));
+        NameEntry displaced = known.put(newKey, entry);
+
+        // Name gehörte vorher einem anderen Account
+        if (displaced != null && !displaced.uuid().equals(uuid)) {
+            keyByUuid.remove(displaced.uuid(), newKey);
+        }
+
+        if (isOnline) {
+            online.put(newKey, entry);
+        }
+        if (entry.staff()) {
+            staff.put(newKey, entry);
+        } else {
+            staff.remove(newKey);
+        }
+        return entry;
+    }
+
+    /**
+     * Nur unter writeLock.
+     */
+    private void setStaffBit(UUID uuid, boolean value) {
+        String key = keyByUuid.get(uuid);
+        if (key == null) {
+            return;
+        }
+
+        NameEntry entry = known.get(key);
+        if (entry == null) {
+            return;
+        }
+
+        NameEntry updated = entry.withStaff(value);
+        known.put(key, updated);
+        online.computeIfPresent(key, (k, v) -> updated);
+
+        if (value) {
+            staff.put(key, updated);
+        } else {
+            staff.remove(key);
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Abfrage
+    // ---------------------------------------------------------------------
+
+    /**
+     * Namen mit Präfix, sortiert, höchstens default-Limit.
+     */
+    public List<String> suggest(String prefix, boolean onlineOnly, StaffFilter filter) {
+        return suggest(prefix, onlineOnly, filter, defaultLimit);
+    }
+
+    /**
+     * Namen mit Präfix, sortiert, höchstens limit.
+     * Liest nur den Präfix-Bereich des passenden Teilindex.
+     */
+    public List<String> suggest(String prefix, boolean onlineOnly, StaffFilter filter, int limit) {
+        NavigableMap<String, NameEntry> source;
+        if (filter == StaffFilter.STAFF && !onlineOnly) {
+            source = staff;
+        } else {
+            source = onlineOnly ? online : known;
+        }
+
+        String p = (prefix == null) ? "" : key(prefix);
+        NavigableMap<String, NameEntry> range = p.isEmpty()
+                ? source
+                : source.subMap(p, true, p + Character.MAX_VALUE, false);
+
+        List<String> result = new ArrayList<>(Math.min(limit, 16));
+        for (NameEntry entry : range.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (filter == StaffFilter.STAFF && !entry.staff()) {
+                continue;
+            }
+            if (filter == StaffFilter.NON_STAFF && entry.staff()) {
+                continue;
+            }
+            result.add(entry.name());
+        }
+        return result;
+    }
+
+    public int size() {
+        return known.size();
+    }
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,258 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import com.velocitypowered.api.proxy.Player;
+import com.velocitypowered.api.proxy.ProxyServer;
+import net.luckperms.api.LuckPerms;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Löst Spielernamen asynchron in UUIDs auf.
+ *
+ * Reihenfolge der Quellen (günstigste zuerst):
+ * 1. online Spieler auf dem Proxy
+ * 2. OfflinePlayerStore
+ * 3. LuckPerms (lookupUniqueId)
+ * 4. HTTP-Profil-Endpunkt (Standard: Mojang)
+ *
+ * Treffer werden positiv gecacht, "gibt es nicht" nur kurz negativ.
+ * Gleichzeitige Anfragen für denselben Namen teilen sich einen Lookup.
+ * Netzwerkfehler werden nicht gecacht.
+ */
+public class PlayerUuidResolver {
+
+    private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9_]{1,16}");
+    private static final int MAX_CACHE_ENTRIES = 10_000;
+
+    /**
+     * Cache-Eintrag; uuid == null bedeutet negativ (Name existiert nicht).
+     */
+    private record CacheEntry(UUID uuid, long expiresAt) {
+    }
+
+    private final ProxyServer server;
+    private final OfflinePlayerStore offlineStore;
+    private final LuckPerms luckPerms;
+    private final LogHelper log;
+
+    private final String profileUrl;
+    private final Duration httpTimeout;
+    private final long positiveTtlMillis;
+    private final long negativeTtlMillis;
+
+    private final HttpClient httpClient;
+
+    private final Map<String, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Optional<UUID>>> inFlight = new ConcurrentHashMap<>();
+
+    public PlayerUuidResolver(ProxyServer server,
+                              OfflinePlayerStore offlineStore,
+                              LuckPerms luckPerms,
+                              String profileUrl,
+                              int httpTimeoutMillis,
+                              int positiveTtlSeconds,
+                              int negativeTtlSeconds,
+                              LogHelper log) {
+        this.server = server;
+        this.offlineStore = offlineStore;
+        this.luckPerms = luckPerms;
+        this.log = log;
+
+        this.profileUrl = (profileUrl == null || profileUrl.isBlank())
+                ? null
+                : (profileUrl.endsWith("/") ? profileUrl : profileUrl + "/");
+        this.httpTimeout = Duration.ofMillis(Math.max(500, httpTimeoutMillis));
+        this.positiveTtlMillis = Math.max(0, positiveTtlSeconds) * 1000L;
+        this.negativeTtlMillis = Math.max(0, negativeTtlSeconds) * 1000L;
+
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(this.httpTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    /**
+     * Liefert die UUID zum Namen oder Optional.empty(), wenn der Name
+     * ungültig ist bzw. keine Quelle ihn kennt. Blockiert nie.
+     * Schlägt nur fehl, wenn der HTTP-Endpunkt nicht erreichbar war.
+     */
+    public CompletableFuture<Optional<UUID>> resolve(String name) {
+        if (name == null || !VALID_NAME.matcher(name).matches()) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        // lokale Quellen sind immer aktueller als der Cache
+        Optional<UUID> local = resolveLocal(name);
+        if (local.isPresent()) {
+            return CompletableFuture.completedFuture(local);
+        }
+
+        String key = name.toLowerCase(Locale.ROOT);
+
+        CacheEntry cached = cache.get(key);
+        if (cached != null) {
+            if (cached.expiresAt() > System.currentTimeMillis()) {
+                log.trace("PlayerUuidResolver: Cache-Treffer für '{}' = {}", name, cached.uuid());
+                return CompletableFuture.completedFuture(Optional.ofNullable(cached.uuid()));
+            }
+            cache.remove(key, cached);
+        }
+
+        CompletableFuture<Optional<UUID>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<UUID>> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        lookupRemote(name).whenComplete((result, error) -> {
+            inFlight.remove(key, created);
+            if (error != null) {
+                created.completeExceptionally(error);
+                return;
+            }
+            remember(key, result.orElse(null));
+            created.complete(result);
+        });
+        return created;
+    }
+
+    /**
+     * Verwirft alle Cache-Einträge (z. B. nach Config-Reload).
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    private Optional<UUID> resolveLocal(String name) {
+        Optional<UUID> online = server.getPlayer(name).map(Player::getUniqueId);
+        if (online.isPresent()) {
+            return online;
+        }
+
+        if (offlineStore != null) {
+            return offlineStore.getUUID(name);
+        }
+        return Optional.empty();
+    }
+
+    private CompletableFuture<Optional<UUID>> lookupRemote(String name) {
+        CompletableFuture<UUID> fromLuckPerms;
+        if (luckPerms == null) {
+            fromLuckPerms = CompletableFuture.completedFuture(null);
+        } else {
+            try {
+                fromLuckPerms = luckPerms.getUserManager().lookupUniqueId(name)
+                        .exceptionally(e -> {
+                            log.debug("PlayerUuidResolver Exception bei LuckPerms-Lookup für '{}'", name, e);
+                            return null;
+                        });
+            } catch (Exception e) {
+                log.debug("PlayerUuidResolver Exception bei LuckPerms-Lookup für '{}'", name, e);
+                fromLuckPerms = CompletableFuture.completedFuture(null);
+            }
+        }
+
+        return fromLuckPerms.thenCompose(uuid -> {
+            if (uuid != null) {
+                log.debug("PlayerUuidResolver: LuckPerms lieferte UUID {} für '{}'", uuid, name);
+                return CompletableFuture.completedFuture(Optional.of(uuid));
+            }
+            return lookupHttp(name);
+        });
+    }
+
+    private CompletableFuture<Optional<UUID>> lookupHttp(String name) {
+        if (profileUrl == null) {
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(profileUrl + name))
+                    .timeout(httpTimeout)
+                    .header("Accept", "application/json")
+                    .GET()
+                    .build();
+        } catch (IllegalArgumentException e) {
+            log.warn("PlayerUuidResolver: Ungültige Profil-URL '{}': {}", profileUrl, e.getMessage());
+            return CompletableFuture.completedFuture(Optional.empty());
+        }
+
+        log.debug("PlayerUuidResolver: HTTP-Abfrage für '{}'", name);
+
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    int status = response.statusCode();
+                    log.debug("PlayerUuidResolver: HTTP-Response für '{}' = {}", name, status);
+
+                    // 204/404: Name existiert nicht -> negativ cachen
+                    if (status == 204 || status == 404) {
+                        return Optional.<UUID>empty();
+                    }
+                    if (status != 200) {
+                        throw new IllegalStateException("HTTP " + status);
+                    }
+
+                    UUID uuid = parseProfileId(response.body());
+                    log.debug("PlayerUuidResolver: HTTP lieferte UUID {} für '{}'", uuid, name);
+                    return Optional.ofNullable(uuid);
+                })
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        log.warn("PlayerUuidResolver: HTTP-Abfrage für {} fehlgeschlagen: {}", name, error.getMessage());
+                        log.debug("PlayerUuidResolver Exception bei HTTP-Abfrage für '{}'", name, error);
+                    }
+                });
+    }
+
+    private void remember(String key, UUID uuid) {
+        long ttl = (uuid == null) ? negativeTtlMillis : positiveTtlMillis;
+        if (ttl <= 0) {
+            return;
+        }
+
+        if (cache.size() >= MAX_CACHE_ENTRIES) {
+            long now = System.currentTimeMillis();
+            cache.values().removeIf(entry -> entry.expiresAt() <= now);
+            if (cache.size() >= MAX_CACHE_ENTRIES) {
+                cache.clear();
+            }
+        }
+        cache.put(key, new CacheEntry(uuid, System.currentTimeMillis() + ttl));
+    }
+
+    /**
+     * Liest "id" (32 Hex-Zeichen ohne Bindestriche) aus der Profil-Antwort.
+     */
+    private static UUID parseProfileId(String body) {
+        try {
+            JSONObject json = (JSONObject) new JSONParser().parse(body);
+            Object id = json.get("id");
+            if (!(id instanceof String hex) || hex.length() != 32) {
+                return null;
+            }
+            long msb = Long.parseUnsignedLong(hex.substring(0, 16), 16);
+            long lsb = Long.parseUnsignedLong(hex.substring(16), 16);
+            return new UUID(msb, lsb);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Schreibt Punkte-Gutschriften für viele Spieler gebündelt in die Punkte-Tabelle.
+ *
+ * Pro Aufruf werden die Einträge in Blöcken (batch-size) als JDBC-Batch
+ * geschrieben. Mit rewriteBatchedStatements macht der MySQL-Treiber daraus
+ * ein einziges mehrzeiliges INSERT ... ON DUPLICATE KEY UPDATE pro Block.
+ *
+ * Jeder Block läuft in einer eigenen Transaktion. Schlägt ein Block fehl,
+ * wird er zurückgerollt und seine UUIDs werden als "failed" gemeldet,
+ * damit der Aufrufer gezielt nachfassen kann – außer bei einem
+ * Verbindungsabbruch (connectionLost), da ist der Commit-Ausgang unklar.
+ *
+ * Für den Write-Behind-Modus (PointsLedger) gibt es zusätzlich
+ * applySegment(): ein ganzes Journal-Segment wird zusammen mit einer
+ * Segment-Markierung in EINER Transaktion geschrieben, damit ein Replay
+ * nach einem Absturz nie doppelt bucht.
+ */
+public class PointsBatchWriter {
+
+    /**
+     * connectionLost: mindestens ein Block scheiterte an der Verbindung,
+     * ob er committet wurde ist dann unklar (kein Einzel-Nachfassen).
+     */
+    public record BatchResult(int written, int batches, List<UUID> failed, boolean connectionLost) {
+        public BatchResult(int written, int batches, List<UUID> failed) {
+            this(written, batches, failed, false);
+        }
+
+        public boolean success() {
+            return failed.isEmpty();
+        }
+    }
+
+    private static final String SEGMENT_TABLE = "rankproxy_points_segments";
+
+    private final DataSource dataSource;
+    private final LogHelper log;
+    private final String tableName;
+    private final int batchSize;
+
+    public PointsBatchWriter(DataSource dataSource, LogHelper log, String tableName, int batchSize) {
+        this.dataSource = dataSource;
+        this.log = log;
+        this.tableName = sanitizeTableName(tableName);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Vergibt allen UUIDs denselben Punktebetrag.
+     */
+    public BatchResult addPoints(Collection<UUID> uuids, int amount) {
+        Map<UUID, Integer> deltas = new LinkedHashMap<>();
+        for (UUID uuid : uuids) {
+            deltas.put(uuid, amount);
+        }
+        return addPoints(deltas);
+    }
+
+    /**
+     * Addiert pro UUID einen eigenen Punktebetrag.
+     */
+    public BatchResult addPoints(Map<UUID, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return new BatchResult(0, 0, List.of());
+        }
+
+        final String sql =
+                "INSERT INTO " + tableName + " (UUID, points) VALUES (?, ?) " +
+                        "ON DUPLICATE KEY UPDATE points = points + VALUES(points)";
+
+        List<Map.Entry<UUID, Integer>> entries = new ArrayList<>(deltas.entrySet());
+        List<UUID> failed = new ArrayList<>();
+        int written = 0;
+        int batches = 0;
+        int next = 0;
+        boolean connectionLost = false;
+
+        try (Connection c = dataSource.getConnection()) {
+            boolean previousAutoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                while (next < entries.size()) {
+                    int end = Math.min(next + batchSize, entries.size());
+                    List<Map.Entry<UUID, Integer>> chunk = entries.subList(next, end);
+
+                    try {
+                        for (Map.Entry<UUID, Integer> entry : chunk) {
+                            ps.setString(1, entry.getKey().toString());
+                            ps.setInt(2, entry.getValue());
+                            ps.addBatch();
+                        }
+
+                        ps.executeBatch();
+                        c.commit();
+
+                        written += chunk.size();
+                        batches++;
+                        next = end;
+
+                    } catch (SQLException e) {
+                        // Block zuerst als fehlgeschlagen verbuchen: wirft clearBatch/rollback
+                        // auf einer toten Verbindung, meldet der äußere catch nur den Rest
+                        for (Map.Entry<UUID, Integer> entry : chunk) {
+                            failed.add(entry.getKey());
+                        }
+                        next = end;
+                        connectionLost |= isConnectionFailure(e);
+
+                        ps.clearBatch();
+                        rollbackQuietly(c);
+
+                        log.warn("PointsBatchWriter: Batch mit {} Einträgen fehlgeschlagen: {}", chunk.size(), e.getMessage());
+                        log.debug("PointsBatchWriter Exception bei executeBatch", e);
+                    }
+                }
+            } finally {
+                c.setAutoCommit(previousAutoCommit);
+            }
+
+        } catch (SQLException e) {
+            log.warn("PointsBatchWriter: Keine Verbindung für Punkte-Batch ({} Einträge): {}", entries.size(), e.getMessage());
+            log.debug("PointsBatchWriter Exception beim Öffnen der Verbindung", e);
+
+            for (Map.Entry<UUID, Integer> entry : entries.subList(next, entries.size())) {
+                failed.add(entry.getKey());
+            }
+            connectionLost = true;
+        }
+
+        log.trace("PointsBatchWriter: {} Einträge in {} Batch(es) geschrieben, {} fehlgeschlagen",
+                written, batches, failed.size());
+
+        return new BatchResult(written, batches, failed, connectionLost);
+    }
+
+    /**
+     * Stellt die Tabelle für angewendete Journal-Segmente sicher
+     * und räumt Markierungen älter als 7 Tage auf.
+     */
+    public void ensureSegmentTable() throws SQLException {
+        final String createSql =
+                "CREATE TABLE IF NOT EXISTS " + SEGMENT_TABLE + " (" +
+                        "  segment_id VARCHAR(64) NOT NULL PRIMARY KEY," +
+                        "  applied_at DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP" +
+                        ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+        final String cleanupSql =
+                "DELETE FROM " + SEGMENT_TABLE + " WHERE applied_at < NOW() - INTERVAL 7 DAY";
+
+        try (Connection c = dataSource.getConnection()) {
+            try (PreparedStatement ps = c.prepareStatement(createSql)) {
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = c.prepareStatement(cleanupSql)) {
+                int removed = ps.executeUpdate();
+                if (removed > 0) {
+                    log.debug("PointsBatchWriter: {} alte Segment-Markierungen entfernt", removed);
+                }
+            }
+        }
+    }
+
+    /**
+     * Schreibt ein Journal-Segment atomar: alle Deltas + Segment-Markierung
+     * in einer Transaktion. Ist das Segment bereits markiert, wird nichts
+     * geschrieben und true zurückgegeben.
+     */
+    public boolean applySegment(String segmentId, Map<UUID, Integer> deltas) {
+        final String markerCheckSql = "SELECT 1 FROM " + SEGMENT_TABLE + " WHERE segment_id = ? LIMIT 1";
+        final String markerInsertSql = "INSERT INTO " + SEGMENT_TABLE + " (segment_id) VALUES (?)";
+        final String upsertSql =
+                "INSERT INTO " + tableName + " (UUID, points) VALUES (?, ?) " +
+                        "ON DUPLICATE KEY UPDATE points = points + VALUES(points)";
+
+        try (Connection c = dataSource.getConnection()) {
+            boolean previousAutoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+
+            try {
+                try (PreparedStatement ps = c.prepareStatement(markerCheckSql)) {
+                    ps.setString(1, segmentId);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (rs.next()) {
+                            c.rollback();
+                            log.debug("PointsBatchWriter: Segment {} war bereits angewendet – übersprungen", segmentId);
+                            return true;
+                        }
+                    }
+                }
+
+                try (PreparedStatement ps = c.prepareStatement(upsertSql)) {
+                    int inBatch = 0;
+                    for (Map.Entry<UUID, Integer> entry : deltas.entrySet()) {
+                        ps.setString(1, entry.getKey().toString());
+                        ps.setInt(2, entry.getValue());
+                        ps.addBatch();
+
+                        if (++inBatch >= batchSize) {
+                            ps.executeBatch();
+                            inBatch = 0;
+                        }
+                    }
+                    if (inBatch > 0) {
+                        ps.executeBatch();
+                    }
+                }
+
+                try (PreparedStatement ps = c.prepareStatement(markerInsertSql)) {
+                    ps.setString(1, segmentId);
+                    ps.executeUpdate();
+                }
+
+                c.commit();
+                log.trace("PointsBatchWriter: Segment {} mit {} Einträgen angewendet", segmentId, deltas.size());
+                return true;
+
+            } catch (SQLException e) {
+                rollbackQuietly(c);
+                throw e;
+            } finally {
+                c.setAutoCommit(previousAutoCommit);
+            }
+
+        } catch (SQLException e) {
+            log.warn("PointsBatchWriter: Segment {} konnte nicht geschrieben werden: {}", segmentId, e.getMessage());
+            log.debug("PointsBatchWriter Exception bei applySegment {}", segmentId, e);
+            return false;
+        }
+    }
+
+    public String getTableName() {
+        return tableName;
+    }
+
+    private void rollbackQuietly(Connection c) {
+        try {
+            c.rollback();
+        } catch (SQLException e) {
+            log.debug("PointsBatchWriter Exception beim Rollback", e);
+        }
+    }
+
+    /**
+     * Verbindungsabbruch statt abgelehnter Anweisung (SQLState-Klasse 08).
+     */
+    static boolean isConnectionFailure(Throwable t) {
+        for (Throwable cause = t; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLTransientConnectionException
+                    || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+            if (cause instanceof SQLException sql && sql.getSQLState() != null
+                    && sql.getSQLState().startsWith("08")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String sanitizeTableName(String tableName) {
+        if (tableName == null || !tableName.matches("[A-Za-z0-9_]+")) {
+            return "points";
+        }
+        return tableName;
+    }
+}
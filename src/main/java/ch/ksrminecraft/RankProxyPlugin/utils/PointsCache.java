@@ -0,0 +1,166 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Begrenzter Read-Through-Cache für Punktestände (LRU + TTL).
+ *
+ * Gespeichert wird der effektive Punktestand (DB + offene Ledger-Deltas).
+ * Lokale Schreibzugriffe über den PointsService passen den Eintrag direkt an,
+ * die TTL sorgt dafür, dass Änderungen von aussen (andere Server, Web-UI)
+ * spätestens nach ttl-seconds sichtbar werden.
+ *
+ * Ladevorgänge, die sich mit einem Schreibzugriff auf DIESELBE UUID
+ * überschneiden, werden nicht gecacht (Write-Stempel pro UUID), damit kein
+ * veralteter Wert hängen bleibt. Schreibzugriffe auf andere Spieler (z. B.
+ * der Punkte-Tick) verwerfen laufende Ladevorgänge nicht.
+ */
+public class PointsCache {
+
+    private record Entry(int points, long loadedAt) {}
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // geschützt durch synchronized(this)
+    private final LinkedHashMap<UUID, Entry> entries;
+
+    private final AtomicLong writeEpoch = new AtomicLong();
+    // UUID -> Epoch des letzten Schreibzugriffs, aufsteigend; geschützt durch synchronized(this)
+    private final LinkedHashMap<UUID, Long> lastWrites;
+    // höchste Epoch, die aus lastWrites verdrängt wurde: ältere Ladevorgänge gelten als überholt
+    private long evictedWriteEpoch = 0L;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public PointsCache(int maxEntries, int ttlSeconds) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = Math.max(1, ttlSeconds) * 1000L;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                if (size() > PointsCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        int writeLimit = Math.max(1024, this.maxEntries * 2);
+        this.lastWrites = new LinkedHashMap<>(256, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Long> eldest) {
+                if (size() > writeLimit) {
+                    evictedWriteEpoch = eldest.getValue();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * @return gecachter Punktestand oder null bei Miss/abgelaufenem Eintrag
+     */
+    public Integer get(UUID uuid) {
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            Entry entry = entries.get(uuid);
+            if (entry != null && (now - entry.loadedAt()) < ttlMillis) {
+                hits.increment();
+                return entry.points();
+            }
+            if (entry != null) {
+                entries.remove(uuid);
+            }
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Epoch vor einem DB-Ladevorgang merken und an putLoaded() übergeben.
+     */
+    public long beginLoad() {
+        return writeEpoch.get();
+    }
+
+    /**
+     * Übernimmt einen aus der DB geladenen Wert – aber nur, wenn seit
+     * beginLoad() kein Schreibzugriff auf diese UUID stattgefunden hat.
+     */
+    public void putLoaded(UUID uuid, int points, long epoch) {
+        synchronized (this) {
+            Long lastWrite = lastWrites.get(uuid);
+            if ((lastWrite != null && lastWrite > epoch) || evictedWriteEpoch > epoch) {
+                return;
+            }
+            entries.put(uuid, new Entry(points, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Lokales addPoints: vorhandenen Eintrag anpassen.
+     */
+    public void applyDelta(UUID uuid, int delta) {
+        synchronized (this) {
+            markWritten(uuid);
+            Entry entry = entries.get(uuid);
+            if (entry != null) {
+                entries.put(uuid, new Entry(entry.points() + delta, entry.loadedAt()));
+            }
+        }
+    }
+
+    /**
+     * Lokales setPoints: Eintrag mit neuem Wert und frischer TTL setzen.
+     */
+    public void put(UUID uuid, int points) {
+        synchronized (this) {
+            markWritten(uuid);
+            entries.put(uuid, new Entry(points, System.currentTimeMillis()));
+        }
+    }
+
+    public void invalidate(UUID uuid) {
+        synchronized (this) {
+            markWritten(uuid);
+            entries.remove(uuid);
+        }
+    }
+
+    // Aufrufer hält synchronized(this)
+    private void markWritten(UUID uuid) {
+        lastWrites.remove(uuid);
+        lastWrites.put(uuid, writeEpoch.incrementAndGet());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public double getHitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+}
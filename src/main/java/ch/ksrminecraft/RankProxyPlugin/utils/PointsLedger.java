@@ -0,0 +1,495 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+
+/**
+ * Write-Behind-Ledger für Punkte-Gutschriften.
+ *
+ * Ablauf:
+ * - record()/recordAll() hängen Deltas an ein lokales Journal an (fsync)
+ *   und summieren sie danach im Speicher pro UUID
+ * - flush() rotiert das Journal zu einem Segment und schreibt das Segment
+ *   gebündelt und atomar (inkl. Segment-Markierung) in MySQL
+ * - erfolgreich geschriebene Segmente werden gelöscht
+ * - beim Start werden alle übrig gebliebenen Journal-Dateien wieder eingelesen
+ *
+ * Ein Delta gilt erst dann als angenommen, wenn es im Journal auf Disk liegt.
+ * Über die Segment-Markierung wird ein Segment auch nach einem Absturz
+ * zwischen Commit und Löschen der Datei nie doppelt gebucht. Leser, die
+ * DB-Wert und getPendingDelta() über readConsistent() kombinieren, sehen ein
+ * Segment entweder in MySQL oder noch als Delta, nie in beidem.
+ *
+ * Zeilenformat: eine Zeile pro recordAll(), Anzahl;UUID=Delta,...;CRC32 (hex)
+ * über Anzahl und Einträge. Schlägt ein Append fehl, wird das Journal auf die
+ * Länge davor zurückgeschnitten; angerissene Zeilen (ohne Zeilenende, mit
+ * falscher Anzahl oder Prüfsumme) werden beim Einlesen verworfen – ein Batch
+ * wird also nur ganz oder gar nicht nachgeholt.
+ */
+public class PointsLedger {
+
+    private static final String JOURNAL_DIR = "points-journal";
+    private static final String ACTIVE_FILE = "active.log";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String FORMAT_HEADER = "#v3";
+    private static final String FORMAT_HEADER_V2 = "#v2";
+
+    /**
+     * Rotiertes, aber noch nicht in MySQL geschriebenes Journal-Stück.
+     */
+    private record Segment(String id, Path file, Map<UUID, Integer> deltas) {}
+
+    private final PointsBatchWriter batchWriter;
+    private final LogHelper log;
+    private final Path journalDir;
+    private final Path activeFile;
+    private final String instanceToken = UUID.randomUUID().toString().substring(0, 8);
+
+    private final Object lock = new Object();
+    private final Object flushLock = new Object();
+    // Schreiblock: Segment-Commit + Entfernen aus unflushed; Leselock: DB-Read + getPendingDelta()
+    private final ReadWriteLock applyLock = new ReentrantReadWriteLock();
+
+    // geschützt durch lock
+    private final Map<UUID, Integer> pending = new HashMap<>();
+    private final Deque<Segment> unflushed = new ArrayDeque<>();
+    private FileChannel activeChannel;
+    private long segmentCounter = 0L;
+    // letzter Append konnte nicht zurückgerollt werden: nächster Eintrag beginnt auf neuer Zeile
+    private boolean tornTail = false;
+
+    public PointsLedger(Path dataDirectory, PointsBatchWriter batchWriter, LogHelper log) throws IOException {
+        this.batchWriter = batchWriter;
+        this.log = log;
+        this.journalDir = dataDirectory.resolve(JOURNAL_DIR);
+        this.activeFile = journalDir.resolve(ACTIVE_FILE);
+
+        Files.createDirectories(journalDir);
+
+        try {
+            batchWriter.ensureSegmentTable();
+        } catch (Exception e) {
+            log.warn("PointsLedger: Segment-Tabelle konnte nicht geprüft werden: {}", e.getMessage());
+            log.debug("PointsLedger Exception bei ensureSegmentTable", e);
+        }
+
+        recoverJournal();
+        this.activeChannel = openActiveChannel();
+    }
+
+    // ---------------------------------------------------------------------
+    // Schreiben
+    // ---------------------------------------------------------------------
+
+    /**
+     * Nimmt ein einzelnes Delta an.
+     *
+     * @return false, wenn das Journal nicht geschrieben werden konnte.
+     *         Das Delta wurde dann NICHT angenommen.
+     */
+    public boolean record(UUID uuid, int delta) {
+        return recordAll(Map.of(uuid, delta));
+    }
+
+    /**
+     * Nimmt mehrere Deltas mit einem einzigen fsync an.
+     *
+     * @return false, wenn das Journal nicht geschrieben werden konnte.
+     *         Keines der Deltas wurde dann angenommen.
+     */
+    public boolean recordAll(Map<UUID, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return true;
+        }
+
+        StringBuilder sb = new StringBuilder(deltas.size() * 44 + 8);
+        sb.append(deltas.size()).append(';');
+        for (Map.Entry<UUID, Integer> entry : deltas.entrySet()) {
+            if (sb.charAt(sb.length() - 1) != ';') {
+                sb.append(',');
+            }
+            sb.append(entry.getKey()).append('=').append(entry.getValue());
+        }
+        String record = sb.toString();
+        String line = record + ";" + checksum(record) + "\n";
+
+        synchronized (lock) {
+            String content = tornTail ? "\n" + line : line;
+            ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(StandardCharsets.UTF_8));
+            long before = -1L;
+
+            try {
+                before = activeChannel.size();
+                while (buffer.hasRemaining()) {
+                    activeChannel.write(buffer);
+                }
+                activeChannel.force(false);
+                tornTail = false;
+            } catch (IOException e) {
+                log.error("PointsLedger: Journal konnte nicht geschrieben werden: {}", e.getMessage());
+                log.debug("PointsLedger Exception beim Journal-Append", e);
+
+                if (rollback(before) || buffer.hasRemaining()) {
+                    return false;
+                }
+                // vollständig geschrieben, aber nicht entfernbar: ein Replay bucht die Deltas ohnehin
+                log.warn("PointsLedger: {} Delta(s) bleiben im Journal und gelten als angenommen", deltas.size());
+            }
+
+            for (Map.Entry<UUID, Integer> entry : deltas.entrySet()) {
+                pending.merge(entry.getKey(), entry.getValue(), Integer::sum);
+            }
+        }
+
+        log.trace("PointsLedger: {} Delta(s) im Journal angenommen", deltas.size());
+        return true;
+    }
+
+    /**
+     * Schneidet das Journal nach einem fehlgeschlagenen Append auf die alte
+     * Länge zurück, damit der Aufrufer das Delta direkt schreiben kann, ohne
+     * dass ein späteres Replay es ein zweites Mal bucht.
+     *
+     * @return false, wenn das Journal nicht zurückgeschnitten werden konnte
+     */
+    private boolean rollback(long size) {
+        if (size < 0) {
+            tornTail = true;
+            return false;
+        }
+        try {
+            activeChannel.truncate(size);
+            activeChannel.force(false);
+            return true;
+        } catch (IOException e) {
+            // Rest bleibt im Journal; Prüfsumme und neue Zeile sorgen dafür, dass er verworfen wird
+            tornTail = true;
+            log.warn("PointsLedger: Journal konnte nicht zurückgeschnitten werden: {}", e.getMessage());
+            log.debug("PointsLedger Exception beim Journal-Rollback", e);
+            return false;
+        }
+    }
+
+    /**
+     * Summe aller noch nicht in MySQL geschriebenen Deltas für eine UUID.
+     */
+    public int getPendingDelta(UUID uuid) {
+        synchronized (lock) {
+            int sum = pending.getOrDefault(uuid, 0);
+            for (Segment segment : unflushed) {
+                sum += segment.deltas().getOrDefault(uuid, 0);
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Führt einen DB-Lesezugriff samt getPendingDelta() aus, ohne dass
+     * dazwischen ein Segment committet wird. Sonst wäre ein gerade
+     * geschriebenes Segment sowohl im DB-Wert als auch im Delta enthalten.
+     */
+    public <T> T readConsistent(Supplier<T> read) {
+        applyLock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            applyLock.readLock().unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    public int getUnflushedSegmentCount() {
+        synchronized (lock) {
+            return unflushed.size();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Flush
+    // ---------------------------------------------------------------------
+
+    /**
+     * Rotiert das aktive Journal und schreibt alle offenen Segmente nach MySQL.
+     *
+     * @return true, wenn danach keine offenen Segmente mehr übrig sind.
+     */
+    public boolean flush() {
+        synchronized (flushLock) {
+            rotate();
+
+            List<Segment> toFlush;
+            synchronized (lock) {
+                toFlush = new ArrayList<>(unflushed);
+            }
+
+            for (Segment segment : toFlush) {
+                applyLock.writeLock().lock();
+                try {
+                    if (!batchWriter.applySegment(segment.id(), segment.deltas())) {
+                        log.warn("PointsLedger: Flush abgebrochen, {} Segment(e) bleiben im Journal", getUnflushedSegmentCount());
+                        return false;
+                    }
+
+                    synchronized (lock) {
+                        unflushed.remove(segment);
+                    }
+                } finally {
+                    applyLock.writeLock().unlock();
+                }
+
+                try {
+                    Files.deleteIfExists(segment.file());
+                } catch (IOException e) {
+                    // Segment ist markiert – ein späteres Replay überspringt es
+                    log.warn("PointsLedger: Segment-Datei {} konnte nicht gelöscht werden: {}",
+                            segment.file().getFileName(), e.getMessage());
+                }
+
+                log.debug("PointsLedger: Segment {} mit {} Spieler(n) geschrieben",
+                        segment.id(), segment.deltas().size());
+            }
+
+            return true;
+        }
+    }
+
+    /**
+     * Letzter Flush beim Shutdown. Nicht geschriebene Deltas bleiben
+     * im Journal und werden beim nächsten Start nachgeholt.
+     */
+    public void close() {
+        boolean flushed = flush();
+
+        synchronized (lock) {
+            try {
+                activeChannel.close();
+            } catch (IOException e) {
+                log.debug("PointsLedger Exception beim Schliessen des Journals", e);
+            }
+        }
+
+        if (!flushed) {
+            log.warn("PointsLedger: Nicht alle Punkte konnten beim Shutdown geschrieben werden – Journal wird beim nächsten Start nachgeholt");
+        }
+    }
+
+    /**
+     * Macht aus dem aktiven Journal ein Segment, falls es Deltas enthält.
+     */
+    private void rotate() {
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            String segmentId = nextSegmentId();
+            Path segmentFile = journalDir.resolve(SEGMENT_PREFIX + segmentId + SEGMENT_SUFFIX);
+
+            try {
+                activeChannel.close();
+                Files.move(activeFile, segmentFile, StandardCopyOption.ATOMIC_MOVE);
+                activeChannel = openActiveChannel();
+            } catch (IOException e) {
+                log.error("PointsLedger: Journal-Rotation fehlgeschlagen: {}", e.getMessage());
+                log.debug("PointsLedger Exception bei rotate", e);
+
+                try {
+                    if (!activeChannel.isOpen()) {
+                        activeChannel = openActiveChannel();
+                    }
+                } catch (IOException reopen) {
+                    log.error("PointsLedger: Journal konnte nicht wieder geöffnet werden: {}", reopen.getMessage());
+                }
+                return;
+            }
+
+            unflushed.addLast(new Segment(segmentId, segmentFile, new HashMap<>(pending)));
+            pending.clear();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Recovery
+    // ---------------------------------------------------------------------
+
+    /**
+     * Liest alle Journal-Dateien eines vorherigen Laufs ein.
+     * Ein übrig gebliebenes aktives Journal wird dabei zu einem Segment.
+     */
+    private void recoverJournal() throws IOException {
+        if (Files.exists(activeFile) && Files.size(activeFile) > 0) {
+            Path segmentFile = journalDir.resolve(SEGMENT_PREFIX + nextSegmentId() + SEGMENT_SUFFIX);
+            Files.move(activeFile, segmentFile, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(journalDir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        files.sort(null);
+
+        int total = 0;
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            String segmentId = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+
+            Map<UUID, Integer> deltas = readJournal(file);
+            if (deltas.isEmpty()) {
+                Files.deleteIfExists(file);
+                continue;
+            }
+            unflushed.addLast(new Segment(segmentId, file, deltas));
+            total += deltas.size();
+        }
+
+        if (!unflushed.isEmpty()) {
+            log.info("PointsLedger: {} Journal-Segment(e) mit {} Einträgen aus vorherigem Lauf gefunden – werden nachgeholt",
+                    unflushed.size(), total);
+        }
+    }
+
+    /**
+     * Liest ein Journal. Ohne Kopfzeile (Journal einer älteren Version) gilt
+     * das Format UUID;Delta, mit "#v2" UUID;Delta;CRC32 pro Zeile. Eine letzte
+     * Zeile ohne Zeilenende wird immer verworfen, weil sie beim Schreiben
+     * abgerissen sein kann.
+     */
+    private Map<UUID, Integer> readJournal(Path file) throws IOException {
+        Map<UUID, Integer> deltas = new HashMap<>();
+
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        int complete = content.lastIndexOf('\n') + 1;
+        if (complete < content.length()) {
+            log.warn("PointsLedger: Abgeschnittene letzte Journal-Zeile in {} ignoriert: '{}'",
+                    file.getFileName(), content.substring(complete));
+        }
+
+        String[] lines = content.substring(0, complete).split("\n");
+        String header = (lines.length > 0) ? lines[0] : "";
+
+        for (String line : lines) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+
+            boolean accepted = switch (header) {
+                case FORMAT_HEADER -> readBatchLine(line, deltas);
+                case FORMAT_HEADER_V2 -> readEntryLine(line, true, deltas);
+                default -> readEntryLine(line, false, deltas);
+            };
+            if (!accepted) {
+                log.warn("PointsLedger: Ungültige Journal-Zeile in {} ignoriert: '{}'", file.getFileName(), line);
+            }
+        }
+
+        return deltas;
+    }
+
+    /**
+     * Batch-Zeile (v3): wird nur übernommen, wenn Prüfsumme, Anzahl und
+     * alle Einträge stimmen.
+     */
+    private static boolean readBatchLine(String line, Map<UUID, Integer> deltas) {
+        int crcSeparator = line.lastIndexOf(';');
+        if (crcSeparator < 0 || !checksum(line.substring(0, crcSeparator)).equals(line.substring(crcSeparator + 1))) {
+            return false;
+        }
+
+        String[] parts = line.substring(0, crcSeparator).split(";", -1);
+        if (parts.length != 2) {
+            return false;
+        }
+
+        Map<UUID, Integer> batch = new HashMap<>();
+        try {
+            int count = Integer.parseInt(parts[0]);
+            String[] entries = parts[1].split(",");
+            if (entries.length != count) {
+                return false;
+            }
+            for (String entry : entries) {
+                int eq = entry.indexOf('=');
+                if (eq < 0) {
+                    return false;
+                }
+                batch.merge(UUID.fromString(entry.substring(0, eq)), Integer.parseInt(entry.substring(eq + 1)), Integer::sum);
+            }
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+
+        batch.forEach((uuid, delta) -> deltas.merge(uuid, delta, Integer::sum));
+        return true;
+    }
+
+    /**
+     * Einzelzeile älterer Journale: UUID;Delta (v1) bzw. UUID;Delta;CRC32 (v2).
+     */
+    private static boolean readEntryLine(String line, boolean checksummed, Map<UUID, Integer> deltas) {
+        String[] parts = line.split(";");
+        if (checksummed && (parts.length != 3 || !checksum(parts[0] + ";" + parts[1]).equals(parts[2]))) {
+            return false;
+        }
+        if (parts.length < 2) {
+            return false;
+        }
+
+        try {
+            deltas.merge(UUID.fromString(parts[0]), Integer.parseInt(parts[1].trim()), Integer::sum);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String checksum(String record) {
+        CRC32 crc = new CRC32();
+        crc.update(record.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
+    private FileChannel openActiveChannel() throws IOException {
+        FileChannel channel = FileChannel.open(activeFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+
+        if (channel.size() == 0) {
+            ByteBuffer header = ByteBuffer.wrap((FORMAT_HEADER + "\n").getBytes(StandardCharsets.UTF_8));
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(false);
+        }
+        tornTail = false;
+        return channel;
+    }
+
+    private String nextSegmentId() {
+        return System.currentTimeMillis() + "-" + instanceToken + "-" + (segmentCounter++);
+    }
+}
@@ -0,0 +1,39 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Speicherzugriff auf Punktestände – einzige Stelle, an der das Plugin
+ * Punkte liest oder schreibt (über den PointsService).
+ *
+ * Implementierungen:
+ * - MySqlPointsRepository: Punkte-Tabelle über den gemeinsamen Hikari-Pool
+ * - InMemoryPointsRepository: im Speicher (Lasttest, Benchmarks)
+ *
+ * Einzelzugriffe melden DB-Fehler als IllegalStateException.
+ */
+public interface PointsRepository {
+
+    /**
+     * @return Punktestand, 0 für unbekannte Spieler
+     */
+    int getPoints(UUID uuid);
+
+    /**
+     * Lädt mehrere Punktestände auf einmal. Unbekannte Spieler fehlen
+     * in der Map nicht, sondern stehen mit 0 drin.
+     */
+    Map<UUID, Integer> getPoints(Collection<UUID> uuids);
+
+    void addPoints(UUID uuid, int amount);
+
+    void setPoints(UUID uuid, int amount);
+
+    /**
+     * Addiert pro UUID einen eigenen Betrag, gebündelt.
+     * Fehlgeschlagene UUIDs stehen im Ergebnis statt in einer Exception.
+     */
+    PointsBatchWriter.BatchResult addPoints(Map<UUID, Integer> deltas);
+}
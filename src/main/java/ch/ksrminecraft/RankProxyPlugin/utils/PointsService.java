@@ -0,0 +1,310 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Zentraler Zugriff auf Punkte für Commands, Scheduler und PromotionManager.
+ * Gespeichert wird über ein PointsRepository (MySQL oder im Speicher).
+ *
+ * Modi:
+ * - direkt: Gutschriften gehen sofort an die DB (Tick gebündelt über das Repository)
+ * - write-behind: Gutschriften landen im PointsLedger (Journal + Speicher)
+ *   und werden periodisch gebündelt geschrieben
+ *
+ * Lesezugriffe berücksichtigen im Write-Behind-Modus auch noch nicht
+ * geschriebene Deltas, damit Punkteanzeige und Promotion sofort stimmen.
+ *
+ * Optional liegt ein PointsCache davor: Lesezugriffe gehen nur bei Miss
+ * an die DB, lokale Schreibzugriffe halten den Cache aktuell.
+ *
+ * Gutschriften für ausgeschlossene Spieler (Staff bei give-points=false)
+ * werden vor dem Schreiben verworfen. Der Filter liest nur den Staff-Snapshot
+ * im Speicher, pro Gutschrift bleibt es bei einem Statement bzw. Batch-Eintrag.
+ */
+public class PointsService {
+
+    private final PointsRepository repository;
+    private final PointsLedger ledger;
+    private final PointsCache cache;
+    private final LogHelper log;
+
+    private volatile Predicate<UUID> excludedFromPoints = uuid -> false;
+
+    public PointsService(PointsRepository repository, PointsLedger ledger, LogHelper log) {
+        this(repository, ledger, null, log);
+    }
+
+    public PointsService(PointsRepository repository,
+                         PointsLedger ledger,
+                         PointsCache cache,
+                         LogHelper log) {
+        this.repository = repository;
+        this.ledger = ledger;
+        this.cache = cache;
+        this.log = log;
+    }
+
+    public boolean isWriteBehind() {
+        return ledger != null;
+    }
+
+    public PointsLedger getLedger() {
+        return ledger;
+    }
+
+    public PointsCache getCache() {
+        return cache;
+    }
+
+    public PointsRepository getRepository() {
+        return repository;
+    }
+
+    /**
+     * Filter für Gutschriften, z. B. stafflistManager::isStaff. Läuft für jede
+     * Gutschrift und darf deshalb keine DB-Abfrage auslösen.
+     */
+    public void setExcludedFromPoints(Predicate<UUID> filter) {
+        this.excludedFromPoints = (filter != null) ? filter : uuid -> false;
+    }
+
+    public int getPoints(UUID uuid) {
+        if (cache == null) {
+            return loadPoints(uuid);
+        }
+
+        Integer cached = cache.get(uuid);
+        if (cached != null) {
+            return cached;
+        }
+
+        long epoch = cache.beginLoad();
+        int points = loadPoints(uuid);
+        cache.putLoaded(uuid, points, epoch);
+        return points;
+    }
+
+    /**
+     * Mehrere Punktestände auf einmal: Cache-Treffer direkt, alle Misses
+     * mit einem Mehrfach-Lesezugriff. Füllt dabei den Cache (z. B. vor
+     * dem Promotion-Durchlauf).
+     */
+    public Map<UUID, Integer> getPoints(Collection<UUID> uuids) {
+        Map<UUID, Integer> result = new LinkedHashMap<>();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID uuid : uuids) {
+            Integer cached = (cache != null) ? cache.get(uuid) : null;
+            if (cached != null) {
+                result.put(uuid, cached);
+            } else {
+                missing.add(uuid);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        long epoch = (cache != null) ? cache.beginLoad() : 0L;
+        Map<UUID, Integer> loaded = (ledger == null)
+                ? repository.getPoints(missing)
+                : ledger.readConsistent(() -> withPendingDeltas(repository.getPoints(missing)));
+        for (Map.Entry<UUID, Integer> entry : loaded.entrySet()) {
+            result.put(entry.getKey(), entry.getValue());
+            if (cache != null) {
+                cache.putLoaded(entry.getKey(), entry.getValue(), epoch);
+            }
+        }
+        return result;
+    }
+
+    public void addPoints(UUID uuid, int amount) {
+        if (excludedFromPoints.test(uuid)) {
+            log.debug("PointsService: Gutschrift von {} Punkt(en) für {} verworfen (ausgeschlossen)", amount, uuid);
+            return;
+        }
+
+        if (ledger == null || !ledger.record(uuid, amount)) {
+            try {
+                repository.addPoints(uuid, amount);
+            } catch (RuntimeException e) {
+                invalidate(uuid);
+                throw e;
+            }
+        }
+
+        if (cache != null) {
+            cache.applyDelta(uuid, amount);
+        }
+    }
+
+    /**
+     * Setzt den Punktestand absolut. Offene Deltas werden vorher geschrieben,
+     * damit sie nicht nachträglich auf den neuen Wert addiert werden.
+     */
+    public void setPoints(UUID uuid, int amount) {
+        if (ledger != null && !ledger.flush()) {
+            log.warn("PointsService: Offene Deltas konnten vor setPoints für {} nicht geschrieben werden", uuid);
+        }
+        try {
+            repository.setPoints(uuid, amount);
+        } catch (RuntimeException e) {
+            invalidate(uuid);
+            throw e;
+        }
+
+        if (cache != null) {
+            cache.put(uuid, amount);
+        }
+    }
+
+    /**
+     * Vergibt allen UUIDs denselben Betrag (Punkte-Tick), ausgeschlossene ausgenommen.
+     */
+    public void addPointsBatch(List<UUID> candidates, int amount) {
+        List<UUID> uuids = withoutExcluded(candidates);
+        if (uuids.isEmpty()) {
+            return;
+        }
+
+        if (ledger != null) {
+            Map<UUID, Integer> deltas = new LinkedHashMap<>();
+            for (UUID uuid : uuids) {
+                deltas.put(uuid, amount);
+            }
+            if (ledger.recordAll(deltas)) {
+                applyDeltaToCache(uuids, amount);
+                log.debug("PointsService: {} Punkt(e) für {} Spieler im Ledger vorgemerkt", amount, uuids.size());
+                return;
+            }
+            log.warn("PointsService: Ledger-Journal nicht beschreibbar – Punkte werden direkt geschrieben");
+        }
+
+        Map<UUID, Integer> deltas = new LinkedHashMap<>();
+        for (UUID uuid : uuids) {
+            deltas.put(uuid, amount);
+        }
+
+        long start = System.nanoTime();
+        PointsBatchWriter.BatchResult result = repository.addPoints(deltas);
+        long tookMs = (System.nanoTime() - start) / 1_000_000L;
+
+        log.debug("PointsService: {} Punkt(e) an {} Spieler in {} Batch(es) vergeben ({} ms)",
+                amount, result.written(), result.batches(), tookMs);
+
+        // Cache erst nach dem Commit anpassen, fehlgeschlagene UUIDs behandelt der Fallback
+        if (result.success()) {
+            applyDeltaToCache(uuids, amount);
+        } else {
+            Set<UUID> failed = new HashSet<>(result.failed());
+            applyDeltaToCache(uuids.stream().filter(uuid -> !failed.contains(uuid)).toList(), amount);
+        }
+
+        if (!result.success()) {
+            if (result.connectionLost()) {
+                // Einzelvergabe würde pro Spieler auf den Connection-Timeout warten und
+                // könnte einen doch committeten Block doppelt gutschreiben
+                for (UUID uuid : result.failed()) {
+                    invalidate(uuid);
+                }
+                log.warn("PointsService: {} Punkte-Gutschriften wegen Verbindungsabbruch verworfen, kein Einzel-Fallback",
+                        result.failed().size());
+                return;
+            }
+            log.warn("PointsService: {} Punkte-Gutschriften im Batch fehlgeschlagen – Fallback auf Einzelvergabe",
+                    result.failed().size());
+            addPointsIndividually(result.failed(), amount);
+        }
+    }
+
+    /**
+     * Schreibt offene Ledger-Deltas (Scheduler-Task).
+     */
+    public void flush() {
+        if (ledger != null) {
+            ledger.flush();
+        }
+    }
+
+    public void shutdown() {
+        if (ledger != null) {
+            ledger.close();
+        }
+    }
+
+    private void addPointsIndividually(List<UUID> uuids, int amount) {
+        for (int i = 0; i < uuids.size(); i++) {
+            UUID uuid = uuids.get(i);
+            try {
+                repository.addPoints(uuid, amount);
+                if (cache != null) {
+                    cache.applyDelta(uuid, amount);
+                }
+                log.trace("PointsService: {} Punkt(e) an {} vergeben", amount, uuid);
+            } catch (Exception e) {
+                invalidate(uuid);
+                log.warn("PointsService: Punktevergabe an {} fehlgeschlagen: {}", uuid, e.getMessage());
+                log.debug("PointsService Exception bei Einzelvergabe für {}", uuid, e);
+                if (PointsBatchWriter.isConnectionFailure(e)) {
+                    List<UUID> skipped = uuids.subList(i + 1, uuids.size());
+                    skipped.forEach(this::invalidate);
+                    log.warn("PointsService: Verbindung verloren – Einzelvergabe für {} weitere Spieler abgebrochen",
+                            skipped.size());
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<UUID> withoutExcluded(List<UUID> uuids) {
+        Predicate<UUID> filter = excludedFromPoints;
+        List<UUID> accepted = new ArrayList<>(uuids.size());
+        for (UUID uuid : uuids) {
+            if (!filter.test(uuid)) {
+                accepted.add(uuid);
+            }
+        }
+
+        if (accepted.size() < uuids.size()) {
+            log.debug("PointsService: {} Gutschrift(en) im Batch verworfen (ausgeschlossen)", uuids.size() - accepted.size());
+        }
+        return accepted;
+    }
+
+    private int loadPoints(UUID uuid) {
+        if (ledger == null) {
+            return repository.getPoints(uuid);
+        }
+        return ledger.readConsistent(() -> repository.getPoints(uuid) + ledger.getPendingDelta(uuid));
+    }
+
+    private Map<UUID, Integer> withPendingDeltas(Map<UUID, Integer> stored) {
+        Map<UUID, Integer> points = new LinkedHashMap<>();
+        for (Map.Entry<UUID, Integer> entry : stored.entrySet()) {
+            points.put(entry.getKey(), entry.getValue() + ledger.getPendingDelta(entry.getKey()));
+        }
+        return points;
+    }
+
+    private void applyDeltaToCache(List<UUID> uuids, int amount) {
+        if (cache == null) {
+            return;
+        }
+        for (UUID uuid : uuids) {
+            cache.applyDelta(uuid, amount);
+        }
+    }
+
+    private void invalidate(UUID uuid) {
+        if (cache != null) {
+            cache.invalidate(uuid);
+        }
+    }
+}
@@ -4,25 +4,56 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
+import java.util.HashSet;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Liest periodisch PremiumVanish-Daten aus der Datenbank
  * und cached alle aktuell vanished UUIDs.
+ *
+ * Jeder Refresh ersetzt den Snapshot atomar und liefert nur die
+ * UUIDs, deren Vanish-Status sich seit dem letzten Refresh geändert hat.
+ * Es läuft immer nur ein Refresh gleichzeitig; überlappende Aufrufe
+ * werden übersprungen, damit keine Änderung doppelt oder gar nicht gemeldet wird.
  */
 public class PremiumVanishHook {
 
+    /**
+     * Änderungen eines Refreshs.
+     *
+     * @param nowVanished seit dem letzten Refresh vanished
+     * @param nowVisible  seit dem letzten Refresh wieder sichtbar
+     */
+    public record VanishChanges(Set<UUID> nowVanished, Set<UUID> nowVisible) {
+
+        public static final VanishChanges NONE = new VanishChanges(Set.of(), Set.of());
+
+        public boolean isEmpty() {
+            return nowVanished.isEmpty() && nowVisible.isEmpty();
+        }
+    }
+
     private final DataSource dataSource;
     private final LogHelper log;
     private final String tableName;
 
-    private final Set<UUID> vanished = ConcurrentHashMap.newKeySet();
+    private final DbExecutor dbExecutor;
+
+    private final AtomicReference<Set<UUID>> vanished = new AtomicReference<>(Set.of());
+    private final AtomicBoolean refreshRunning = new AtomicBoolean(false);
 
     public PremiumVanishHook(DataSource dataSource, LogHelper log, String tableName) {
+        this(dataSource, log, tableName, null);
+    }
+
+    public PremiumVanishHook(DataSource dataSource, LogHelper log, String tableName, DbExecutor dbExecutor) {
         this.dataSource = dataSource;
         this.log = log;
+        this.dbExecutor = dbExecutor;
         this.tableName = (tableName == null || tableName.isBlank())
                 ? "premiumvanish_playerdata"
                 : tableName;
@@ -32,21 +63,45 @@ public class PremiumVanishHook {
         if (uuid == null) {
             return false;
         }
-        return vanished.contains(uuid);
+        return vanished.get().contains(uuid);
+    }
+
+    /**
+     * Wie refreshNow(), aber auf dem DbExecutor (Scheduler-Task).
+     */
+    public CompletableFuture<VanishChanges> refreshAsync() {
+        if (dbExecutor == null) {
+            return CompletableFuture.completedFuture(refreshNow());
+        }
+        return dbExecutor.supply("vanish-refresh", this::refreshNow);
     }
 
     /**
-     * Lädt alle vanished UUIDs neu aus der Datenbank.
+     * Lädt alle vanished UUIDs neu aus der Datenbank (blockierend).
      * Erwartetes Schema: UUID (varchar 36), Vanished (tinyint 0/1)
+     *
+     * @return geänderte UUIDs, bei Fehlern oder laufendem Refresh VanishChanges.NONE (Snapshot bleibt)
      */
-    public void refreshNow() {
+    public VanishChanges refreshNow() {
+        if (!refreshRunning.compareAndSet(false, true)) {
+            log.debug("PremiumVanishHook: Refresh läuft noch – Durchlauf übersprungen");
+            return VanishChanges.NONE;
+        }
+        try {
+            return loadVanished();
+        } finally {
+            refreshRunning.set(false);
+        }
+    }
+
+    private VanishChanges loadVanished() {
         final String sql = "SELECT UUID FROM " + tableName + " WHERE Vanished = 1";
 
         try (Connection c = dataSource.getConnection();
              PreparedStatement ps = c.prepareStatement(sql);
              ResultSet rs = ps.executeQuery()) {
 
-            Set<UUID> fresh = ConcurrentHashMap.newKeySet();
+            Set<UUID> fresh = new HashSet<>();
 
             while (rs.next()) {
                 String raw = rs.getString(1);
@@ -58,14 +113,40 @@ public class PremiumVanishHook {
                 }
             }
 
-            vanished.clear();
-            vanished.addAll(fresh);
+            Set<UUID> next = Set.copyOf(fresh);
+            Set<UUID> previous = vanished.getAndSet(next);
 
-            log.debug("PremiumVanishHook: Vanish-Cache aktualisiert: {} Spieler", vanished.size());
+            VanishChanges changes = diff(previous, next);
+            log.debug("PremiumVanishHook: Vanish-Cache aktualisiert: {} Spieler ({} neu vanished, {} wieder sichtbar)",
+                    next.size(), changes.nowVanished().size(), changes.nowVisible().size());
+            return changes;
 
         } catch (Exception e) {
             log.warn("PremiumVanishHook: refreshNow fehlgeschlagen: {}", e.getMessage());
             log.debug("PremiumVanishHook Exception bei refreshNow", e);
+            return VanishChanges.NONE;
+        }
+    }
+
+    private static VanishChanges diff(Set<UUID> previous, Set<UUID> next) {
+        if (previous.equals(next)) {
+            return VanishChanges.NONE;
         }
+
+        Set<UUID> nowVanished = new HashSet<>();
+        for (UUID uuid : next) {
+            if (!previous.contains(uuid)) {
+                nowVanished.add(uuid);
+            }
+        }
+
+        Set<UUID> nowVisible = new HashSet<>();
+        for (UUID uuid : previous) {
+            if (!next.contains(uuid)) {
+                nowVisible.add(uuid);
+            }
+        }
+
+        return new VanishChanges(Set.copyOf(nowVanished), Set.copyOf(nowVisible));
     }
 }
\ No newline at end of file
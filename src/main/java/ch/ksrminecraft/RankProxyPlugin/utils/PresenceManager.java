@@ -4,19 +4,160 @@ import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Schreibt Online-, AFK-, LastSeen- und Server-Infos in MySQL.
+ *
+ * Schreibzugriffe werden nicht sofort ausgeführt, sondern pro UUID zu einem
+ * gewünschten Endzustand zusammengefasst (z. B. markOnline + updateServer
+ * = ein Online-Eintrag mit neuem Server). flush() schreibt alle geänderten
+ * Zeilen gebündelt als JDBC-Batch auf dem DbExecutor, höchstens eine Zeile
+ * pro Spieler und Flush.
+ *
+ * Die Methoden liefern einen Future, der mit dem Flush abschliesst,
+ * der die Änderung geschrieben hat.
  */
 public class PresenceManager {
 
+    /**
+     * Art des gewünschten Zustands. PARTIAL = nur Server/AFK ändern.
+     */
+    private enum Kind {
+        ONLINE,
+        VANISHED_LOGIN,
+        HIDDEN,
+        OFFLINE,
+        PARTIAL
+    }
+
+    /**
+     * Gewünschter Endzustand einer UUID bis zum nächsten Flush.
+     *
+     * @param newSession zwischen zwei Flushes offline und wieder online gegangen
+     */
+    private record Pending(Kind kind, String name, String server, boolean serverSet, Boolean afk, boolean newSession) {
+
+        boolean hidesPlayer() {
+            return kind == Kind.HIDDEN || kind == Kind.VANISHED_LOGIN || kind == Kind.OFFLINE;
+        }
+
+        /**
+         * Legt eine neuere Änderung über diesen Zustand.
+         */
+        Pending then(Pending newer) {
+            String mergedName = (newer.name() != null) ? newer.name() : name;
+
+            switch (newer.kind()) {
+                case PARTIAL -> {
+                    // updateServer/updateAfk wirken nur bei is_online=1
+                    if (hidesPlayer()) {
+                        return this;
+                    }
+                    return new Pending(kind, mergedName,
+                            newer.serverSet() ? newer.server() : server,
+                            serverSet || newer.serverSet(),
+                            (newer.afk() != null) ? newer.afk() : afk,
+                            newSession);
+                }
+                case ONLINE -> {
+                    boolean session = newSession || kind == Kind.OFFLINE;
+                    // nach hidden/offline ist AFK zurückgesetzt
+                    Boolean mergedAfk = hidesPlayer() ? Boolean.FALSE : afk;
+                    if (newer.afk() != null) {
+                        mergedAfk = newer.afk();
+                    }
+                    return new Pending(Kind.ONLINE, mergedName, newer.server(), true, mergedAfk, session);
+                }
+                case VANISHED_LOGIN -> {
+                    boolean session = newSession || kind == Kind.OFFLINE;
+                    return new Pending(Kind.VANISHED_LOGIN, mergedName, null, false, null, session);
+                }
+                case HIDDEN -> {
+                    // Vanish-Login setzt zusätzlich last_login und bleibt deshalb stehen
+                    if (kind == Kind.VANISHED_LOGIN) {
+                        return new Pending(kind, mergedName, null, false, null, newSession);
+                    }
+                    return new Pending(Kind.HIDDEN, mergedName, null, false, null, false);
+                }
+                default -> {
+                    return new Pending(Kind.OFFLINE, mergedName, null, false, null, false);
+                }
+            }
+        }
+    }
+
+    private static final String ONLINE_SQL =
+            "INSERT INTO player_presence (uuid, name, is_online, is_afk, server, last_login, last_seen) " +
+                    "VALUES (?, ?, 1, ?, ?, NOW(), IF(?, NOW(), NULL)) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "  name = VALUES(name), " +
+                    "  server = VALUES(server), " +
+                    "  is_afk = IF(?, VALUES(is_afk), IF(is_online = 1, is_afk, 0)), " +
+                    "  last_login = IF(? OR last_login IS NULL OR (last_seen IS NOT NULL AND last_seen >= last_login), NOW(), last_login), " +
+                    "  last_seen = IF(?, NOW(), last_seen), " +
+                    "  is_online = 1";
+
+    private static final String VANISHED_LOGIN_SQL =
+            "INSERT INTO player_presence (uuid, name, is_online, is_afk, server, last_login) " +
+                    "VALUES (?, ?, 0, 0, NULL, NOW()) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "  name = COALESCE(VALUES(name), name), " +
+                    "  is_online = 0, " +
+                    "  is_afk = 0, " +
+                    "  server = NULL, " +
+                    "  last_login = IF(? OR last_login IS NULL OR (last_seen IS NOT NULL AND last_seen >= last_login), NOW(), last_login), " +
+                    "  last_seen = IF(?, NOW(), last_seen)";
+
+    private static final String HIDDEN_SQL =
+            "INSERT INTO player_presence (uuid, name, is_online, is_afk, server) " +
+                    "VALUES (?, ?, 0, 0, NULL) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "  name = COALESCE(VALUES(name), name), " +
+                    "  is_online = 0, " +
+                    "  is_afk = 0, " +
+                    "  server = NULL";
+
+    private static final String OFFLINE_SQL =
+            "INSERT INTO player_presence (uuid, is_online, is_afk, last_seen) " +
+                    "VALUES (?, 0, 0, NOW()) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "  is_online = 0, " +
+                    "  is_afk = 0, " +
+                    "  server = NULL, " +
+                    "  last_seen = NOW()";
+
+    private static final String PARTIAL_SQL =
+            "INSERT INTO player_presence (uuid, server, is_afk) " +
+                    "VALUES (?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE " +
+                    "  server = IF(? AND is_online = 1, VALUES(server), server), " +
+                    "  is_afk = IF(?, IF(is_online = 1, VALUES(is_afk), 0), is_afk)";
+
     private final DataSource dataSource;
     private final LogHelper log;
+    private final DbExecutor dbExecutor;
 
-    public PresenceManager(DataSource dataSource, LogHelper log) {
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+    private volatile CompletableFuture<Void> nextFlush = new CompletableFuture<>();
+    private final AtomicBoolean flushRunning = new AtomicBoolean(false);
+
+    private final LongAdder changesReceived = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+
+    public PresenceManager(DataSource dataSource, LogHelper log, DbExecutor dbExecutor) {
         this.dataSource = dataSource;
         this.log = log;
+        this.dbExecutor = dbExecutor;
 
         try {
             ensureTableExists();
@@ -49,171 +190,213 @@ public class PresenceManager {
         }
     }
 
+    // ---------------------------------------------------------------------
+    // Änderungen vormerken
+    // ---------------------------------------------------------------------
+
     /**
      * Setzt Spieler sichtbar online.
      * last_login wird nur bei echtem Neu-Login aktualisiert.
      */
-    public void markOnline(UUID uuid, String name, String serverNameOrNull) {
-        final String sql =
-                "INSERT INTO player_presence (uuid, name, is_online, server, last_login) " +
-                        "VALUES (?, ?, 1, ?, NOW()) " +
-                        "ON DUPLICATE KEY UPDATE " +
-                        "  name = VALUES(name), " +
-                        "  server = VALUES(server), " +
-                        "  is_online = 1, " +
-                        "  is_afk = IF(is_online = 1, is_afk, 0), " +
-                        "  last_login = IF(last_login IS NULL OR (last_seen IS NOT NULL AND last_seen >= last_login), NOW(), last_login)";
-
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
-            ps.setString(1, uuid.toString());
-            ps.setString(2, name);
-            ps.setString(3, serverNameOrNull);
-            ps.executeUpdate();
-
-            log.trace("PresenceManager: markOnline {} ({}) server={}", name, uuid, serverNameOrNull);
-
-        } catch (SQLException e) {
-            log.warn("PresenceManager: markOnline fehlgeschlagen für {} ({}): {}", name, uuid, e.getMessage());
-            log.debug("PresenceManager Exception bei markOnline für '{}'", name, e);
-        }
+    public CompletableFuture<Void> markOnline(UUID uuid, String name, String serverNameOrNull) {
+        return enqueue(uuid, new Pending(Kind.ONLINE, name, serverNameOrNull, true, null, false));
     }
 
     /**
      * Login während Vanish:
      * last_login korrekt setzen, aber sichtbar offline halten.
      */
-    public void markVanishedLogin(UUID uuid, String name) {
-        final String sql =
-                "INSERT INTO player_presence (uuid, name, is_online, is_afk, server, last_login) " +
-                        "VALUES (?, ?, 0, 0, NULL, NOW()) " +
-                        "ON DUPLICATE KEY UPDATE " +
-                        "  name = VALUES(name), " +
-                        "  is_online = 0, " +
-                        "  is_afk = 0, " +
-                        "  server = NULL, " +
-                        "  last_login = IF(last_login IS NULL OR (last_seen IS NOT NULL AND last_seen >= last_login), NOW(), last_login)";
-
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
-            ps.setString(1, uuid.toString());
-            ps.setString(2, name);
-            ps.executeUpdate();
-
-            log.trace("PresenceManager: markVanishedLogin {} ({})", name, uuid);
-
-        } catch (SQLException e) {
-            log.warn("PresenceManager: markVanishedLogin fehlgeschlagen für {} ({}): {}", name, uuid, e.getMessage());
-            log.debug("PresenceManager Exception bei markVanishedLogin für '{}'", name, e);
-        }
+    public CompletableFuture<Void> markVanishedLogin(UUID uuid, String name) {
+        return enqueue(uuid, new Pending(Kind.VANISHED_LOGIN, name, null, false, null, false));
     }
 
     /**
      * Erzwingt für vanished Spieler: offline + nicht AFK.
      * last_login/last_seen bleiben unverändert.
      */
-    public void forceHidden(UUID uuid, String name) {
-        final String sql =
-                "INSERT INTO player_presence (uuid, name, is_online, is_afk, server) " +
-                        "VALUES (?, ?, 0, 0, NULL) " +
-                        "ON DUPLICATE KEY UPDATE " +
-                        "  name = VALUES(name), " +
-                        "  is_online = 0, " +
-                        "  is_afk = 0, " +
-                        "  server = NULL";
-
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-
-            ps.setString(1, uuid.toString());
-            ps.setString(2, name);
-            ps.executeUpdate();
-
-            log.trace("PresenceManager: forceHidden {} ({})", name, uuid);
-
-        } catch (SQLException e) {
-            log.warn("PresenceManager: forceHidden fehlgeschlagen für {} ({}): {}", name, uuid, e.getMessage());
-            log.debug("PresenceManager Exception bei forceHidden für '{}'", name, e);
-        }
+    public CompletableFuture<Void> forceHidden(UUID uuid, String name) {
+        return enqueue(uuid, new Pending(Kind.HIDDEN, name, null, false, null, false));
     }
 
     /**
      * Aktualisiert nur den Servernamen, aber nur wenn is_online=1.
      */
-    public void updateServer(UUID uuid, String serverNameOrNull) {
-        final String sql =
-                "INSERT INTO player_presence (uuid, server) " +
-                        "VALUES (?, ?) " +
-                        "ON DUPLICATE KEY UPDATE " +
-                        "  server = IF(is_online = 1, VALUES(server), server)";
+    public CompletableFuture<Void> updateServer(UUID uuid, String serverNameOrNull) {
+        return enqueue(uuid, new Pending(Kind.PARTIAL, null, serverNameOrNull, true, null, false));
+    }
 
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+    /**
+     * Setzt AFK-Status, aber nur wenn is_online=1.
+     */
+    public CompletableFuture<Void> updateAfk(UUID uuid, boolean afk) {
+        return enqueue(uuid, new Pending(Kind.PARTIAL, null, null, false, afk, false));
+    }
 
-            ps.setString(1, uuid.toString());
-            ps.setString(2, serverNameOrNull);
-            ps.executeUpdate();
+    /**
+     * Markiert Spieler als offline und setzt last_seen.
+     * AFK wird dabei auf 0 zurückgesetzt.
+     */
+    public CompletableFuture<Void> markOffline(UUID uuid) {
+        return enqueue(uuid, new Pending(Kind.OFFLINE, null, null, false, null, false));
+    }
 
-            log.trace("PresenceManager: updateServer {} server={}", uuid, serverNameOrNull);
+    private CompletableFuture<Void> enqueue(UUID uuid, Pending change) {
+        pending.merge(uuid, change, Pending::then);
+        changesReceived.increment();
+        log.trace("PresenceManager: {} für {} vorgemerkt", change.kind(), uuid);
+        return nextFlush;
+    }
 
-        } catch (SQLException e) {
-            log.warn("PresenceManager: updateServer fehlgeschlagen für {}: {}", uuid, e.getMessage());
-            log.debug("PresenceManager Exception bei updateServer für {}", uuid, e);
+    // ---------------------------------------------------------------------
+    // Flush
+    // ---------------------------------------------------------------------
+
+    /**
+     * Schreibt alle vorgemerkten Änderungen auf dem DbExecutor.
+     * Läuft bereits ein Flush, wird dieser Aufruf übersprungen.
+     */
+    public void flush() {
+        if (pending.isEmpty() || !flushRunning.compareAndSet(false, true)) {
+            return;
         }
+
+        dbExecutor.run("presence-flush", this::flushNow)
+                .whenComplete((v, t) -> flushRunning.set(false));
     }
 
     /**
-     * Setzt AFK-Status, aber nur wenn is_online=1.
+     * Schreibt alle vorgemerkten Änderungen im aufrufenden Thread (Shutdown).
      */
-    public void updateAfk(UUID uuid, boolean afk) {
-        final String sql =
-                "INSERT INTO player_presence (uuid, is_afk) " +
-                        "VALUES (?, ?) " +
-                        "ON DUPLICATE KEY UPDATE " +
-                        "  is_afk = IF(is_online = 1, VALUES(is_afk), 0)";
+    public void flushNow() {
+        CompletableFuture<Void> done = nextFlush;
+        nextFlush = new CompletableFuture<>();
+
+        Map<UUID, Pending> batch = new HashMap<>();
+        for (UUID uuid : pending.keySet()) {
+            Pending p = pending.remove(uuid);
+            if (p != null) {
+                batch.put(uuid, p);
+            }
+        }
 
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+        if (batch.isEmpty()) {
+            done.complete(null);
+            return;
+        }
 
-            ps.setString(1, uuid.toString());
-            ps.setInt(2, afk ? 1 : 0);
-            ps.executeUpdate();
+        try {
+            writeBatch(batch);
+            rowsWritten.add(batch.size());
+            done.complete(null);
 
-            log.trace("PresenceManager: updateAfk {} -> {}", uuid, afk ? "AFK" : "aktiv");
+            log.debug("PresenceManager: {} Zeile(n) geschrieben", batch.size());
 
         } catch (SQLException e) {
-            log.warn("PresenceManager: updateAfk fehlgeschlagen für {}: {}", uuid, e.getMessage());
-            log.debug("PresenceManager Exception bei updateAfk für {}", uuid, e);
+            // zurücklegen – neuere Änderungen liegen darüber
+            batch.forEach((uuid, failed) -> pending.merge(uuid, failed, (current, old) -> old.then(current)));
+            done.completeExceptionally(e);
+
+            log.warn("PresenceManager: Presence-Flush mit {} Zeile(n) fehlgeschlagen, neuer Versuch beim nächsten Flush: {}",
+                    batch.size(), e.getMessage());
+            log.debug("PresenceManager Exception bei flush", e);
         }
     }
 
-    /**
-     * Markiert Spieler als offline und setzt last_seen.
-     * AFK wird dabei auf 0 zurückgesetzt.
-     */
-    public void markOffline(UUID uuid) {
-        final String sql =
-                "INSERT INTO player_presence (uuid, is_online, is_afk, last_seen) " +
-                        "VALUES (?, 0, 0, NOW()) " +
-                        "ON DUPLICATE KEY UPDATE " +
-                        "  is_online = 0, " +
-                        "  is_afk = 0, " +
-                        "  server = NULL, " +
-                        "  last_seen = NOW()";
-
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+    private void writeBatch(Map<UUID, Pending> batch) throws SQLException {
+        Map<Kind, List<Map.Entry<UUID, Pending>>> byKind = new EnumMap<>(Kind.class);
+        for (Map.Entry<UUID, Pending> entry : batch.entrySet()) {
+            byKind.computeIfAbsent(entry.getValue().kind(), k -> new ArrayList<>()).add(entry);
+        }
 
-            ps.setString(1, uuid.toString());
-            ps.executeUpdate();
+        try (Connection c = dataSource.getConnection()) {
+            boolean previousAutoCommit = c.getAutoCommit();
+            c.setAutoCommit(false);
+
+            try {
+                for (Map.Entry<Kind, List<Map.Entry<UUID, Pending>>> group : byKind.entrySet()) {
+                    try (PreparedStatement ps = c.prepareStatement(sqlFor(group.getKey()))) {
+                        for (Map.Entry<UUID, Pending> entry : group.getValue()) {
+                            bind(ps, entry.getKey(), entry.getValue());
+                            ps.addBatch();
+                        }
+                        ps.executeBatch();
+                    }
+                }
+                c.commit();
+
+            } catch (SQLException e) {
+                try {
+                    c.rollback();
+                } catch (SQLException ex) {
+                    log.debug("PresenceManager Exception beim Rollback", ex);
+                }
+                throw e;
+            } finally {
+                c.setAutoCommit(previousAutoCommit);
+            }
+        }
+    }
 
-            log.trace("PresenceManager: markOffline {}", uuid);
+    private static String sqlFor(Kind kind) {
+        return switch (kind) {
+            case ONLINE -> ONLINE_SQL;
+            case VANISHED_LOGIN -> VANISHED_LOGIN_SQL;
+            case HIDDEN -> HIDDEN_SQL;
+            case OFFLINE -> OFFLINE_SQL;
+            case PARTIAL -> PARTIAL_SQL;
+        };
+    }
 
-        } catch (SQLException e) {
-            log.warn("PresenceManager: markOffline fehlgeschlagen für {}: {}", uuid, e.getMessage());
-            log.debug("PresenceManager Exception bei markOffline für {}", uuid, e);
+    private static void bind(PreparedStatement ps, UUID uuid, Pending p) throws SQLException {
+        ps.setString(1, uuid.toString());
+
+        switch (p.kind()) {
+            case ONLINE -> {
+                ps.setString(2, p.name());
+                ps.setInt(3, Boolean.TRUE.equals(p.afk()) ? 1 : 0);
+                ps.setString(4, p.server());
+                ps.setBoolean(5, p.newSession());
+                ps.setBoolean(6, p.afk() != null);
+                ps.setBoolean(7, p.newSession());
+                ps.setBoolean(8, p.newSession());
+            }
+            case VANISHED_LOGIN -> {
+                ps.setString(2, p.name());
+                ps.setBoolean(3, p.newSession());
+                ps.setBoolean(4, p.newSession());
+            }
+            case HIDDEN -> ps.setString(2, p.name());
+            case OFFLINE -> {
+                // nur UUID
+            }
+            case PARTIAL -> {
+                ps.setString(2, p.server());
+                ps.setInt(3, Boolean.TRUE.equals(p.afk()) ? 1 : 0);
+                ps.setBoolean(4, p.serverSet());
+                ps.setBoolean(5, p.afk() != null);
+            }
         }
     }
-}
\ No newline at end of file
+
+    // ---------------------------------------------------------------------
+    // Statistik
+    // ---------------------------------------------------------------------
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Anzahl vorgemerkter Änderungen (vor dem Zusammenfassen).
+     */
+    public long getChangesReceived() {
+        return changesReceived.sum();
+    }
+
+    /**
+     * Anzahl tatsächlich geschriebener Zeilen.
+     */
+    public long getRowsWritten() {
+        return rowsWritten.sum();
+    }
+}
@@ -1,6 +1,5 @@
 package ch.ksrminecraft.RankProxyPlugin.utils;
 
-import ch.ksrminecraft.RankPointsAPI.PointsAPI;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import com.velocitypowered.api.scheduler.Scheduler;
@@ -10,48 +9,189 @@ import net.luckperms.api.model.user.User;
 import net.luckperms.api.node.NodeType;
 import net.luckperms.api.node.types.InheritanceNode;
 
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * Kümmert sich um automatische Promotion/Demotion anhand von Punkten.
  *
  * Staff-Wechsel werden zentral über StaffPermissionService geregelt
  * und hier bewusst nicht behandelt.
+ *
+ * Ablauf pro Spieler als CompletableFuture-Pipeline:
+ * loadUser -> Entscheidung (Staff, Punkte, Zielrang) -> saveUser -> Push/Nachricht
+ *
+ * - LuckPerms-Schritte haben je ein eigenes Timeout
+ * - Entscheidung und Abschluss laufen auf einem eigenen Executor
+ * - höchstens max-concurrent Prüfungen gleichzeitig, der Rest wartet
+ * - pro UUID läuft höchstens eine Prüfung, weitere Anfragen hängen sich an
  */
 public class PromotionManager {
 
+    private static final int DEFAULT_MAX_CONCURRENT = 8;
+    private static final int DEFAULT_STEP_TIMEOUT_SECONDS = 10;
+
+    /**
+     * Ergebnis der Entscheidungsphase: was gespeichert werden muss.
+     */
+    private record Decision(User user, String targetGroup, boolean demotion, boolean defaultGroup) {
+        static Decision none() {
+            return new Decision(null, null, false, false);
+        }
+
+        boolean needsSave() {
+            return user != null;
+        }
+    }
+
+    /**
+     * Fehler in einem Pipeline-Schritt (für das Logging).
+     */
+    private static final class StepFailure extends RuntimeException {
+        private final String step;
+
+        StepFailure(String step, Throwable cause) {
+            super(cause);
+            this.step = step;
+        }
+    }
+
+    /**
+     * Laufende Prüfung eines Spielers. Anfragen, die währenddessen eintreffen,
+     * markieren sie als veraltet; danach folgt genau eine weitere Prüfung.
+     */
+    private static final class Evaluation {
+        final CompletableFuture<Void> future = new CompletableFuture<>();
+        private boolean dirty;
+        private boolean finished;
+
+        /**
+         * @return false, wenn die Prüfung schon abgeschlossen ist
+         */
+        synchronized boolean markDirty() {
+            if (finished) {
+                return false;
+            }
+            dirty = true;
+            return true;
+        }
+
+        /**
+         * @return true, wenn nochmals geprüft werden muss
+         */
+        synchronized boolean finishOrRerun() {
+            if (dirty) {
+                dirty = false;
+                return true;
+            }
+            finished = true;
+            return false;
+        }
+    }
+
     private final LuckPerms luckPerms;
     private final RankManager rankManager;
     private final StafflistManager stafflistManager;
-    private final PointsAPI pointsApi;
+    private final PointsService pointsService;
     private final LogHelper log;
     private final String defaultGroupName;
     private final ProxyServer server;
     private final Scheduler scheduler;
     private final Object pluginInstance;
+    private final PromotionThresholdTracker thresholdTracker;
+
+    private final ExecutorService executor;
+    private final Semaphore permits;
+    private final long stepTimeoutMillis;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final Map<UUID, Evaluation> inFlight = new ConcurrentHashMap<>();
+
+    private volatile MetricsRegistry metrics = MetricsRegistry.NOOP;
 
     public PromotionManager(
             LuckPerms luckPerms,
             RankManager rankManager,
             StafflistManager stafflistManager,
-            PointsAPI pointsApi,
+            PointsService pointsService,
             LogHelper log,
             String defaultGroupName,
             ProxyServer server,
             Scheduler scheduler,
             Object pluginInstance
+    ) {
+        this(luckPerms, rankManager, stafflistManager, pointsService, log, defaultGroupName,
+                server, scheduler, pluginInstance, DEFAULT_MAX_CONCURRENT, DEFAULT_STEP_TIMEOUT_SECONDS);
+    }
+
+    public PromotionManager(
+            LuckPerms luckPerms,
+            RankManager rankManager,
+            StafflistManager stafflistManager,
+            PointsService pointsService,
+            LogHelper log,
+            String defaultGroupName,
+            ProxyServer server,
+            Scheduler scheduler,
+            Object pluginInstance,
+            int maxConcurrent,
+            int stepTimeoutSeconds
     ) {
         this.luckPerms = luckPerms;
         this.rankManager = rankManager;
         this.stafflistManager = stafflistManager;
-        this.pointsApi = pointsApi;
+        this.pointsService = pointsService;
         this.log = log;
         this.defaultGroupName = defaultGroupName;
         this.server = server;
         this.scheduler = scheduler;
         this.pluginInstance = pluginInstance;
+        this.thresholdTracker = new PromotionThresholdTracker(rankManager, log);
+
+        int concurrency = Math.max(1, maxConcurrent);
+        this.permits = new Semaphore(concurrency);
+        this.stepTimeoutMillis = Math.max(1, stepTimeoutSeconds) * 1000L;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread t = new Thread(r, "RankProxy-Promotion-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Misst loadUser/saveUser als luckperms_seconds{op=...}.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = (metrics == null) ? MetricsRegistry.NOOP : metrics;
+    }
+
+    /**
+     * Rang-Grenzen der Online-Spieler für die ereignisgesteuerte Promotion.
+     */
+    public PromotionThresholdTracker getThresholdTracker() {
+        return thresholdTracker;
+    }
+
+    /**
+     * Anzahl Prüfungen, die gerade laufen oder auf einen freien Platz warten.
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
     }
 
     /**
@@ -64,59 +204,146 @@ public class PromotionManager {
     }
 
     /**
-     * Hauptlogik für Promotion/Demotion anhand von Punkten.
-     * Staff wird hier bewusst übersprungen.
+     * Blockierende Variante für Commands: wartet, bis die Prüfung fertig ist.
+     * Scheduler und Listener verwenden evaluateAsync().
      */
     public void handleLogin(UUID uuid, String playerName) {
-        log.debug("PromotionManager.handleLogin aufgerufen für {} ({})", playerName, uuid);
-
-        final User user;
         try {
-            user = luckPerms.getUserManager().loadUser(uuid).join();
-            if (user == null) {
-                log.warn("PromotionManager: LuckPerms-User für {} ({}) konnte nicht geladen werden", playerName, uuid);
+            evaluateAsync(uuid, playerName).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // evaluateAsync() schliesst immer normal ab – reine Absicherung
+            log.debug("PromotionManager Exception bei handleLogin für '{}'", playerName, e);
+        }
+    }
+
+    /**
+     * Hauptlogik für Promotion/Demotion anhand von Punkten, nicht blockierend.
+     * Staff wird hier bewusst übersprungen.
+     *
+     * Läuft für den Spieler bereits eine Prüfung, hat sie die Punkte evtl. vor
+     * der auslösenden Änderung gelesen. Sie wird dann einmal wiederholt, und
+     * der Future schliesst erst nach dieser Wiederholung.
+     *
+     * Der Future schliesst immer normal ab; Fehler werden hier geloggt.
+     */
+    public CompletableFuture<Void> evaluateAsync(UUID uuid, String playerName) {
+        while (true) {
+            Evaluation created = new Evaluation();
+            Evaluation existing = inFlight.putIfAbsent(uuid, created);
+            if (existing == null) {
+                runEvaluation(uuid, playerName, created);
+                return created.future;
+            }
+            if (existing.markDirty()) {
+                log.trace("PromotionManager: Prüfung für {} läuft bereits – wird danach wiederholt", playerName);
+                return existing.future;
+            }
+            // gerade fertig geworden, aber noch eingetragen
+            inFlight.remove(uuid, existing);
+        }
+    }
+
+    private void runEvaluation(UUID uuid, String playerName, Evaluation evaluation) {
+        submit(() -> runPipeline(uuid, playerName)).whenComplete((v, t) -> {
+            if (evaluation.finishOrRerun()) {
+                log.trace("PromotionManager: Prüfung für {} wird mit aktuellem Stand wiederholt", playerName);
+                runEvaluation(uuid, playerName, evaluation);
                 return;
             }
-        } catch (Exception e) {
-            log.error("PromotionManager: Konnte LuckPerms-User für {} nicht laden: {}", playerName, e.getMessage());
-            log.debug("PromotionManager Exception beim Laden des Users für '{}'", playerName, e);
-            return;
+            inFlight.remove(uuid, evaluation);
+            evaluation.future.complete(null);
+        });
+    }
+
+    /**
+     * Beendet den Executor beim Shutdown. Laufende Prüfungen dürfen kurz fertig werden.
+     */
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(stepTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Pipeline
+    // ---------------------------------------------------------------------
+
+    private CompletableFuture<Void> runPipeline(UUID uuid, String playerName) {
+        log.debug("PromotionManager.evaluateAsync aufgerufen für {} ({})", playerName, uuid);
+
+        return withTimeout("loadUser", luckPerms.getUserManager().loadUser(uuid))
+                .thenApplyAsync(user -> decide(uuid, playerName, user), executor)
+                .thenCompose(decision -> {
+                    if (!decision.needsSave()) {
+                        return CompletableFuture.completedFuture(decision);
+                    }
+                    return withTimeout("saveUser", luckPerms.getUserManager().saveUser(decision.user()))
+                            .thenApply(v -> decision);
+                })
+                .thenAcceptAsync(decision -> complete(uuid, playerName, decision), executor)
+                .exceptionally(t -> {
+                    handleFailure(uuid, playerName, t);
+                    return null;
+                });
+    }
+
+    /**
+     * Entscheidungsphase (Executor-Thread): Staff-Check, Punkte, Zielrang.
+     * Ändert bei Bedarf die Gruppen am User, gespeichert wird danach.
+     */
+    private Decision decide(UUID uuid, String playerName, User user) {
+        if (user == null) {
+            log.warn("PromotionManager: LuckPerms-User für {} ({}) konnte nicht geladen werden", playerName, uuid);
+            return Decision.none();
         }
 
         // Staff wird hier bewusst nicht behandelt
         try {
             if (stafflistManager != null && stafflistManager.isStaff(uuid)) {
                 log.debug("PromotionManager: {} ({}) ist Staff, normale Promotion-Logik wird übersprungen", playerName, uuid);
-                return;
+                if (isOnline(uuid)) {
+                    thresholdTracker.suspend(uuid);
+                }
+                return Decision.none();
             }
         } catch (Exception e) {
             log.warn("PromotionManager: Konnte Stafflist für {} nicht prüfen – Promotion wird vorsorglich übersprungen: {}",
                     playerName, e.getMessage());
             log.debug("PromotionManager Exception beim Staff-Check für '{}'", playerName, e);
-            return;
+            return Decision.none();
         }
 
         // Punkte laden
         final int points;
         try {
-            points = pointsApi.getPoints(uuid);
+            points = pointsService.getPoints(uuid);
             log.debug("PromotionManager: Punkte für {} geladen: {}", playerName, points);
+            if (isOnline(uuid)) {
+                thresholdTracker.track(uuid, points);
+            }
         } catch (Exception e) {
             log.warn("PromotionManager: Konnte Punkte für {} nicht laden. Standardgruppe '{}' wird gesetzt. Fehler: {}",
                     playerName, defaultGroupName, e.getMessage());
             log.debug("PromotionManager Exception beim Punkteabruf für '{}'", playerName, e);
 
-            ensureDefaultGroup(user, playerName);
-            return;
+            return decideDefaultGroup(user, playerName);
         }
 
-        // Zielrang bestimmen
-        var optRank = rankManager.getRankForPoints(points);
+        // Zielrang bestimmen (eine Leiter für die ganze Prüfung)
+        RankLadder ladder = rankManager.getLadder();
+        var optRank = ladder.getRankForPoints(points);
         if (optRank.isEmpty()) {
             log.info("PromotionManager: Keine passenden Ränge definiert – Standardgruppe '{}' wird gesetzt für {}",
                     defaultGroupName, playerName);
-            ensureDefaultGroup(user, playerName);
-            return;
+            return decideDefaultGroup(user, playerName);
         }
 
         var targetRank = optRank.get();
@@ -125,8 +352,7 @@ public class PromotionManager {
         // aktuellen Rang ermitteln
         String currentRank = user.getNodes(NodeType.INHERITANCE).stream()
                 .map(InheritanceNode::getGroupName)
-                .filter(group -> rankManager.getRankList().stream()
-                        .anyMatch(rank -> rank.name.equalsIgnoreCase(group)))
+                .filter(ladder::contains)
                 .findFirst()
                 .orElse(null);
 
@@ -138,10 +364,10 @@ public class PromotionManager {
 
         if (alreadyInTarget) {
             log.debug("PromotionManager: {} ist bereits in der Zielgruppe '{}'", playerName, targetGroup);
-            return;
+            return Decision.none();
         }
 
-        boolean isDemotion = isDemotion(currentRank, targetGroup);
+        boolean isDemotion = isDemotion(ladder, currentRank, targetGroup);
 
         // Race-Condition-Schutz:
         // Falls der Spieler inzwischen Staff geworden ist, abbrechen.
@@ -149,17 +375,17 @@ public class PromotionManager {
             if (stafflistManager != null && stafflistManager.isStaff(uuid)) {
                 log.debug("PromotionManager: {} wurde während der Promotion-Prüfung Staff. Normale Rangvergabe wird abgebrochen",
                         playerName);
-                return;
+                return Decision.none();
             }
         } catch (Exception e) {
             log.warn("PromotionManager: Konnte Stafflist für {} vor dem Schreiben nicht erneut prüfen – Promotion wird abgebrochen: {}",
                     playerName, e.getMessage());
             log.debug("PromotionManager Exception beim zweiten Staff-Check für '{}'", playerName, e);
-            return;
+            return Decision.none();
         }
 
         // alte Ranggruppen entfernen
-        var rankGroupNames = getRankGroupNamesLowercase();
+        Set<String> rankGroupNames = ladder.getGroupNamesLowercase();
 
         user.getNodes(NodeType.INHERITANCE).stream()
                 .filter(n -> rankGroupNames.contains(n.getGroupName().toLowerCase()))
@@ -168,17 +394,42 @@ public class PromotionManager {
         // neue Ranggruppe setzen
         user.data().add(InheritanceNode.builder(targetGroup).build());
 
-        try {
-            luckPerms.getUserManager().saveUser(user).join();
-            log.debug("PromotionManager: LuckPerms-User für {} gespeichert", playerName);
-        } catch (Exception e) {
-            log.error("PromotionManager: Konnte LuckPerms-Änderungen für {} nicht speichern: {}", playerName, e.getMessage());
-            log.debug("PromotionManager Exception beim saveUser für '{}'", playerName, e);
+        return new Decision(user, targetGroup, isDemotion, false);
+    }
+
+    private Decision decideDefaultGroup(User user, String playerName) {
+        boolean inDefault = user.getNodes(NodeType.INHERITANCE).stream()
+                .anyMatch(n -> n.getGroupName().equalsIgnoreCase(defaultGroupName));
+
+        if (inDefault) {
+            log.debug("PromotionManager: {} ist bereits in der Standard-Laufbahn '{}'", playerName, defaultGroupName);
+            return Decision.none();
+        }
+
+        user.data().add(InheritanceNode.builder(defaultGroupName).build());
+        return new Decision(user, defaultGroupName, false, true);
+    }
+
+    /**
+     * Abschluss nach erfolgreichem saveUser (Executor-Thread).
+     */
+    private void complete(UUID uuid, String playerName, Decision decision) {
+        if (!decision.needsSave()) {
             return;
         }
 
+        log.debug("PromotionManager: LuckPerms-User für {} gespeichert", playerName);
+
         // LuckPerms Messaging
-        pushLuckPermsUserUpdate(user, playerName);
+        pushLuckPermsUserUpdate(decision.user(), playerName);
+
+        if (decision.defaultGroup()) {
+            log.info("PromotionManager: {} wurde in die Standard-Laufbahn '{}' gesetzt", playerName, defaultGroupName);
+            return;
+        }
+
+        String targetGroup = decision.targetGroup();
+        boolean isDemotion = decision.demotion();
 
         if (isDemotion) {
             log.info("PromotionManager: Demotion für {} -> {}", playerName, targetGroup);
@@ -196,6 +447,106 @@ public class PromotionManager {
         });
     }
 
+    private void handleFailure(UUID uuid, String playerName, Throwable t) {
+        Throwable cause = unwrap(t);
+        String step = "Prüfung";
+
+        if (cause instanceof StepFailure failure) {
+            step = failure.step;
+            cause = unwrap(failure.getCause());
+        }
+
+        // Grenzen verwerfen, damit die nächste Gutschrift erneut prüft
+        thresholdTracker.forget(uuid);
+
+        if (cause instanceof TimeoutException) {
+            log.warn("PromotionManager: Timeout bei {} für {} nach {} ms", step, playerName, stepTimeoutMillis);
+            return;
+        }
+
+        log.error("PromotionManager: {} für {} fehlgeschlagen: {}", step, playerName, cause.getMessage());
+        log.debug("PromotionManager Exception bei {} für '{}'", step, playerName, cause);
+    }
+
+    private <T> CompletableFuture<T> withTimeout(String step, CompletableFuture<T> future) {
+        return metrics.timeFuture("luckperms_seconds", "op", step, future)
+                .orTimeout(stepTimeoutMillis, TimeUnit.MILLISECONDS)
+                .handle((value, t) -> {
+                    if (t != null) {
+                        throw new StepFailure(step, unwrap(t));
+                    }
+                    return value;
+                });
+    }
+
+    private static Throwable unwrap(Throwable t) {
+        while (t instanceof CompletionException && t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t;
+    }
+
+    // ---------------------------------------------------------------------
+    // Begrenzte Parallelität
+    // ---------------------------------------------------------------------
+
+    /**
+     * Startet die Pipeline, sobald ein Platz frei ist. Wartende Pipelines
+     * blockieren keinen Thread.
+     */
+    private CompletableFuture<Void> submit(Supplier<CompletableFuture<Void>> pipeline) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+
+        waiting.add(() -> {
+            CompletableFuture<Void> running;
+            try {
+                running = pipeline.get();
+            } catch (Throwable t) {
+                running = CompletableFuture.failedFuture(t);
+            }
+
+            running.whenComplete((v, t) -> {
+                permits.release();
+                drainWaiting();
+
+                if (t != null) {
+                    result.completeExceptionally(t);
+                } else {
+                    result.complete(null);
+                }
+            });
+        });
+
+        drainWaiting();
+        return result;
+    }
+
+    private void drainWaiting() {
+        while (!waiting.isEmpty() && permits.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                permits.release();
+                return;
+            }
+
+            try {
+                executor.execute(next);
+            } catch (Exception e) {
+                // Executor bereits beendet (Shutdown)
+                permits.release();
+                log.debug("PromotionManager: Prüfung nach Shutdown verworfen", e);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------
+    // Hilfsmethoden
+    // ---------------------------------------------------------------------
+
+    private boolean isOnline(UUID uuid) {
+        return server.getPlayer(uuid).isPresent();
+    }
+
     private void pushLuckPermsUserUpdate(User user, String playerName) {
         try {
             var messagingOpt = luckPerms.getMessagingService();
@@ -214,19 +565,13 @@ public class PromotionManager {
         }
     }
 
-    private Set<String> getRankGroupNamesLowercase() {
-        return rankManager.getRankList().stream()
-                .map(r -> r.name.toLowerCase())
-                .collect(Collectors.toSet());
-    }
-
-    private boolean isDemotion(String currentRank, String targetRank) {
+    private boolean isDemotion(RankLadder ladder, String currentRank, String targetRank) {
         if (currentRank == null || targetRank == null) {
             return false;
         }
 
-        int currentIndex = getRankIndex(currentRank);
-        int targetIndex = getRankIndex(targetRank);
+        int currentIndex = ladder.indexOf(currentRank);
+        int targetIndex = ladder.indexOf(targetRank);
 
         if (currentIndex == -1 || targetIndex == -1) {
             return false;
@@ -234,34 +579,4 @@ public class PromotionManager {
 
         return targetIndex < currentIndex;
     }
-
-    private int getRankIndex(String rankName) {
-        for (int i = 0; i < rankManager.getRankList().size(); i++) {
-            if (rankManager.getRankList().get(i).name.equalsIgnoreCase(rankName)) {
-                return i;
-            }
-        }
-        return -1;
-    }
-
-    private void ensureDefaultGroup(User user, String playerName) {
-        boolean inDefault = user.getNodes(NodeType.INHERITANCE).stream()
-                .anyMatch(n -> n.getGroupName().equalsIgnoreCase(defaultGroupName));
-
-        if (!inDefault) {
-            user.data().add(InheritanceNode.builder(defaultGroupName).build());
-
-            try {
-                luckPerms.getUserManager().saveUser(user).join();
-                pushLuckPermsUserUpdate(user, playerName);
-                log.info("PromotionManager: {} wurde in die Standard-Laufbahn '{}' gesetzt", playerName, defaultGroupName);
-            } catch (Exception e) {
-                log.error("PromotionManager: Konnte Standard-Laufbahn '{}' für {} nicht speichern: {}",
-                        defaultGroupName, playerName, e.getMessage());
-                log.debug("PromotionManager Exception bei ensureDefaultGroup für '{}'", playerName, e);
-            }
-        } else {
-            log.debug("PromotionManager: {} ist bereits in der Standard-Laufbahn '{}'", playerName, defaultGroupName);
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Merkt sich pro Online-Spieler den zuletzt bekannten Punktestand und die
+ * Rang-Grenzen, zwischen denen er liegt (aktueller und nächster Rang).
+ *
+ * Der Punkte-Task meldet seine Gutschriften hierher und bekommt nur die
+ * Spieler zurück, die dabei eine Grenze überschritten haben. Nur für diese
+ * wird eine Promotion-Prüfung (LuckPerms + Punkte laden) ausgelöst.
+ *
+ * Spieler ohne bekannte Grenzen (noch nie geprüft, Cache verworfen)
+ * werden ebenfalls zurückgegeben, damit sie einmal geprüft werden.
+ * Änderungen von aussen (Web-UI, andere Server) fängt der optionale
+ * Sicherheits-Durchlauf im SchedulerManager ab.
+ */
+public class PromotionThresholdTracker {
+
+    /**
+     * Punkte im Bereich [lower, upper) ändern den Rang nicht.
+     */
+    private record Band(int points, int lower, int upper) {
+        boolean contains(int value) {
+            return value >= lower && value < upper;
+        }
+    }
+
+    private final RankManager rankManager;
+    private final LogHelper log;
+    private final Map<UUID, Band> bands = new ConcurrentHashMap<>();
+
+    public PromotionThresholdTracker(RankManager rankManager, LogHelper log) {
+        this.rankManager = rankManager;
+        this.log = log;
+    }
+
+    /**
+     * Nach einer Promotion-Prüfung: Punktestand und Rang-Grenzen merken.
+     */
+    public void track(UUID uuid, int points) {
+        int lower = Integer.MIN_VALUE;
+        int upper = Integer.MAX_VALUE;
+
+        var progress = rankManager.getLadder().getRankProgress(points);
+        if (progress.isPresent()) {
+            RankManager.RankProgressInfo info = progress.get();
+            if (info.currentRank != null) {
+                lower = info.currentRank.points;
+            }
+            if (info.nextRank != null) {
+                upper = info.nextRank.points;
+            }
+        }
+
+        bands.put(uuid, new Band(points, lower, upper));
+        log.trace("PromotionThresholdTracker: {} bei {} Punkten, Grenzen [{}, {})", uuid, points, lower, upper);
+    }
+
+    /**
+     * Spieler, deren Rang nicht über Punkte gesteuert wird (Staff):
+     * Punkteänderungen lösen keine Prüfung aus.
+     */
+    public void suspend(UUID uuid) {
+        bands.put(uuid, new Band(0, Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+
+    /**
+     * Verwirft die Grenzen, z. B. bei Disconnect oder Staff-Entfernung.
+     * Die nächste Gutschrift löst dann wieder eine Prüfung aus.
+     */
+    public void forget(UUID uuid) {
+        bands.remove(uuid);
+    }
+
+    /**
+     * Verbucht eine Gutschrift für mehrere Spieler.
+     *
+     * @return Spieler, die eine Rang-Grenze überschritten haben
+     *         oder für die keine Grenzen bekannt sind
+     */
+    public List<UUID> applyDelta(Collection<UUID> uuids, int delta) {
+        List<UUID> toCheck = new ArrayList<>();
+
+        for (UUID uuid : uuids) {
+            Band band = bands.get(uuid);
+            if (band == null) {
+                toCheck.add(uuid);
+                continue;
+            }
+
+            int points = band.points() + delta;
+            if (band.contains(points)) {
+                bands.put(uuid, new Band(points, band.lower(), band.upper()));
+                continue;
+            }
+
+            // Grenze überschritten – neue Grenzen setzt erst die Promotion-Prüfung
+            bands.remove(uuid);
+            toCheck.add(uuid);
+            log.debug("PromotionThresholdTracker: {} hat mit {} Punkten eine Rang-Grenze [{}, {}) überschritten",
+                    uuid, points, band.lower(), band.upper());
+        }
+
+        return toCheck;
+    }
+
+    public int size() {
+        return bands.size();
+    }
+}
@@ -0,0 +1,167 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import ch.ksrminecraft.RankProxyPlugin.utils.RankDisplayHelper.RankDisplayData;
+import ch.ksrminecraft.RankProxyPlugin.utils.RankManager.Rank;
+import ch.ksrminecraft.RankProxyPlugin.utils.RankManager.RankProgressInfo;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Unveränderliche, vorberechnete Rangleiter aus ranks.yaml.
+ *
+ * Wird pro Laden von ranks.yaml einmal gebaut und im RankManager über eine
+ * einzige volatile Referenz veröffentlicht. Leser arbeiten immer auf einem
+ * vollständigen Stand, auch während ranks.yaml neu geladen wird.
+ *
+ * Enthält:
+ * - Ränge aufsteigend nach Punkten
+ * - Punkte-Grenzen als int[] (Binärsuche statt linearem Durchlauf)
+ * - Index pro Rangname (lowercase)
+ * - Anzeige-Daten und LuckPerms-Prefix pro Rang
+ */
+public final class RankLadder {
+
+    public static final RankLadder EMPTY = new RankLadder(List.of());
+
+    private final List<Rank> ranks;
+    private final int[] thresholds;
+    private final Map<String, Integer> indexByName;
+    private final Set<String> groupNamesLowercase;
+    private final RankDisplayData[] displayData;
+    private final String[] prefixes;
+
+    private RankLadder(List<Rank> sortedRanks) {
+        int size = sortedRanks.size();
+
+        this.ranks = List.copyOf(sortedRanks);
+        this.thresholds = new int[size];
+        this.displayData = new RankDisplayData[size];
+        this.prefixes = new String[size];
+
+        Map<String, Integer> names = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Rank rank = sortedRanks.get(i);
+            thresholds[i] = rank.points;
+            displayData[i] = RankDisplayHelper.get(rank.name);
+            prefixes[i] = "&7[" + rank.name.toUpperCase().replace("_", " ") + "] ";
+            // bei doppelten Namen gewinnt der erste (niedrigste) Eintrag
+            names.putIfAbsent(rank.name.toLowerCase(Locale.ROOT), i);
+        }
+
+        this.indexByName = Map.copyOf(names);
+        this.groupNamesLowercase = Set.copyOf(names.keySet());
+    }
+
+    /**
+     * Baut eine Leiter aus beliebig sortierten Rängen.
+     */
+    public static RankLadder of(List<Rank> ranks) {
+        if (ranks == null || ranks.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<Rank> sorted = new ArrayList<>(ranks);
+        sorted.sort(Comparator.comparingInt(r -> r.points));
+        return new RankLadder(sorted);
+    }
+
+    public int size() {
+        return thresholds.length;
+    }
+
+    public boolean isEmpty() {
+        return thresholds.length == 0;
+    }
+
+    public Rank get(int index) {
+        return ranks.get(index);
+    }
+
+    /**
+     * @return unveränderliche Liste, aufsteigend nach Punkten
+     */
+    public List<Rank> getRanks() {
+        return ranks;
+    }
+
+    /**
+     * Index des höchsten Rangs mit threshold <= points, -1 wenn keiner passt.
+     * Bei gleichen Grenzen gewinnt (wie bisher) der letzte Eintrag.
+     */
+    public int indexForPoints(int points) {
+        int low = 0;
+        int high = thresholds.length;
+
+        // erste Position mit threshold > points
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (thresholds[mid] <= points) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        return low - 1;
+    }
+
+    /**
+     * @return Index des Rangs (Name case-insensitive) oder -1
+     */
+    public int indexOf(String rankName) {
+        if (rankName == null) {
+            return -1;
+        }
+        Integer index = indexByName.get(rankName.toLowerCase(Locale.ROOT));
+        return index != null ? index : -1;
+    }
+
+    public boolean contains(String rankName) {
+        return indexOf(rankName) >= 0;
+    }
+
+    /**
+     * Alle Rangnamen in lowercase (unveränderlich).
+     */
+    public Set<String> getGroupNamesLowercase() {
+        return groupNamesLowercase;
+    }
+
+    public RankDisplayData getDisplayData(int index) {
+        return displayData[index];
+    }
+
+    /**
+     * LuckPerms-Prefix, der beim Anlegen der Gruppe gesetzt wird.
+     */
+    public String getPrefix(int index) {
+        return prefixes[index];
+    }
+
+    public Optional<Rank> getRankForPoints(int points) {
+        int index = indexForPoints(points);
+        return index >= 0 ? Optional.of(ranks.get(index)) : Optional.empty();
+    }
+
+    public Optional<RankProgressInfo> getRankProgress(int points) {
+        if (isEmpty()) {
+            return Optional.empty();
+        }
+
+        int index = indexForPoints(points);
+
+        RankProgressInfo info = new RankProgressInfo();
+        info.currentRank = index >= 0 ? ranks.get(index) : null;
+        info.nextRank = (index + 1 < ranks.size()) ? ranks.get(index + 1) : null;
+        info.pointsUntilNext = (info.nextRank != null) ? (info.nextRank.points - points) : 0;
+
+        return Optional.of(info);
+    }
+}
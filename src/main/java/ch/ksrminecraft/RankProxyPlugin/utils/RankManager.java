@@ -18,10 +18,11 @@ import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Base64;
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Lädt und synchronisiert Ränge aus ranks.yaml mit LuckPerms.
@@ -30,16 +31,26 @@ public class RankManager {
 
     private final Path ranksFile;
     private final LuckPerms luckPerms;
-    private final List<Rank> rankList = new ArrayList<>();
     private final LogHelper log;
 
+    // wird bei jedem Laden komplett ersetzt, nie in place verändert
+    private volatile RankLadder ladder = RankLadder.EMPTY;
+
     private String lastHash = "";
 
     public RankManager(Path dataFolder, LogHelper log, LuckPerms luckPerms) {
+        this(dataFolder, log, luckPerms, true);
+    }
+
+    /**
+     * @param syncGroups false = nur ranks.yaml laden; der LuckPerms-Gruppensync
+     *                   wird dann separat über syncRanksWithLuckPerms() angestossen
+     */
+    public RankManager(Path dataFolder, LogHelper log, LuckPerms luckPerms, boolean syncGroups) {
         this.ranksFile = dataFolder.resolve("ranks.yaml");
         this.luckPerms = luckPerms;
         this.log = log;
-        initialize();
+        initialize(syncGroups);
     }
 
     // ---------------------------------------------------------------------
@@ -71,15 +82,17 @@ public class RankManager {
     // ---------------------------------------------------------------------
     // Initialisierung
     // ---------------------------------------------------------------------
-    private void initialize() {
+    private void initialize(boolean syncGroups) {
         try {
             String newHash = computeYamlHash();
 
             if (!newHash.equals(lastHash)) {
                 loadRanks();
-                syncRanksWithLuckPerms();
+                if (syncGroups) {
+                    syncRanksWithLuckPerms();
+                }
                 lastHash = newHash;
-                log.debug("RankManager: ranks.yaml geändert, Ränge neu geladen und synchronisiert");
+                log.debug("RankManager: ranks.yaml geändert, Ränge neu geladen (Gruppensync: {})", syncGroups);
             } else {
                 log.debug("RankManager: ranks.yaml unverändert – keine Neuinitialisierung nötig");
             }
@@ -97,15 +110,21 @@ public class RankManager {
     }
 
     public List<Rank> getRankList() {
-        return Collections.unmodifiableList(rankList);
+        return ladder.getRanks();
+    }
+
+    /**
+     * Aktuelle, unveränderliche Rangleiter. Für mehrere Abfragen
+     * hintereinander einmal holen und lokal verwenden.
+     */
+    public RankLadder getLadder() {
+        return ladder;
     }
 
     // ---------------------------------------------------------------------
     // Laden der Ränge aus ranks.yaml
     // ---------------------------------------------------------------------
     private void loadRanks() throws IOException {
-        rankList.clear();
-
         YamlConfigurationLoader loader = YamlConfigurationLoader.builder()
                 .path(ranksFile)
                 .build();
@@ -116,9 +135,11 @@ public class RankManager {
         if (ranksNode == null || ranksNode.virtual()) {
             log.warn("RankManager: Keine 'ranks'-Sektion in {} gefunden – Ladevorgang wird übersprungen",
                     ranksFile.toAbsolutePath());
+            this.ladder = RankLadder.EMPTY;
             return;
         }
 
+        List<Rank> loaded = new ArrayList<>();
         for (ConfigurationNode rankNode : ranksNode.childrenList()) {
             Rank rank = new Rank();
             rank.name = rankNode.node("name").getString("undefined");
@@ -139,12 +160,13 @@ public class RankManager {
                 rank.rewards.add(reward);
             }
 
-            rankList.add(rank);
+            loaded.add(rank);
             log.trace("RankManager: Rang geladen: {} (points={})", rank.name, rank.points);
         }
 
-        rankList.sort(Comparator.comparingInt(r -> r.points));
-        log.info("RankManager: {} Ränge aus {} geladen", rankList.size(), ranksFile.toAbsolutePath());
+        RankLadder newLadder = RankLadder.of(loaded);
+        this.ladder = newLadder;
+        log.info("RankManager: {} Ränge aus {} geladen", newLadder.size(), ranksFile.toAbsolutePath());
     }
 
     // ---------------------------------------------------------------------
@@ -166,19 +188,29 @@ public class RankManager {
         }
 
         GroupManager groupManager = luckPerms.getGroupManager();
+        RankLadder current = ladder;
         int createdCount = 0;
 
-        for (int i = 0; i < rankList.size(); i++) {
-            Rank rank = rankList.get(i);
+        // Fehlende Gruppen zuerst alle anstossen, damit die Storage-Rundreisen parallel laufen
+        Map<Integer, CompletableFuture<Group>> pending = new HashMap<>();
+        for (int i = 0; i < current.size(); i++) {
+            String groupName = current.get(i).name;
+            if (groupManager.getGroup(groupName) == null) {
+                pending.put(i, groupManager.createAndLoadGroup(groupName));
+            }
+        }
+
+        for (int i = 0; i < current.size(); i++) {
+            Rank rank = current.get(i);
             String groupName = rank.name;
             int weight = i + 1;
-            String prefix = "&7[" + groupName.toUpperCase().replace("_", " ") + "] ";
+            String prefix = current.getPrefix(i);
 
-            Group group = groupManager.getGroup(groupName);
+            CompletableFuture<Group> creation = pending.get(i);
 
-            if (group == null) {
+            if (creation != null) {
                 try {
-                    group = groupManager.createAndLoadGroup(groupName).join();
+                    Group group = creation.join();
                     createdCount++;
                     log.info("RankManager: Neue LuckPerms-Gruppe erstellt: {}", groupName);
 
@@ -206,48 +238,17 @@ public class RankManager {
         }
 
         log.info("RankManager: Gruppensync abgeschlossen – {} neu erstellt, {} bereits vorhanden",
-                createdCount, rankList.size() - createdCount);
+                createdCount, current.size() - createdCount);
     }
 
     // ---------------------------------------------------------------------
     // Rank-Berechnung
     // ---------------------------------------------------------------------
     public Optional<Rank> getRankForPoints(int points) {
-        Rank result = null;
-
-        for (Rank rank : rankList) {
-            if (points >= rank.points) {
-                result = rank;
-            } else {
-                break;
-            }
-        }
-
-        return Optional.ofNullable(result);
+        return ladder.getRankForPoints(points);
     }
 
     public Optional<RankProgressInfo> getRankProgress(int points) {
-        if (rankList.isEmpty()) {
-            return Optional.empty();
-        }
-
-        Rank current = null;
-        Rank next = null;
-
-        for (Rank rank : rankList) {
-            if (points >= rank.points) {
-                current = rank;
-            } else {
-                next = rank;
-                break;
-            }
-        }
-
-        RankProgressInfo info = new RankProgressInfo();
-        info.currentRank = current;
-        info.nextRank = next;
-        info.pointsUntilNext = (next != null) ? (next.points - points) : 0;
-
-        return Optional.of(info);
+        return ladder.getRankProgress(points);
     }
-}
\ No newline at end of file
+}
@@ -1,19 +1,22 @@
 package ch.ksrminecraft.RankProxyPlugin.utils;
 
-import ch.ksrminecraft.RankPointsAPI.PointsAPI;
 import com.velocitypowered.api.proxy.Player;
 import com.velocitypowered.api.proxy.ProxyServer;
 import com.velocitypowered.api.scheduler.Scheduler;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class SchedulerManager {
 
     private final ProxyServer server;
     private final Scheduler scheduler;
-    private final PointsAPI pointsAPI;
+    private final PointsService pointsService;
     private final StafflistManager stafflistManager;
     private final ConfigManager config;
     private final PromotionManager promotionManager;
@@ -22,10 +25,15 @@ public class SchedulerManager {
     private final OfflinePlayerStore offlinePlayerStore;
     private final LogHelper log;
     private final AfkManager afkManager;
+    private final DbExecutor dbExecutor;
+
+    private final AtomicBoolean staffSyncRunning = new AtomicBoolean(false);
+
+    private volatile MetricsRegistry metrics = MetricsRegistry.NOOP;
 
     public SchedulerManager(ProxyServer server,
                             Scheduler scheduler,
-                            PointsAPI pointsAPI,
+                            PointsService pointsService,
                             StafflistManager stafflistManager,
                             ConfigManager config,
                             PromotionManager promotionManager,
@@ -33,13 +41,13 @@ public class SchedulerManager {
                             PendingStaffEventStore pendingStaffEventStore,
                             OfflinePlayerStore offlinePlayerStore,
                             LogHelper log) {
-        this(server, scheduler, pointsAPI, stafflistManager, config, promotionManager,
+        this(server, scheduler, pointsService, stafflistManager, config, promotionManager,
                 staffPermissionService, pendingStaffEventStore, offlinePlayerStore, log, null);
     }
 
     public SchedulerManager(ProxyServer server,
                             Scheduler scheduler,
-                            PointsAPI pointsAPI,
+                            PointsService pointsService,
                             StafflistManager stafflistManager,
                             ConfigManager config,
                             PromotionManager promotionManager,
@@ -48,9 +56,25 @@ public class SchedulerManager {
                             OfflinePlayerStore offlinePlayerStore,
                             LogHelper log,
                             AfkManager afkManager) {
+        this(server, scheduler, pointsService, stafflistManager, config, promotionManager,
+                staffPermissionService, pendingStaffEventStore, offlinePlayerStore, log, afkManager, null);
+    }
+
+    public SchedulerManager(ProxyServer server,
+                            Scheduler scheduler,
+                            PointsService pointsService,
+                            StafflistManager stafflistManager,
+                            ConfigManager config,
+                            PromotionManager promotionManager,
+                            StaffPermissionService staffPermissionService,
+                            PendingStaffEventStore pendingStaffEventStore,
+                            OfflinePlayerStore offlinePlayerStore,
+                            LogHelper log,
+                            AfkManager afkManager,
+                            DbExecutor dbExecutor) {
         this.server = server;
         this.scheduler = scheduler;
-        this.pointsAPI = pointsAPI;
+        this.pointsService = pointsService;
         this.stafflistManager = stafflistManager;
         this.config = config;
         this.promotionManager = promotionManager;
@@ -59,6 +83,15 @@ public class SchedulerManager {
         this.offlinePlayerStore = offlinePlayerStore;
         this.log = log;
         this.afkManager = afkManager;
+        this.dbExecutor = dbExecutor;
+    }
+
+    /**
+     * Laufzeit jedes Tasks als scheduler_task_seconds{task=...},
+     * Promotion-Durchlauf und Staff-Poll bis zum Abschluss der Futures.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = (metrics == null) ? MetricsRegistry.NOOP : metrics;
     }
 
     public void startTasks(Object pluginInstance) {
@@ -66,60 +99,146 @@ public class SchedulerManager {
         startPromotionTask(pluginInstance);
         startAutosaveTask(pluginInstance);
         startStaffSyncTask(pluginInstance);
+
+        if (pointsService.isWriteBehind()) {
+            startLedgerFlushTask(pluginInstance);
+        }
     }
 
     private void startPointTask(Object pluginInstance) {
         int interval = config.getIntervalSeconds();
         int amount = config.getPointAmount();
+        ShardedTick ticks = new ShardedTick(Math.min(config.getTickShards(), interval), config.isSessionAnchoredPoints());
+        long subTickMillis = ticks.getSubTickMillis(interval);
 
-        log.info("SchedulerManager: Starte Punkte-Task alle {}s ({} Punkt(e) pro Intervall)", interval, amount);
+        log.info("SchedulerManager: Starte Punkte-Task alle {}s ({} Punkt(e) pro Intervall, {} Teil-Ticks à {}ms, {})",
+                interval, amount, ticks.getShards(), subTickMillis,
+                config.isSessionAnchoredPoints() ? "ab Sitzungsbeginn" : "nach UUID-Hash");
 
-        scheduler.buildTask(pluginInstance, () -> {
+        scheduler.buildTask(pluginInstance, timed("points", () -> {
             try {
                 log.debug("SchedulerManager: Punkte-Task läuft");
 
-                for (Player player : server.getAllPlayers()) {
-                    UUID uuid = player.getUniqueId();
+                if (!config.isStaffPointsAllowed() && !stafflistManager.isLoaded()) {
+                    log.warn("SchedulerManager: Stafflist noch nicht geladen – Punktevergabe in diesem Durchlauf übersprungen");
+                    stafflistManager.refreshAsync();
+                    return;
+                }
 
-                    try {
-                        if (stafflistManager.isStaff(uuid) && !config.isStaffPointsAllowed()) {
-                            log.trace("SchedulerManager: Punkte übersprungen für {} (Staff, give-points=false)",
-                                    player.getUsername());
-                            continue;
-                        }
-                    } catch (Exception e) {
-                        log.warn("SchedulerManager: Staff-Check für {} fehlgeschlagen – Spieler wird in diesem Durchlauf übersprungen: {}",
-                                player.getUsername(), e.getMessage());
-                        log.debug("SchedulerManager Exception im Punkte-Task beim Staff-Check für '{}'",
-                                player.getUsername(), e);
-                        continue;
-                    }
+                List<UUID> eligible = collectEligibleForPoints(ticks.nextBatch(server.getAllPlayers(), Player::getUniqueId));
+                if (eligible.isEmpty()) {
+                    log.trace("SchedulerManager: Keine berechtigten Spieler für Punktevergabe");
+                    return;
+                }
 
-                    if (afkManager != null && afkManager.isAfk(uuid)) {
-                        log.trace("SchedulerManager: Punkte übersprungen für {} (AFK)", player.getUsername());
-                        continue;
+                runDb("points-tick", () -> {
+                    pointsService.addPointsBatch(eligible, amount);
+
+                    if (config.isEventDrivenPromotion()) {
+                        checkThresholdCrossings(eligible, amount);
                     }
 
-                    pointsAPI.addPoints(uuid, amount);
-                    log.trace("SchedulerManager: {} Punkt(e) an {} vergeben", amount, player.getUsername());
-                }
+                    PointsCache cache = pointsService.getCache();
+                    if (cache != null) {
+                        log.debug("SchedulerManager: Punkte-Cache {} Einträge, Hit-Rate {}%, {} Evictions",
+                                cache.size(), Math.round(cache.getHitRatio() * 100), cache.getEvictionCount());
+                    }
+                });
             } catch (Throwable t) {
                 log.error("SchedulerManager: Unbehandelte Exception im Punkte-Task: {}", t.getMessage());
                 log.debug("SchedulerManager Throwable im Punkte-Task", t);
             }
-        }).delay(interval, TimeUnit.SECONDS).repeat(interval, TimeUnit.SECONDS).schedule();
+        })).delay(subTickMillis, TimeUnit.MILLISECONDS).repeat(subTickMillis, TimeUnit.MILLISECONDS).schedule();
     }
 
-    private void startPromotionTask(Object pluginInstance) {
-        int promotionInterval = config.getPromotionIntervalSeconds();
+    /**
+     * Ereignisgesteuerte Promotion: nur Spieler prüfen, deren Gutschrift
+     * eine Rang-Grenze überschritten hat (oder deren Grenzen unbekannt sind).
+     */
+    private void checkThresholdCrossings(List<UUID> credited, int amount) {
+        List<UUID> toCheck = promotionManager.getThresholdTracker().applyDelta(credited, amount);
+        if (toCheck.isEmpty()) {
+            return;
+        }
+
+        log.debug("SchedulerManager: {} von {} Spieler(n) für Promotion-Prüfung vorgemerkt", toCheck.size(), credited.size());
+
+        for (UUID uuid : toCheck) {
+            server.getPlayer(uuid).ifPresent(player ->
+                    promotionManager.evaluateAsync(uuid, player.getUsername()));
+        }
+    }
+
+    /**
+     * Sammelt alle Online-Spieler, die in diesem Durchlauf Punkte erhalten
+     * (nicht Staff bei give-points=false, nicht AFK).
+     */
+    private List<UUID> collectEligibleForPoints(List<Player> due) {
+        boolean staffPointsAllowed = config.isStaffPointsAllowed();
+        List<UUID> eligible = new ArrayList<>();
+
+        for (Player player : due) {
+            UUID uuid = player.getUniqueId();
+
+            try {
+                if (!staffPointsAllowed && stafflistManager.isStaff(uuid)) {
+                    log.trace("SchedulerManager: Punkte übersprungen für {} (Staff, give-points=false)",
+                            player.getUsername());
+                    continue;
+                }
+            } catch (Exception e) {
+                log.warn("SchedulerManager: Staff-Check für {} fehlgeschlagen – Spieler wird in diesem Durchlauf übersprungen: {}",
+                        player.getUsername(), e.getMessage());
+                log.debug("SchedulerManager Exception im Punkte-Task beim Staff-Check für '{}'",
+                        player.getUsername(), e);
+                continue;
+            }
 
-        log.info("SchedulerManager: Starte Promotion-Task alle {}s", promotionInterval);
+            if (afkManager != null && afkManager.isAfk(uuid)) {
+                log.trace("SchedulerManager: Punkte übersprungen für {} (AFK)", player.getUsername());
+                continue;
+            }
+
+            eligible.add(uuid);
+        }
+
+        return eligible;
+    }
 
-        scheduler.buildTask(pluginInstance, () -> {
+    /**
+     * Polling-Modus: alle promotion-interval-seconds alle Online-Spieler prüfen.
+     * Ereignisgesteuerter Modus: nur seltener Sicherheits-Durchlauf
+     * (promotion-sweep-interval-seconds, 0 = aus).
+     */
+    private void startPromotionTask(Object pluginInstance) {
+        int promotionInterval;
+        if (config.isEventDrivenPromotion()) {
+            promotionInterval = config.getPromotionSweepIntervalSeconds();
+            if (promotionInterval <= 0) {
+                log.info("SchedulerManager: Promotion ereignisgesteuert, Sicherheits-Durchlauf deaktiviert");
+                return;
+            }
+            log.info("SchedulerManager: Promotion ereignisgesteuert, Sicherheits-Durchlauf alle {}s", promotionInterval);
+        } else {
+            promotionInterval = config.getPromotionIntervalSeconds();
+            log.info("SchedulerManager: Starte Promotion-Task alle {}s", promotionInterval);
+        }
+
+        // Promotion braucht keinen Sitzungsbezug – Verteilung nach UUID-Hash genügt
+        ShardedTick ticks = new ShardedTick(Math.min(config.getTickShards(), promotionInterval), false);
+        long subTickMillis = ticks.getSubTickMillis(promotionInterval);
+        if (ticks.getShards() > 1) {
+            log.info("SchedulerManager: Promotion-Durchlauf in {} Teil-Ticks à {}ms", ticks.getShards(), subTickMillis);
+        }
+
+        scheduler.buildTask(pluginInstance, timed("promotion", () -> {
             try {
                 log.debug("SchedulerManager: Promotion-Task läuft");
 
-                for (Player player : server.getAllPlayers()) {
+                long start = System.nanoTime();
+                List<Player> candidates = new ArrayList<>();
+
+                for (Player player : ticks.nextBatch(server.getAllPlayers(), Player::getUniqueId)) {
                     UUID uuid = player.getUniqueId();
 
                     try {
@@ -136,13 +255,68 @@ public class SchedulerManager {
                         continue;
                     }
 
-                    promotionManager.handleLogin(uuid, player.getUsername());
+                    candidates.add(player);
                 }
+
+                prefetchPoints(candidates).thenCompose(v -> {
+                    List<CompletableFuture<Void>> checks = new ArrayList<>();
+                    for (Player player : candidates) {
+                        checks.add(promotionManager.evaluateAsync(player.getUniqueId(), player.getUsername()));
+                    }
+                    return CompletableFuture.allOf(checks.toArray(new CompletableFuture[0]));
+                }).thenRun(() -> {
+                    long elapsed = System.nanoTime() - start;
+                    metrics.recordNanos("promotion_sweep_seconds", elapsed);
+                    log.debug("SchedulerManager: Promotion-Durchlauf mit {} Prüfung(en) in {} ms abgeschlossen",
+                            candidates.size(), elapsed / 1_000_000L);
+                });
             } catch (Throwable t) {
                 log.error("SchedulerManager: Unbehandelte Exception im Promotion-Task: {}", t.getMessage());
                 log.debug("SchedulerManager Throwable im Promotion-Task", t);
             }
-        }).delay(promotionInterval, TimeUnit.SECONDS).repeat(promotionInterval, TimeUnit.SECONDS).schedule();
+        })).delay(subTickMillis, TimeUnit.MILLISECONDS).repeat(subTickMillis, TimeUnit.MILLISECONDS).schedule();
+    }
+
+    /**
+     * Lädt die Punkte aller Kandidaten mit einem Mehrfach-Lesezugriff in den
+     * Cache, damit die einzelnen Prüfungen danach keine eigene Abfrage brauchen.
+     * Ohne Cache (oder bei Fehlern) prüft jede Promotion wie bisher selbst.
+     */
+    private CompletableFuture<Void> prefetchPoints(List<Player> candidates) {
+        if (pointsService.getCache() == null || candidates.size() < 2) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        List<UUID> uuids = new ArrayList<>(candidates.size());
+        for (Player player : candidates) {
+            uuids.add(player.getUniqueId());
+        }
+
+        Runnable prefetch = () -> pointsService.getPoints(uuids);
+        CompletableFuture<Void> future = (dbExecutor != null)
+                ? dbExecutor.run("points-prefetch", prefetch)
+                : CompletableFuture.runAsync(prefetch);
+
+        return future.exceptionally(t -> {
+            log.warn("SchedulerManager: Punkte-Vorabladen für {} Spieler fehlgeschlagen: {}", uuids.size(), t.getMessage());
+            log.debug("SchedulerManager Exception beim Punkte-Vorabladen", t);
+            return null;
+        });
+    }
+
+    private void startLedgerFlushTask(Object pluginInstance) {
+        int flushInterval = Math.max(1, config.getWriteBehindFlushIntervalSeconds());
+
+        log.info("SchedulerManager: Starte Punkte-Flush-Task (write-behind) alle {}s", flushInterval);
+
+        scheduler.buildTask(pluginInstance, timed("points-flush", () -> {
+            try {
+                runDb("points-flush", pointsService::flush);
+            } catch (Throwable t) {
+                log.error("SchedulerManager: Unbehandelte Exception im Punkte-Flush-Task: {}", t.getMessage());
+                log.debug("SchedulerManager Throwable im Punkte-Flush-Task", t);
+            }
+        })).delay(flushInterval, TimeUnit.SECONDS).repeat(flushInterval, TimeUnit.SECONDS).schedule();
     }
 
     private void startAutosaveTask(Object pluginInstance) {
@@ -150,7 +324,7 @@ public class SchedulerManager {
 
         log.info("SchedulerManager: Starte Autosave-Task alle {}s", autosaveInterval);
 
-        scheduler.buildTask(pluginInstance, () -> {
+        scheduler.buildTask(pluginInstance, timed("autosave", () -> {
             try {
                 offlinePlayerStore.save();
                 log.debug("SchedulerManager: OfflinePlayerStore gespeichert");
@@ -158,7 +332,7 @@ public class SchedulerManager {
                 log.error("SchedulerManager: Unbehandelte Exception beim Autosave: {}", t.getMessage());
                 log.debug("SchedulerManager Throwable im Autosave-Task", t);
             }
-        }).delay(autosaveInterval, TimeUnit.SECONDS).repeat(autosaveInterval, TimeUnit.SECONDS).schedule();
+        })).delay(autosaveInterval, TimeUnit.SECONDS).repeat(autosaveInterval, TimeUnit.SECONDS).schedule();
     }
 
     private void startStaffSyncTask(Object pluginInstance) {
@@ -166,77 +340,117 @@ public class SchedulerManager {
 
         log.info("SchedulerManager: Starte Staff-Sync-Task alle {}s", interval);
 
-        scheduler.buildTask(pluginInstance, () -> {
-            try {
-                StafflistManager.StaffChanges changes = stafflistManager.pollStaffChanges();
-
-                if (changes.isEmpty()) {
-                    log.trace("SchedulerManager: Keine Staff-Änderungen erkannt");
-                    return;
-                }
-
-                for (Map.Entry<UUID, String> entry : changes.added().entrySet()) {
-                    UUID uuid = entry.getKey();
-                    String name = entry.getValue();
+        scheduler.buildTask(pluginInstance, timed("staff-sync", () -> {
+            // kein zweiter Poll, solange der vorherige noch läuft
+            if (!staffSyncRunning.compareAndSet(false, true)) {
+                log.debug("SchedulerManager: Staff-Sync läuft noch – Durchlauf übersprungen");
+                return;
+            }
 
-                    log.info("SchedulerManager: Neuer Staff-Eintrag erkannt: {} ({})", name, uuid);
+            metrics.timeFuture("staff_poll_seconds", null, null, stafflistManager.pollStaffChangesAsync())
+                    .thenAccept(changes -> applyStaffChanges(changes, pluginInstance))
+                    .exceptionally(t -> {
+                        log.error("SchedulerManager: Unbehandelte Exception im Staff-Sync-Task: {}", t.getMessage());
+                        log.debug("SchedulerManager Throwable im Staff-Sync-Task", t);
+                        return null;
+                    })
+                    .whenComplete((v, t) -> staffSyncRunning.set(false));
+        })).delay(interval, TimeUnit.SECONDS).repeat(interval, TimeUnit.SECONDS).schedule();
+    }
 
-                    StaffPermissionService.PermissionSyncResult result =
-                            staffPermissionService.promoteToStaff(uuid, name);
+    /**
+     * Setzt erkannte Stafflist-Änderungen in LuckPerms um
+     * (läuft nach dem DB-Poll auf dem DbExecutor-Thread, ohne Verbindung).
+     */
+    private void applyStaffChanges(StafflistManager.StaffChanges changes, Object pluginInstance) {
+        if (changes.isEmpty()) {
+            log.trace("SchedulerManager: Keine Staff-Änderungen erkannt");
+            return;
+        }
+
+        for (Map.Entry<UUID, String> entry : changes.added().entrySet()) {
+            UUID uuid = entry.getKey();
+            String name = entry.getValue();
+
+            log.info("SchedulerManager: Neuer Staff-Eintrag erkannt: {} ({})", name, uuid);
+
+            StaffPermissionService.PermissionSyncResult result =
+                    staffPermissionService.promoteToStaff(uuid, name);
+
+            if (!result.success()) {
+                log.warn("SchedulerManager: LuckPerms-Umstellung beim Hinzufügen von {} ({}) fehlgeschlagen",
+                        name, uuid);
+                continue;
+            }
 
-                    if (!result.success()) {
-                        log.warn("SchedulerManager: LuckPerms-Umstellung beim Hinzufügen von {} ({}) fehlgeschlagen",
-                                name, uuid);
-                        continue;
-                    }
+            if (!result.changed()) {
+                log.debug("SchedulerManager: {} ({}) war bereits korrekt Staff", name, uuid);
+            }
 
-                    if (!result.changed()) {
-                        log.debug("SchedulerManager: {} ({}) war bereits korrekt Staff", name, uuid);
-                    }
+            server.getPlayer(uuid).ifPresentOrElse(player -> {
+                PromotionMessageSender.sendStaffAppointment(player, scheduler, pluginInstance);
+                log.info("SchedulerManager: Staff-Event an online Spieler {} gesendet", name);
+            }, () -> {
+                pendingStaffEventStore.setPending(uuid, PendingStaffEventStore.PendingStaffEventType.APPOINTMENT);
+                log.info("SchedulerManager: {} ({}) ist offline – Staff-Event wird beim nächsten Login nachgeholt",
+                        name, uuid);
+            });
+        }
 
-                    server.getPlayer(uuid).ifPresentOrElse(player -> {
-                        PromotionMessageSender.sendStaffAppointment(player, scheduler, pluginInstance);
-                        log.info("SchedulerManager: Staff-Event an online Spieler {} gesendet", name);
-                    }, () -> {
-                        pendingStaffEventStore.setPending(uuid, PendingStaffEventStore.PendingStaffEventType.APPOINTMENT);
-                        log.info("SchedulerManager: {} ({}) ist offline – Staff-Event wird beim nächsten Login nachgeholt",
-                                name, uuid);
-                    });
-                }
+        for (Map.Entry<UUID, String> entry : changes.removed().entrySet()) {
+            UUID uuid = entry.getKey();
+            String name = entry.getValue();
 
-                for (Map.Entry<UUID, String> entry : changes.removed().entrySet()) {
-                    UUID uuid = entry.getKey();
-                    String name = entry.getValue();
+            log.info("SchedulerManager: Entfernter Staff-Eintrag erkannt: {} ({})", name, uuid);
 
-                    log.info("SchedulerManager: Entfernter Staff-Eintrag erkannt: {} ({})", name, uuid);
+            StaffPermissionService.PermissionSyncResult result =
+                    staffPermissionService.demoteFromStaff(uuid, name);
 
-                    StaffPermissionService.PermissionSyncResult result =
-                            staffPermissionService.demoteFromStaff(uuid, name);
+            // Rang-Grenzen neu bestimmen lassen (Staff war pausiert)
+            promotionManager.getThresholdTracker().forget(uuid);
 
-                    if (!result.success()) {
-                        log.warn("SchedulerManager: LuckPerms-Umstellung beim Entfernen von {} ({}) fehlgeschlagen",
-                                name, uuid);
-                        continue;
-                    }
+            if (!result.success()) {
+                log.warn("SchedulerManager: LuckPerms-Umstellung beim Entfernen von {} ({}) fehlgeschlagen",
+                        name, uuid);
+                continue;
+            }
 
-                    if (!result.changed()) {
-                        log.debug("SchedulerManager: {} ({}) war bereits korrekt nicht mehr Staff", name, uuid);
-                    }
+            if (!result.changed()) {
+                log.debug("SchedulerManager: {} ({}) war bereits korrekt nicht mehr Staff", name, uuid);
+            }
 
-                    server.getPlayer(uuid).ifPresentOrElse(player -> {
-                        PromotionMessageSender.sendStaffRemoval(player, scheduler, pluginInstance);
-                        log.info("SchedulerManager: Staff-Removal-Event an online Spieler {} gesendet", name);
-                    }, () -> {
-                        pendingStaffEventStore.setPending(uuid, PendingStaffEventStore.PendingStaffEventType.REMOVAL);
-                        log.info("SchedulerManager: {} ({}) ist offline – Staff-Removal-Event wird beim nächsten Login nachgeholt",
-                                name, uuid);
-                    });
-                }
+            server.getPlayer(uuid).ifPresentOrElse(player -> {
+                PromotionMessageSender.sendStaffRemoval(player, scheduler, pluginInstance);
+                log.info("SchedulerManager: Staff-Removal-Event an online Spieler {} gesendet", name);
+            }, () -> {
+                pendingStaffEventStore.setPending(uuid, PendingStaffEventStore.PendingStaffEventType.REMOVAL);
+                log.info("SchedulerManager: {} ({}) ist offline – Staff-Removal-Event wird beim nächsten Login nachgeholt",
+                        name, uuid);
+            });
+        }
+    }
 
-            } catch (Throwable t) {
-                log.error("SchedulerManager: Unbehandelte Exception im Staff-Sync-Task: {}", t.getMessage());
-                log.debug("SchedulerManager Throwable im Staff-Sync-Task", t);
+    private Runnable timed(String taskName, Runnable task) {
+        return () -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } finally {
+                metrics.recordNanos("scheduler_task_seconds", "task", taskName, System.nanoTime() - start);
             }
-        }).delay(interval, TimeUnit.SECONDS).repeat(interval, TimeUnit.SECONDS).schedule();
+        };
+    }
+
+    private void runDb(String taskName, Runnable task) {
+        if (dbExecutor == null) {
+            task.run();
+            return;
+        }
+
+        dbExecutor.run(taskName, task).exceptionally(t -> {
+            log.error("SchedulerManager: DB-Aufgabe '{}' fehlgeschlagen: {}", taskName, t.getMessage());
+            log.debug("SchedulerManager Throwable in DB-Aufgabe '{}'", taskName, t);
+            return null;
+        });
     }
-}
\ No newline at end of file
+}
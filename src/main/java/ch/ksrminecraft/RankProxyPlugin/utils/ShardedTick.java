@@ -0,0 +1,93 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Verteilt einen periodischen Durchlauf über alle Online-Spieler auf N
+ * Teil-Ticks pro Intervall (Task läuft alle interval/N), damit DB und
+ * LuckPerms nicht in einer Sekunde die ganze Last abbekommen.
+ *
+ * Modi:
+ * - gehasht: Teil-Tick k bearbeitet alle Spieler mit hash(UUID) mod N == k
+ * - sitzungsbezogen: ein Spieler ist jeweils N Teil-Ticks nach dem ersten
+ *   Teil-Tick fällig, in dem er online gesehen wurde – wer kurz vor einem
+ *   Tick joint, bekommt also kein volles Intervall gutgeschrieben.
+ *
+ * Gezählt wird in Teil-Ticks statt in Uhrzeit; die Klasse kennt weder
+ * Scheduler noch Uhr.
+ */
+public class ShardedTick {
+
+    private final int shards;
+    private final boolean sessionAnchored;
+
+    // nur sitzungsbezogen: Teil-Tick, in dem der Spieler wieder fällig ist
+    private final Map<UUID, Long> dueRound = new HashMap<>();
+    private long round;
+
+    public ShardedTick(int shards, boolean sessionAnchored) {
+        this.shards = Math.max(1, shards);
+        this.sessionAnchored = sessionAnchored;
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Abstand der Teil-Ticks für ein Intervall (mindestens 1 ms).
+     */
+    public long getSubTickMillis(int intervalSeconds) {
+        return Math.max(1L, intervalSeconds * 1000L / shards);
+    }
+
+    public static int shardOf(UUID uuid, int shards) {
+        return Math.floorMod(uuid.hashCode(), Math.max(1, shards));
+    }
+
+    /**
+     * Nächster Teil-Tick: liefert die in diesem Teil-Tick fälligen Spieler.
+     */
+    public synchronized <T> List<T> nextBatch(Collection<T> online, Function<T, UUID> uuidOf) {
+        long current = round++;
+        List<T> due = new ArrayList<>();
+
+        if (!sessionAnchored) {
+            int shard = (int) (current % shards);
+            for (T player : online) {
+                if (shardOf(uuidOf.apply(player), shards) == shard) {
+                    due.add(player);
+                }
+            }
+            return due;
+        }
+
+        Set<UUID> seen = new HashSet<>();
+        for (T player : online) {
+            UUID uuid = uuidOf.apply(player);
+            seen.add(uuid);
+
+            Long dueAt = dueRound.get(uuid);
+            if (dueAt == null) {
+                // Beim Start (Reload mit vielen Online-Spielern) nach Hash verteilen statt alle im selben Teil-Tick
+                long first = (current == 0) ? 1 + shardOf(uuid, shards) : shards;
+                dueRound.put(uuid, current + first);
+            } else if (dueAt <= current) {
+                due.add(player);
+                dueRound.put(uuid, current + shards);
+            }
+        }
+
+        // Offline gegangene Spieler vergessen (neue Sitzung = neuer Anker)
+        dueRound.keySet().retainAll(seen);
+        return due;
+    }
+}
@@ -43,6 +43,8 @@ public class StaffPermissionService {
     private final String playerDefaultGroup;
     private final String staffDefaultGroup;
 
+    private volatile MetricsRegistry metrics = MetricsRegistry.NOOP;
+
     public StaffPermissionService(LuckPerms luckPerms,
                                   LogHelper log,
                                   List<String> playerTrackGroups,
@@ -61,6 +63,25 @@ public class StaffPermissionService {
         this.staffDefaultGroup = staffDefaultGroup;
     }
 
+    /**
+     * Misst loadUser/saveUser als luckperms_seconds{op=...}.
+     */
+    public void setMetrics(MetricsRegistry metrics) {
+        this.metrics = (metrics == null) ? MetricsRegistry.NOOP : metrics;
+    }
+
+    /**
+     * Alle Eingaben, die das Ergebnis von promoteToStaff bestimmen
+     * (für den inkrementellen Start-Abgleich).
+     */
+    public String getConfigFingerprint() {
+        return String.join("|",
+                playerDefaultGroup,
+                staffDefaultGroup,
+                String.join(",", playerTrackGroups),
+                String.join(",", staffRanks));
+    }
+
     /**
      * Staff hinzufügen.
      *
@@ -73,7 +94,7 @@ public class StaffPermissionService {
      */
     public PermissionSyncResult promoteToStaff(UUID uuid, String name) {
         try {
-            User user = luckPerms.getUserManager().loadUser(uuid).join();
+            User user = metrics.timeFuture("luckperms_seconds", "op", "loadUser", luckPerms.getUserManager().loadUser(uuid)).join();
             if (user == null) {
                 log.warn("StaffPermissionService: Konnte LuckPerms-User für {} ({}) nicht laden", name, uuid);
                 return new PermissionSyncResult(false, false);
@@ -123,7 +144,7 @@ public class StaffPermissionService {
                     name, uuid, getDirectGroupNames(user));
 
             if (changed) {
-                luckPerms.getUserManager().saveUser(user).join();
+                metrics.timeFuture("luckperms_seconds", "op", "saveUser", luckPerms.getUserManager().saveUser(user)).join();
                 log.info("StaffPermissionService: {} ({}) erfolgreich in Staff-Laufbahn '{}' verschoben",
                         name, uuid, staffTrackName);
             } else {
@@ -151,7 +172,7 @@ public class StaffPermissionService {
      */
     public PermissionSyncResult demoteFromStaff(UUID uuid, String name) {
         try {
-            User user = luckPerms.getUserManager().loadUser(uuid).join();
+            User user = metrics.timeFuture("luckperms_seconds", "op", "loadUser", luckPerms.getUserManager().loadUser(uuid)).join();
             if (user == null) {
                 log.warn("StaffPermissionService: Konnte LuckPerms-User für {} ({}) nicht laden", name, uuid);
                 return new PermissionSyncResult(false, false);
@@ -173,7 +194,7 @@ public class StaffPermissionService {
                     name, uuid, getDirectGroupNames(user));
 
             if (changed) {
-                luckPerms.getUserManager().saveUser(user).join();
+                metrics.timeFuture("luckperms_seconds", "op", "saveUser", luckPerms.getUserManager().saveUser(user)).join();
                 log.info("StaffPermissionService: {} ({}) erfolgreich aus Staff-Laufbahn '{}' entfernt",
                         name, uuid, staffTrackName);
             } else {
@@ -192,7 +213,7 @@ public class StaffPermissionService {
 
     public Set<String> getCurrentGroups(UUID uuid) {
         try {
-            User user = luckPerms.getUserManager().loadUser(uuid).join();
+            User user = metrics.timeFuture("luckperms_seconds", "op", "loadUser", luckPerms.getUserManager().loadUser(uuid)).join();
             if (user == null) {
                 return Set.of();
             }
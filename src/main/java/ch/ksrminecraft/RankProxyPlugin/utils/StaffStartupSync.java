@@ -0,0 +1,254 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gleicht beim Start alle Stafflist-Einträge mit der Staff-Laufbahn in
+ * LuckPerms ab – im Hintergrund und mit begrenzter Parallelität, damit der
+ * Proxy nicht auf die Summe aller loadUser/saveUser-Rundreisen wartet.
+ *
+ * Inkrementell: nach einem erfolgreichen Abgleich wird pro Spieler ein
+ * Fingerabdruck (Name + Laufbahn-Konfiguration) mit Zeitstempel in
+ * staff-sync-state.tsv gespeichert. Stimmt er beim nächsten Start noch und
+ * ist er jünger als max-age-hours, wird der Spieler übersprungen. Den
+ * LuckPerms-Zustand selbst kann man nicht ohne loadUser prüfen; Änderungen
+ * von aussen fängt deshalb erst die Altersgrenze bzw. der Login ab.
+ */
+public class StaffStartupSync {
+
+    public record Result(int total, int skipped, int changed, int unchanged, int failed, long millis) {}
+
+    private record State(String fingerprint, long verifiedAt) {}
+
+    private static final String STATE_FILE = "staff-sync-state.tsv";
+    private static final long PROGRESS_INTERVAL_MILLIS = 5_000L;
+
+    private final StafflistManager stafflistManager;
+    private final StaffPermissionService staffPermissionService;
+    private final LogHelper log;
+    private final Path stateFile;
+    private final int parallelism;
+    private final long maxAgeMillis;
+    private final String configFingerprint;
+
+    private final ExecutorService executor;
+
+    /**
+     * @param configFingerprint alles aus der Konfiguration, was das Ergebnis
+     *                          von promoteToStaff beeinflusst (Ränge, Default-Gruppen)
+     * @param maxAgeHours       0 = jeden Start alle Einträge prüfen
+     */
+    public StaffStartupSync(StafflistManager stafflistManager,
+                            StaffPermissionService staffPermissionService,
+                            LogHelper log,
+                            Path dataDirectory,
+                            int parallelism,
+                            int maxAgeHours,
+                            String configFingerprint) {
+        this.stafflistManager = stafflistManager;
+        this.staffPermissionService = staffPermissionService;
+        this.log = log;
+        this.stateFile = dataDirectory.resolve(STATE_FILE);
+        this.parallelism = Math.max(1, parallelism);
+        this.maxAgeMillis = Math.max(0, maxAgeHours) * 3_600_000L;
+        this.configFingerprint = configFingerprint;
+
+        AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(this.parallelism, r -> {
+            Thread t = new Thread(r, "RankProxy-StaffSync-" + threadCounter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Startet den Abgleich im Hintergrund. Der Future schliesst immer normal ab.
+     * Koordination (Stafflist laden, warten, Zustand speichern) läuft auf einem
+     * eigenen virtuellen Thread, die LuckPerms-Arbeit auf dem Pool.
+     */
+    public CompletableFuture<Result> runAsync() {
+        return CompletableFuture.supplyAsync(this::run,
+                r -> Thread.ofVirtual().name("RankProxy-StaffSync-Coordinator").start(r)).exceptionally(t -> {
+            log.error("StaffSync: Startup-Synchronisation abgebrochen: {}", t.getMessage());
+            log.debug("StaffSync Exception im Startup-Abgleich", t);
+            return new Result(0, 0, 0, 0, 0, 0);
+        });
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Result run() {
+        long start = System.currentTimeMillis();
+        StafflistManager.StaffLoadSnapshot snapshot = stafflistManager.loadAllStaffSnapshot();
+
+        if (!snapshot.success()) {
+            log.warn("StaffSync: Startup-Sync wird übersprungen, weil die Staffliste nicht erfolgreich aus der DB geladen werden konnte.");
+            return new Result(0, 0, 0, 0, 0, System.currentTimeMillis() - start);
+        }
+
+        Map<String, String> allStaff = snapshot.entries();
+        if (allStaff.isEmpty()) {
+            log.info("StaffSync: Keine Staff-Mitglieder in der Staffliste gefunden.");
+            saveState(Map.of());
+            return new Result(0, 0, 0, 0, 0, System.currentTimeMillis() - start);
+        }
+
+        Map<UUID, State> previous = loadState();
+        Map<UUID, State> next = new ConcurrentHashMap<>();
+        List<Map.Entry<UUID, String>> pending = new ArrayList<>();
+        int invalid = 0;
+
+        for (Map.Entry<String, String> entry : allStaff.entrySet()) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(entry.getKey());
+            } catch (IllegalArgumentException e) {
+                invalid++;
+                log.error("StaffSync: Ungültige UUID in der Stafflist: {} ({})", entry.getKey(), entry.getValue());
+                continue;
+            }
+
+            String fingerprint = fingerprint(entry.getValue());
+            State state = previous.get(uuid);
+            if (state != null && state.fingerprint().equals(fingerprint) && !isExpired(state, start)) {
+                next.put(uuid, state);
+            } else {
+                pending.add(Map.entry(uuid, entry.getValue()));
+            }
+        }
+
+        int skipped = next.size();
+        log.info("StaffSync: {} Staff-Mitglieder geladen, {} unverändert seit letztem Abgleich, {} werden geprüft ({} parallel)",
+                allStaff.size(), skipped, pending.size(), parallelism);
+
+        AtomicInteger done = new AtomicInteger();
+        AtomicInteger changed = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger(invalid);
+        long[] lastProgress = {start};
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(pending.size());
+        for (Map.Entry<UUID, String> entry : pending) {
+            UUID uuid = entry.getKey();
+            String name = entry.getValue();
+
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    StaffPermissionService.PermissionSyncResult result = staffPermissionService.promoteToStaff(uuid, name);
+                    if (!result.success()) {
+                        failed.incrementAndGet();
+                        log.warn("StaffSync: Synchronisation für {} ({}) fehlgeschlagen", name, uuid);
+                        return;
+                    }
+                    if (result.changed()) {
+                        changed.incrementAndGet();
+                        log.info("StaffSync: {} ({}) erfolgreich auf Staff-Laufbahn synchronisiert", name, uuid);
+                    } else {
+                        log.debug("StaffSync: {} ({}) war bereits korrekt in der Staff-Laufbahn", name, uuid);
+                    }
+                    next.put(uuid, new State(fingerprint(name), System.currentTimeMillis()));
+                } catch (Exception e) {
+                    failed.incrementAndGet();
+                    log.error("StaffSync: Fehler beim Sync für {}: {}", name, uuid);
+                    log.debug("StaffSync Exception für {} ({})", name, uuid, e);
+                } finally {
+                    reportProgress(done.incrementAndGet(), pending.size(), lastProgress);
+                }
+            }, executor));
+        }
+
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        saveState(next);
+
+        long millis = System.currentTimeMillis() - start;
+        int failedCount = failed.get();
+        int changedCount = changed.get();
+        Result result = new Result(allStaff.size(), skipped, changedCount,
+                pending.size() - changedCount - (failedCount - invalid), failedCount, millis);
+
+        log.info("StaffSync: Startup-Synchronisation abgeschlossen in {} ms. Übersprungen: {}, geändert: {}, unverändert: {}, fehlgeschlagen: {}",
+                millis, result.skipped(), result.changed(), result.unchanged(), result.failed());
+        return result;
+    }
+
+    private void reportProgress(int done, int total, long[] lastProgress) {
+        long now = System.currentTimeMillis();
+        synchronized (lastProgress) {
+            if (done < total && now - lastProgress[0] < PROGRESS_INTERVAL_MILLIS) {
+                return;
+            }
+            lastProgress[0] = now;
+        }
+        log.info("StaffSync: {}/{} geprüft ({}%)", done, total, done * 100 / Math.max(1, total));
+    }
+
+    private boolean isExpired(State state, long now) {
+        return maxAgeMillis <= 0 || now - state.verifiedAt() >= maxAgeMillis;
+    }
+
+    private String fingerprint(String name) {
+        return Integer.toHexString((name + "|" + configFingerprint).hashCode());
+    }
+
+    // ---------------------------------------------------------------------
+    // Zustandsdatei: UUID \t Fingerabdruck \t verifiedAt
+    // ---------------------------------------------------------------------
+
+    private Map<UUID, State> loadState() {
+        Map<UUID, State> state = new HashMap<>();
+        if (!Files.exists(stateFile)) {
+            return state;
+        }
+
+        try {
+            for (String line : Files.readAllLines(stateFile, StandardCharsets.UTF_8)) {
+                String[] parts = line.split("\t");
+                if (parts.length != 3) {
+                    continue;
+                }
+                try {
+                    state.put(UUID.fromString(parts[0]), new State(parts[1], Long.parseLong(parts[2])));
+                } catch (IllegalArgumentException e) {
+                    log.debug("StaffSync: Ungültige Zeile in {} ignoriert: {}", STATE_FILE, line);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("StaffSync: {} konnte nicht gelesen werden – alle Einträge werden geprüft: {}", STATE_FILE, e.getMessage());
+            log.debug("StaffSync Exception beim Lesen von {}", STATE_FILE, e);
+        }
+        return state;
+    }
+
+    private void saveState(Map<UUID, State> state) {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<UUID, State> entry : state.entrySet()) {
+            sb.append(entry.getKey()).append('\t')
+                    .append(entry.getValue().fingerprint()).append('\t')
+                    .append(entry.getValue().verifiedAt()).append('\n');
+        }
+
+        Path tmp = stateFile.resolveSibling(STATE_FILE + ".tmp");
+        try {
+            Files.writeString(tmp, sb.toString(), StandardCharsets.UTF_8);
+            Files.move(tmp, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("StaffSync: {} konnte nicht geschrieben werden: {}", STATE_FILE, e.getMessage());
+            log.debug("StaffSync Exception beim Schreiben von {}", STATE_FILE, e);
+        }
+    }
+}
@@ -9,13 +9,16 @@ import java.sql.SQLNonTransientConnectionException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
 
 /**
  * Frische DB-Verbindungen + Cache + Change Detection für die Stafflist.
@@ -26,6 +29,21 @@ import java.util.concurrent.atomic.AtomicLong;
  * - Cache aktuell halten
  * - Änderungen (added/removed) erkennen
  *
+ * Änderungsfeed: addStaffMember/removeStaffMember schreiben in derselben
+ * Transaktion eine Zeile in stafflist_changes (fortlaufende id).
+ * pollStaffChanges liest nur Zeilen oberhalb der zuletzt gesehenen id
+ * (Bereichsabfrage auf dem Primärschlüssel, im Normalfall 0 Zeilen).
+ * InnoDB vergibt die id vor dem Commit: fehlt eine id, hält der Poll davor
+ * an, bis die Lücke gefüllt oder älter als die Karenzzeit ist (abgebrochene
+ * Transaktion), damit keine später committete Zeile übersprungen wird.
+ * Direkte Änderungen an der stafflist-Tabelle ausserhalb des Plugins
+ * erkennt der periodische Vollabgleich (staff.full-resync-interval-seconds).
+ *
+ * Der Staff-Cache ist ein unveränderlicher Snapshot hinter einer
+ * AtomicReference. isStaff() liest nur diesen Snapshot und geht nie auf
+ * die DB. Einmal beim Start voll geladen, danach halten ihn nur der
+ * Änderungsfeed und der periodische Vollabgleich aktuell.
+ *
  * Keine LuckPerms-Logik:
  * Diese liegt zentral im StaffPermissionService.
  */
@@ -96,14 +114,48 @@ public class StafflistManager {
         }
     }
 
+    /**
+     * Unveränderlicher Stand des Staff-Caches.
+     *
+     * @param loadedAt Zeitpunkt des letzten erfolgreichen Ladens, 0 = nie geladen
+     */
+    private record StaffSnapshot(Map<UUID, String> names, long loadedAt) {
+
+        static final StaffSnapshot EMPTY = new StaffSnapshot(Map.of(), 0L);
+
+        StaffSnapshot with(UnaryOperator<Map<UUID, String>> change) {
+            return new StaffSnapshot(Map.copyOf(change.apply(new HashMap<>(names))), loadedAt);
+        }
+    }
+
     private final DataSource dataSource;
     private final LogHelper log;
 
-    private final Set<UUID> staffCache = ConcurrentHashMap.newKeySet();
-    private final Map<UUID, String> staffNameCache = new ConcurrentHashMap<>();
+    private final AtomicReference<StaffSnapshot> snapshot = new AtomicReference<>(StaffSnapshot.EMPTY);
+
+    // Stand, gegen den pollStaffChanges vergleicht (unabhängig vom Cache-Refresh)
+    private final AtomicReference<Map<UUID, String>> pollBaseline = new AtomicReference<>(null);
+
+    // von applyLocalChange erhöht: ein Laden, während dem sich der Zähler bewegt, ist veraltet
+    private final Object localChangeLock = new Object();
+    private volatile long localChangeVersion = 0L;
+
+    // höchste verarbeitete id aus stafflist_changes, -1 = unbekannt (Vollabgleich)
+    private volatile long changeHighWater = -1L;
+    // erste fehlende id oberhalb von changeHighWater und seit wann sie fehlt
+    private static final long CHANGE_GAP_GRACE_MILLIS = 10_000L;
+    private volatile long changeGapId = -1L;
+    private volatile long changeGapSince = 0L;
+    private volatile long lastFullSync = 0L;
+    private volatile long fullResyncMillis = Duration.ofSeconds(600).toMillis();
 
-    private final AtomicLong lastCacheLoad = new AtomicLong(0L);
-    private volatile long cacheTtlMillis = Duration.ofSeconds(60).toMillis();
+    // optional: Nachladen und *Async-Methoden laufen darüber
+    private volatile DbExecutor dbExecutor;
+    private final AtomicBoolean refreshRunning = new AtomicBoolean(false);
+
+    // optional: wird bei jedem geänderten Snapshot aufgerufen (z. B. PlayerNameIndex)
+    private volatile Consumer<Map<UUID, String>> snapshotListener;
+    private final Object listenerLock = new Object();
 
     public StafflistManager(DataSource dataSource, LogHelper log) {
         this.dataSource = dataSource;
@@ -111,24 +163,38 @@ public class StafflistManager {
 
         try {
             ensureTableExists();
-            refreshCacheIfExpired(true);
+            ensureChangelogTableExists();
+
+            // vor dem ersten Laden merken: spätere Änderungen kommen über den Feed
+            changeHighWater = readMaxChangeId();
+            loadCacheIfMissing();
+            lastFullSync = System.currentTimeMillis();
         } catch (SQLException e) {
             log.error("StafflistManager: Tabelle 'stafflist' konnte nicht geprüft oder erstellt werden: {}", e.getMessage());
             log.debug("StafflistManager Exception im Konstruktor", e);
         }
     }
 
-    public StafflistManager(DataSource dataSource, LogHelper log, int cacheTtlSeconds) {
+    public StafflistManager(DataSource dataSource, LogHelper log, DbExecutor dbExecutor) {
         this(dataSource, log);
-        setCacheTtlSeconds(cacheTtlSeconds);
-        log.info("StafflistManager: Staff-Cache-TTL = {}s", cacheTtlSeconds);
+        this.dbExecutor = dbExecutor;
+    }
+
+    /**
+     * Intervall für den Vollabgleich der stafflist-Tabelle (0 = nur Änderungsfeed).
+     */
+    public void setFullResyncSeconds(int seconds) {
+        this.fullResyncMillis = Duration.ofSeconds(Math.max(0, seconds)).toMillis();
     }
 
-    public void setCacheTtlSeconds(int seconds) {
-        if (seconds < 1) {
-            seconds = 1;
+    /**
+     * Meldet jeden geänderten Staff-Snapshot (UUID -> Name), sofort auch den aktuellen.
+     */
+    public void setSnapshotListener(Consumer<Map<UUID, String>> listener) {
+        this.snapshotListener = listener;
+        if (listener != null) {
+            listener.accept(snapshot.get().names());
         }
-        this.cacheTtlMillis = Duration.ofSeconds(seconds).toMillis();
     }
 
     private void ensureTableExists() throws SQLException {
@@ -145,15 +211,31 @@ public class StafflistManager {
         }
     }
 
+    private void ensureChangelogTableExists() throws SQLException {
+        final String sql =
+                "CREATE TABLE IF NOT EXISTS stafflist_changes (" +
+                        "  id         BIGINT      NOT NULL AUTO_INCREMENT PRIMARY KEY," +
+                        "  UUID       VARCHAR(36) NOT NULL," +
+                        "  name       VARCHAR(50) NULL," +
+                        "  action     CHAR(1)     NOT NULL," +
+                        "  changed_at DATETIME    NOT NULL DEFAULT CURRENT_TIMESTAMP," +
+                        "  INDEX idx_changed_at (changed_at)" +
+                        ") ENGINE=InnoDB DEFAULT CHARSET=utf8mb4";
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.executeUpdate();
+            log.info("StafflistManager: Tabelle 'stafflist_changes' geprüft/erstellt");
+        }
+    }
+
     public boolean addStaffMember(UUID uuid, String name) {
         final String sql = "INSERT IGNORE INTO stafflist (UUID, name) VALUES (?, ?)";
 
         try {
             boolean ok = addStaffMemberOnce(uuid, name, sql);
             if (ok) {
-                staffCache.add(uuid);
-                staffNameCache.put(uuid, name);
-                lastCacheLoad.set(System.currentTimeMillis());
+                applyLocalChange(uuid, name);
                 log.debug("StafflistManager: {} ({}) zur Stafflist hinzugefügt", name, uuid);
             }
             return ok;
@@ -165,9 +247,7 @@ public class StafflistManager {
             try {
                 boolean ok = addStaffMemberOnce(uuid, name, sql);
                 if (ok) {
-                    staffCache.add(uuid);
-                    staffNameCache.put(uuid, name);
-                    lastCacheLoad.set(System.currentTimeMillis());
+                    applyLocalChange(uuid, name);
                     log.debug("StafflistManager: {} ({}) nach Retry zur Stafflist hinzugefügt", name, uuid);
                 }
                 return ok;
@@ -190,9 +270,7 @@ public class StafflistManager {
         try {
             boolean ok = removeStaffMemberOnce(uuid, sql);
             if (ok) {
-                staffCache.remove(uuid);
-                staffNameCache.remove(uuid);
-                lastCacheLoad.set(System.currentTimeMillis());
+                applyLocalChange(uuid, null);
                 log.debug("StafflistManager: {} aus Stafflist entfernt", uuid);
             }
             return ok;
@@ -204,9 +282,7 @@ public class StafflistManager {
             try {
                 boolean ok = removeStaffMemberOnce(uuid, sql);
                 if (ok) {
-                    staffCache.remove(uuid);
-                    staffNameCache.remove(uuid);
-                    lastCacheLoad.set(System.currentTimeMillis());
+                    applyLocalChange(uuid, null);
                     log.debug("StafflistManager: {} nach Retry aus Stafflist entfernt", uuid);
                 }
                 return ok;
@@ -229,17 +305,12 @@ public class StafflistManager {
             return false;
         }
 
-        final String sql = "DELETE FROM stafflist WHERE LOWER(name) = LOWER(?)";
-
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, name);
+        final String sql = "DELETE FROM stafflist WHERE UUID = ?";
 
-            boolean ok = ps.executeUpdate() > 0;
+        try {
+            boolean ok = removeStaffMemberOnce(uuid, sql);
             if (ok) {
-                staffCache.remove(uuid);
-                staffNameCache.remove(uuid);
-                lastCacheLoad.set(System.currentTimeMillis());
+                applyLocalChange(uuid, null);
                 log.debug("StafflistManager: '{}' ({}) per removeStaffByName entfernt", name, uuid);
             }
             return ok;
@@ -251,15 +322,52 @@ public class StafflistManager {
         }
     }
 
+    /**
+     * Prüft nur gegen den aktuellen Snapshot, ohne DB-Zugriff und ohne Lock.
+     * Vor dem ersten erfolgreichen Laden ist niemand Staff (siehe isLoaded()).
+     */
     public boolean isStaff(UUID uuid) {
-        try {
-            refreshCacheIfExpired(false);
-            return staffCache.contains(uuid);
-        } catch (Exception e) {
-            log.warn("StafflistManager: Cache-Prüfung fehlgeschlagen, Fallback auf Einzelabfrage für {}", uuid);
-            log.debug("StafflistManager Exception bei isStaff Cache-Check für {}", uuid, e);
-            return isStaffDb(uuid);
+        return uuid != null && snapshot.get().names().containsKey(uuid);
+    }
+
+    /**
+     * true, sobald die Stafflist mindestens einmal erfolgreich geladen wurde.
+     */
+    public boolean isLoaded() {
+        return snapshot.get().loadedAt() > 0L;
+    }
+
+    /**
+     * Unveränderliche Menge aller Staff-UUIDs des aktuellen Snapshots.
+     */
+    public Set<UUID> getStaffSnapshot() {
+        return snapshot.get().names().keySet();
+    }
+
+    /**
+     * Holt das erste Laden im Hintergrund nach, falls es beim Start
+     * fehlgeschlagen ist. Danach ohne DB-Zugriff; läuft bereits ein
+     * Nachladen, wird nichts angestossen.
+     */
+    public CompletableFuture<Void> refreshAsync() {
+        if (isLoaded()) {
+            return CompletableFuture.completedFuture(null);
         }
+
+        if (!refreshRunning.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        return submit("stafflist-refresh", () -> {
+            loadCacheIfMissing();
+            return (Void) null;
+        }).whenComplete((v, t) -> {
+            refreshRunning.set(false);
+            if (t != null) {
+                log.warn("StafflistManager: Hintergrund-Refresh des Staff-Caches fehlgeschlagen: {}", t.getMessage());
+                log.debug("StafflistManager Exception bei refreshAsync", t);
+            }
+        });
     }
 
     public UUID getUUIDByName(String name) {
@@ -304,14 +412,16 @@ public class StafflistManager {
 
     /**
      * Rückwärtskompatible Methode.
-     * Bei DB-Fehler wird weiterhin eine leere Map zurückgegeben,
-     * aber der Cache wird NICHT überschrieben.
+     * Bei DB-Fehler wird weiterhin eine leere Map zurückgegeben.
+     * Der Snapshot wird hier nicht angefasst: ein ohne Versionsprüfung
+     * geladener Stand könnte eine parallele lokale Änderung oder einen
+     * neueren Change-Feed-Stand überschreiben.
      */
     public Map<String, String> getAllStaff() {
         StaffFetchResult fetchResult = fetchAllStaffEntries();
 
         if (!fetchResult.success()) {
-            log.warn("StafflistManager: getAllStaff liefert wegen DB-Fehler eine leere Map zurück. Bestehender Cache bleibt erhalten.");
+            log.warn("StafflistManager: getAllStaff liefert wegen DB-Fehler eine leere Map zurück.");
             return new HashMap<>();
         }
 
@@ -320,7 +430,6 @@ public class StafflistManager {
             staffMap.put(entry.getKey().toString(), entry.getValue());
         }
 
-        refreshCacheFromUuidMap(fetchResult.entries());
         return staffMap;
     }
 
@@ -346,11 +455,154 @@ public class StafflistManager {
     /**
      * Erkennt neue und entfernte Staff-Einträge seit dem letzten bekannten Stand.
      *
+     * Normalfall: nur neue Zeilen aus stafflist_changes lesen.
+     * Vollabgleich bei unbekanntem Stand oder nach full-resync-interval-seconds.
+     *
      * Wichtig:
      * Bei DB-Fehler wird NICHT auf einen leeren Stand umgestellt.
      * Stattdessen bleibt der bestehende Cache erhalten.
      */
     public StaffChanges pollStaffChanges() {
+        long now = System.currentTimeMillis();
+        boolean fullDue = fullResyncMillis > 0 && (now - lastFullSync) >= fullResyncMillis;
+
+        if (changeHighWater < 0 || pollBaseline.get() == null || fullDue) {
+            return pollAllStaffChanges();
+        }
+
+        final String sql = "SELECT id, UUID, name, action FROM stafflist_changes WHERE id > ? ORDER BY id";
+
+        long version = localChangeVersion;
+        long highWater = changeHighWater;
+        Map<UUID, String> lastAdded = new HashMap<>();
+        Map<UUID, Boolean> lastAction = new HashMap<>();
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setLong(1, highWater);
+
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    long id = rs.getLong("id");
+                    if (id > highWater + 1 && !gapExpired(highWater + 1, now)) {
+                        // Zeile(n) davor evtl. noch nicht committet: ab hier beim nächsten Poll weiterlesen
+                        break;
+                    }
+                    highWater = id;
+                    try {
+                        UUID uuid = UUID.fromString(rs.getString("UUID"));
+                        boolean add = "A".equals(rs.getString("action"));
+                        lastAction.put(uuid, add);
+                        if (add) {
+                            String name = rs.getString("name");
+                            lastAdded.put(uuid, name != null ? name : uuid.toString());
+                        }
+                    } catch (IllegalArgumentException ignore) {
+                        log.warn("StafflistManager: Ungültige UUID in stafflist_changes ignoriert (id={})", highWater);
+                    }
+                }
+            }
+
+        } catch (SQLException e) {
+            log.warn("StafflistManager: pollStaffChanges wird wegen DB-Fehler übersprungen: {}", e.getMessage());
+            log.debug("StafflistManager Exception bei pollStaffChanges", e);
+            return new StaffChanges(Map.of(), Map.of());
+        }
+
+        if (lastAction.isEmpty()) {
+            changeHighWater = highWater;
+            log.trace("StafflistManager: Keine Stafflist-Änderungen seit id {}", highWater);
+            return new StaffChanges(Map.of(), Map.of());
+        }
+
+        Map<UUID, String> added = new HashMap<>();
+        Map<UUID, String> removed = new HashMap<>();
+        long readUpTo = highWater;
+
+        boolean applied = applyIfCurrent(version, () -> {
+            changeHighWater = readUpTo;
+            applyFeedRows(lastAdded, lastAction, added, removed);
+        });
+        if (!applied) {
+            // eigene Änderung während der Abfrage: Zeilen beim nächsten Poll nochmals lesen
+            log.debug("StafflistManager: Änderungsfeed während eigener Änderung gelesen – wird beim nächsten Poll wiederholt");
+            return new StaffChanges(Map.of(), Map.of());
+        }
+
+        logChanges(added, removed);
+        return new StaffChanges(added, removed);
+    }
+
+    /**
+     * Prüft, ob die fehlende id übersprungen werden darf. Beim ersten
+     * Auftreten startet die Karenzzeit; danach gilt die id als verworfen
+     * (Rollback oder auto_increment_increment > 1).
+     */
+    private boolean gapExpired(long missingId, long now) {
+        if (changeGapId != missingId) {
+            changeGapId = missingId;
+            changeGapSince = now;
+            log.debug("StafflistManager: id {} fehlt im Änderungsfeed – warte auf Commit", missingId);
+            return false;
+        }
+        if (now - changeGapSince < CHANGE_GAP_GRACE_MILLIS) {
+            return false;
+        }
+        log.debug("StafflistManager: id {} fehlt seit über {} ms im Änderungsfeed – wird übersprungen",
+                missingId, CHANGE_GAP_GRACE_MILLIS);
+        return true;
+    }
+
+    /**
+     * Übernimmt gelesene Feed-Zeilen in Poll-Stand und Snapshot.
+     */
+    private void applyFeedRows(Map<UUID, String> lastAdded, Map<UUID, Boolean> lastAction,
+                               Map<UUID, String> added, Map<UUID, String> removed) {
+        Map<UUID, String> previous = pollBaseline.get();
+        Map<UUID, String> next = new HashMap<>(previous);
+
+        for (Map.Entry<UUID, Boolean> entry : lastAction.entrySet()) {
+            UUID uuid = entry.getKey();
+
+            if (entry.getValue()) {
+                String name = lastAdded.get(uuid);
+                if (!previous.containsKey(uuid)) {
+                    added.put(uuid, name);
+                }
+                next.put(uuid, name);
+            } else if (previous.containsKey(uuid)) {
+                String name = previous.get(uuid);
+                removed.put(uuid, name != null ? name : uuid.toString());
+                next.remove(uuid);
+            }
+        }
+
+        pollBaseline.set(Map.copyOf(next));
+        updateSnapshot(current -> current.with(map -> {
+            lastAction.forEach((uuid, add) -> {
+                if (add) {
+                    map.put(uuid, lastAdded.get(uuid));
+                } else {
+                    map.remove(uuid);
+                }
+            });
+            return map;
+        }));
+    }
+
+    /**
+     * Vollabgleich: ganze stafflist laden und gegen den letzten Stand vergleichen.
+     */
+    private StaffChanges pollAllStaffChanges() {
+        long version = localChangeVersion;
+        long highWater;
+        try {
+            highWater = readMaxChangeId();
+        } catch (SQLException e) {
+            highWater = -1L;
+            log.debug("StafflistManager Exception bei readMaxChangeId", e);
+        }
+
         StaffFetchResult fetchResult = fetchAllStaffEntries();
 
         if (!fetchResult.success()) {
@@ -358,83 +610,175 @@ public class StafflistManager {
             return new StaffChanges(Map.of(), Map.of());
         }
 
-        Map<UUID, String> dbMap = fetchResult.entries();
-
-        Set<UUID> previousStaff = new HashSet<>(staffCache);
-        Map<UUID, String> previousNames = new HashMap<>(staffNameCache);
-
+        Map<UUID, String> dbMap = Map.copyOf(fetchResult.entries());
         Map<UUID, String> added = new HashMap<>();
         Map<UUID, String> removed = new HashMap<>();
+        long readHighWater = highWater;
 
-        for (Map.Entry<UUID, String> entry : dbMap.entrySet()) {
-            if (!previousStaff.contains(entry.getKey())) {
-                added.put(entry.getKey(), entry.getValue());
+        boolean applied = applyIfCurrent(version, () -> {
+            Map<UUID, String> previous = pollBaseline.getAndSet(dbMap);
+            if (previous == null) {
+                previous = snapshot.get().names();
             }
-        }
 
-        for (UUID oldUuid : previousStaff) {
-            if (!dbMap.containsKey(oldUuid)) {
-                removed.put(oldUuid, previousNames.getOrDefault(oldUuid, oldUuid.toString()));
+            for (Map.Entry<UUID, String> entry : dbMap.entrySet()) {
+                if (!previous.containsKey(entry.getKey())) {
+                    added.put(entry.getKey(), entry.getValue());
+                }
+            }
+
+            for (Map.Entry<UUID, String> entry : previous.entrySet()) {
+                if (!dbMap.containsKey(entry.getKey())) {
+                    removed.put(entry.getKey(), entry.getValue() != null ? entry.getValue() : entry.getKey().toString());
+                }
             }
+
+            publish(dbMap);
+            changeHighWater = readHighWater;
+        });
+        if (!applied) {
+            // lastFullSync bleibt stehen: der nächste Poll macht den Vollabgleich nochmals
+            log.debug("StafflistManager: Vollabgleich verworfen, eigene Änderung während des Ladens");
+            return new StaffChanges(Map.of(), Map.of());
         }
 
-        refreshCacheFromUuidMap(dbMap);
+        lastFullSync = System.currentTimeMillis();
+        pruneChangelog();
 
+        log.debug("StafflistManager: Vollabgleich der Stafflist ({} Einträge)", dbMap.size());
+        logChanges(added, removed);
+        return new StaffChanges(added, removed);
+    }
+
+    private void logChanges(Map<UUID, String> added, Map<UUID, String> removed) {
         if (!added.isEmpty()) {
             log.info("StafflistManager: {} neue Staff-Einträge erkannt", added.size());
         }
         if (!removed.isEmpty()) {
             log.info("StafflistManager: {} entfernte Staff-Einträge erkannt", removed.size());
         }
-
-        return new StaffChanges(added, removed);
     }
 
     // ---------------------------------------------------------------------
-    // Internals
+    // Asynchrone Varianten (DbExecutor)
     // ---------------------------------------------------------------------
 
-    private void refreshCacheFromMap(Map<String, String> staffMap) {
-        Set<UUID> fresh = new HashSet<>();
-        Map<UUID, String> names = new HashMap<>();
+    public CompletableFuture<Boolean> addStaffMemberAsync(UUID uuid, String name) {
+        return submit("stafflist-add", () -> addStaffMember(uuid, name));
+    }
+
+    public CompletableFuture<Boolean> removeStaffMemberAsync(UUID uuid) {
+        return submit("stafflist-remove", () -> removeStaffMember(uuid));
+    }
 
-        for (Map.Entry<String, String> entry : staffMap.entrySet()) {
+    public CompletableFuture<StaffChanges> pollStaffChangesAsync() {
+        return submit("stafflist-poll", this::pollStaffChanges);
+    }
+
+    private <T> CompletableFuture<T> submit(String taskName, Callable<T> task) {
+        DbExecutor executor = dbExecutor;
+        if (executor == null) {
             try {
-                UUID uuid = UUID.fromString(entry.getKey());
-                fresh.add(uuid);
-                names.put(uuid, entry.getValue());
-            } catch (IllegalArgumentException ignore) {
-                log.warn("StafflistManager: Ungültige UUID im staffMap ignoriert: {}", entry.getKey());
+                return CompletableFuture.completedFuture(task.call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
             }
         }
+        return executor.supply(taskName, task);
+    }
 
-        staffCache.clear();
-        staffCache.addAll(fresh);
+    // ---------------------------------------------------------------------
+    // Internals
+    // ---------------------------------------------------------------------
 
-        staffNameCache.clear();
-        staffNameCache.putAll(names);
+    /**
+     * Veröffentlicht einen frisch geladenen Stand als neuen Snapshot.
+     */
+    private void publish(Map<UUID, String> dbMap) {
+        Map<UUID, String> names = Map.copyOf(dbMap);
+        long now = System.currentTimeMillis();
+        updateSnapshot(current -> new StaffSnapshot(names, now));
 
-        lastCacheLoad.set(System.currentTimeMillis());
+        // erster erfolgreicher Stand ist Ausgangspunkt für pollStaffChanges
+        pollBaseline.compareAndSet(null, names);
     }
 
-    private void refreshCacheFromUuidMap(Map<UUID, String> dbMap) {
-        staffCache.clear();
-        staffCache.addAll(dbMap.keySet());
+    /**
+     * Tauscht den Snapshot und meldet geänderte Staff-Einträge dem Listener.
+     */
+    private void updateSnapshot(UnaryOperator<StaffSnapshot> change) {
+        StaffSnapshot previous = snapshot.getAndUpdate(change);
 
-        staffNameCache.clear();
-        staffNameCache.putAll(dbMap);
+        Consumer<Map<UUID, String>> listener = snapshotListener;
+        if (listener == null) {
+            return;
+        }
 
-        lastCacheLoad.set(System.currentTimeMillis());
+        // immer den neuesten Stand melden, auch wenn zwei Updates sich überholen
+        synchronized (listenerLock) {
+            Map<UUID, String> names = snapshot.get().names();
+            if (names.equals(previous.names())) {
+                return;
+            }
+            try {
+                listener.accept(names);
+            } catch (Exception e) {
+                log.warn("StafflistManager: Snapshot-Listener fehlgeschlagen: {}", e.getMessage());
+                log.debug("StafflistManager Exception im Snapshot-Listener", e);
+            }
+        }
     }
 
-    private void refreshCacheIfExpired(boolean force) {
-        long now = System.currentTimeMillis();
-        long last = lastCacheLoad.get();
+    /**
+     * Übernimmt eine eigene Änderung (add/remove) sofort in Snapshot und
+     * Poll-Stand, damit pollStaffChanges sie nicht nochmals meldet.
+     *
+     * @param name null = entfernen
+     */
+    private void applyLocalChange(UUID uuid, String name) {
+        UnaryOperator<Map<UUID, String>> change = map -> {
+            if (name == null) {
+                map.remove(uuid);
+            } else {
+                map.put(uuid, name);
+            }
+            return map;
+        };
+
+        synchronized (localChangeLock) {
+            localChangeVersion++;
+            updateSnapshot(current -> current.with(change));
+            pollBaseline.updateAndGet(current -> current == null ? null : Map.copyOf(change.apply(new HashMap<>(current))));
+        }
+    }
 
-        if (!force && (now - last) < cacheTtlMillis) {
+    /**
+     * Übernimmt einen aus der DB geladenen Stand nur, wenn seit Beginn des
+     * Ladens (version) keine eigene Änderung dazwischenkam – sonst würde
+     * z. B. ein gerade entfernter Staff mit dem älteren Stand zurückkommen.
+     *
+     * @return false, wenn der geladene Stand verworfen wurde
+     */
+    private boolean applyIfCurrent(long version, Runnable apply) {
+        synchronized (localChangeLock) {
+            if (localChangeVersion != version) {
+                return false;
+            }
+            apply.run();
+            return true;
+        }
+    }
+
+    /**
+     * Erstes volles Laden des Snapshots. Im laufenden Betrieb kommen
+     * Änderungen nur noch über pollStaffChanges.
+     */
+    private void loadCacheIfMissing() {
+        if (isLoaded()) {
             return;
         }
 
+        long version = localChangeVersion;
         StaffFetchResult fetchResult = fetchAllStaffEntries();
 
         if (!fetchResult.success()) {
@@ -442,11 +786,11 @@ public class StafflistManager {
             return;
         }
 
-        Map<UUID, String> dbMap = fetchResult.entries();
-        refreshCacheFromUuidMap(dbMap);
-
-        lastCacheLoad.set(now);
-        log.debug("StafflistManager: Staff-Cache neu geladen ({} Einträge)", staffCache.size());
+        if (!applyIfCurrent(version, () -> publish(fetchResult.entries()))) {
+            log.debug("StafflistManager: Neu geladener Staff-Cache verworfen, eigene Änderung während des Ladens");
+            return;
+        }
+        log.debug("StafflistManager: Staff-Cache neu geladen ({} Einträge)", fetchResult.entries().size());
     }
 
     private StaffFetchResult fetchAllStaffEntries() {
@@ -476,42 +820,96 @@ public class StafflistManager {
         }
     }
 
-    private boolean isStaffDb(UUID uuid) {
-        final String sql = "SELECT 1 FROM stafflist WHERE UUID = ? LIMIT 1";
+    private boolean addStaffMemberOnce(UUID uuid, String name, String sql) throws SQLException {
+        try (Connection c = dataSource.getConnection()) {
+            return inTransaction(c, () -> {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setString(1, uuid.toString());
+                    ps.setString(2, name);
+                    if (ps.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                recordChange(c, uuid, name, "A");
+                return true;
+            });
+        }
+    }
+
+    private boolean removeStaffMemberOnce(UUID uuid, String sql) throws SQLException {
+        try (Connection c = dataSource.getConnection()) {
+            return inTransaction(c, () -> {
+                try (PreparedStatement ps = c.prepareStatement(sql)) {
+                    ps.setString(1, uuid.toString());
+                    if (ps.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                recordChange(c, uuid, null, "R");
+                return true;
+            });
+        }
+    }
+
+    private interface SqlWork {
+        boolean run() throws SQLException;
+    }
+
+    private static boolean inTransaction(Connection c, SqlWork work) throws SQLException {
+        boolean previousAutoCommit = c.getAutoCommit();
+        c.setAutoCommit(false);
 
         try {
-            return isStaffOnce(uuid, sql);
+            boolean result = work.run();
+            c.commit();
+            return result;
         } catch (SQLException e) {
-            log.error("StafflistManager: Fehler beim Staff-Check für {}: {}", uuid, e.getMessage());
-            log.debug("StafflistManager Exception bei isStaffDb für {}", uuid, e);
-            return false;
+            c.rollback();
+            throw e;
+        } finally {
+            c.setAutoCommit(previousAutoCommit);
         }
     }
 
-    private boolean addStaffMemberOnce(UUID uuid, String name, String sql) throws SQLException {
-        try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
+    /**
+     * Schreibt eine Zeile in den Änderungsfeed (action: A = hinzugefügt, R = entfernt).
+     */
+    private static void recordChange(Connection c, UUID uuid, String name, String action) throws SQLException {
+        final String sql = "INSERT INTO stafflist_changes (UUID, name, action) VALUES (?, ?, ?)";
+
+        try (PreparedStatement ps = c.prepareStatement(sql)) {
             ps.setString(1, uuid.toString());
             ps.setString(2, name);
-            return ps.executeUpdate() > 0;
+            ps.setString(3, action);
+            ps.executeUpdate();
         }
     }
 
-    private boolean removeStaffMemberOnce(UUID uuid, String sql) throws SQLException {
+    private long readMaxChangeId() throws SQLException {
+        final String sql = "SELECT COALESCE(MAX(id), 0) FROM stafflist_changes";
+
         try (Connection c = dataSource.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
-            return ps.executeUpdate() > 0;
+             PreparedStatement ps = c.prepareStatement(sql);
+             ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0L;
         }
     }
 
-    private boolean isStaffOnce(UUID uuid, String sql) throws SQLException {
+    /**
+     * Entfernt alte Feed-Zeilen; nach einem Vollabgleich werden sie nicht mehr gebraucht.
+     */
+    private void pruneChangelog() {
+        final String sql = "DELETE FROM stafflist_changes WHERE changed_at < NOW() - INTERVAL 7 DAY";
+
         try (Connection c = dataSource.getConnection();
              PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, uuid.toString());
-            try (ResultSet rs = ps.executeQuery()) {
-                return rs.next();
+            int deleted = ps.executeUpdate();
+            if (deleted > 0) {
+                log.debug("StafflistManager: {} alte Zeile(n) aus stafflist_changes entfernt", deleted);
             }
+        } catch (SQLException e) {
+            log.warn("StafflistManager: stafflist_changes konnte nicht bereinigt werden: {}", e.getMessage());
+            log.debug("StafflistManager Exception bei pruneChangelog", e);
         }
     }
 
@@ -0,0 +1,43 @@
+package ch.ksrminecraft.RankProxyPlugin.utils;
+
+/**
+ * Einfacher Token-Bucket: bis zu capacity Tokens, Nachfüllung mit
+ * ratePerSecond. Ein verbrauchter Token entspricht einer Nachricht / einem Eintrag.
+ */
+public class TokenBucket {
+
+    private final double capacity;
+    private final double refillPerNano;
+
+    private double tokens;
+    private long lastRefill;
+
+    private long dropped;
+
+    public TokenBucket(double ratePerSecond, int capacity) {
+        this.capacity = Math.max(1, capacity);
+        this.refillPerNano = Math.max(0.0, ratePerSecond) / 1_000_000_000.0;
+        this.tokens = this.capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Verbraucht einen Token; false (und Drop gezählt), wenn keiner frei ist.
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        dropped++;
+        return false;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+}